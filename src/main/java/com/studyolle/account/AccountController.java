@@ -53,7 +53,13 @@ public class AccountController {
 //        if (errors.hasErrors()) {
 //            return "account/sign-up";
 //        }
-        Account account = accountService.processNewAccount(signUpForm);
+        Account account;
+        try {
+            account = accountService.processNewAccount(signUpForm);
+        } catch (PasswordHashBusyException e) {
+            errors.rejectValue("password", "busy", e.getMessage());
+            return "account/sign-up";
+        }
         accountService.login(account);
 
         return "redirect:/";
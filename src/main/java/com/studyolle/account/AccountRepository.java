@@ -4,6 +4,8 @@ import com.studyolle.domain.Account;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 @Transactional(readOnly = true)
 public interface AccountRepository extends JpaRepository<Account, Long> { // <객체, id의 타입>
 
@@ -14,4 +16,6 @@ public interface AccountRepository extends JpaRepository<Account, Long> { // <
     Account findByEmail(String email);
 
     Account findByNickname(String emailOrNickname);
+
+    List<Account> findByEmailOrNickname(String email, String nickname); // 로그인, 이메일과 닉네임을 한번에 찾음
 }
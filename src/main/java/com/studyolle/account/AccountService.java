@@ -4,29 +4,33 @@ import com.studyolle.account.form.SignUpForm;
 import com.studyolle.config.AppProperties;
 import com.studyolle.domain.Account;
 import com.studyolle.tag.Tag;
+import com.studyolle.tag.TagAutocomplete;
 import com.studyolle.domain.Zone;
+import com.studyolle.image.ImageService;
 import com.studyolle.mail.EmailMessage;
 import com.studyolle.mail.EmailService;
+import com.studyolle.mail.MailTemplateRenderer;
 import com.studyolle.settings.form.Notifications;
 import com.studyolle.settings.form.Profile;
+import com.studyolle.study.view.StudyViewService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.modelmapper.ModelMapper;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.ModelAttribute;
-import org.thymeleaf.TemplateEngine;
-import org.thymeleaf.context.Context;
 import javax.validation.Valid;
-import java.util.List;
+import java.util.Comparator;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -34,14 +38,18 @@ import java.util.Set;
 @Transactional
 @RequiredArgsConstructor
 @Slf4j
-public class AccountService implements UserDetailsService {
+public class AccountService implements UserDetailsService, UserDetailsPasswordService {
 
     private final AccountRepository accountRepository;
     private final EmailService emailService;
     private final PasswordEncoder passwordEncoder;
     private final ModelMapper modelMapper;
-    private final TemplateEngine templateEngine; // 타임리프의 가장 핵심적인 클래스
+    private final MailTemplateRenderer mailTemplateRenderer; // 단순한 메일 템플릿은 미리 렌더링해 둔 조각을 이어 붙임
     private final AppProperties appProperties;
+    private final ImageService imageService;
+    private final TagAutocomplete tagAutocomplete;
+    private final UserAccountCache userAccountCache; // loadUserByUsername 결과
+    private final StudyViewService studyViewService;
 
     /**
      * 회원 가입
@@ -68,6 +76,7 @@ public class AccountService implements UserDetailsService {
                 .studyEnrollmentResultByWeb(true)
                 .studyUpdatedByWeb(true)
                 .build();*/
+        userAccountCache.invalidate(account.getEmail(), account.getNickname()); // 같은 이메일, 닉네임으로 남아있던 값
         return accountRepository.save(account);
     }
 
@@ -76,14 +85,13 @@ public class AccountService implements UserDetailsService {
      */
     //== 회원가입 시 인증메일 전송 ==//
     public void sendSignUpConfirmEmail(Account newAccount) {
-        Context context = new Context(); // model과 같은 역할
-        context.setVariable("link", "/check-email-token?token=" + newAccount.getEmailCheckToken() +
-                "&email=" + newAccount.getEmail());
-        context.setVariable("nickname", newAccount.getNickname());
-        context.setVariable("linkName", "이메일 인증하기");
-        context.setVariable("message", "스터디올래 서비스를 사용하려면 링크를 클릭하세요");
-        context.setVariable("host", appProperties.getHost());
-        String message = templateEngine.process("mail/simple-link", context); // prefix :=> template / postfix :=> .html
+        Map<String, Object> variables = Map.of( // model과 같은 역할
+                "link", "/check-email-token?token=" + newAccount.getEmailCheckToken() + "&email=" + newAccount.getEmail(),
+                "nickname", newAccount.getNickname(),
+                "linkName", "이메일 인증하기",
+                "message", "스터디올래 서비스를 사용하려면 링크를 클릭하세요",
+                "host", appProperties.getHost());
+        String message = mailTemplateRenderer.render("mail/simple-link", variables); // prefix :=> template / postfix :=> .html
 
         //== 메일 전송 폼 객체 생성 ==//
         EmailMessage emailMessage = EmailMessage.builder()
@@ -100,14 +108,13 @@ public class AccountService implements UserDetailsService {
     public void sendLoginLink(Account account) {
         account.generateEmailCheckToken(); // 이메일체크 랜덤 토큰 생성, 토큰 생성 시간 저장
 
-        Context context = new Context(); // model과 같은 역할
-        context.setVariable("link", "/login-by-email?token=" + account.getEmailCheckToken() +
-                "&email=" + account.getEmail());
-        context.setVariable("nickname", account.getNickname());
-        context.setVariable("linkName", "스터디올래 로그인하기");
-        context.setVariable("message", "로그인 하려면 링크를 클릭하세요");
-        context.setVariable("host", appProperties.getHost());
-        String message = templateEngine.process("mail/simple-link", context); // prefix :=> template / postfix :=> .html
+        Map<String, Object> variables = Map.of( // model과 같은 역할
+                "link", "/login-by-email?token=" + account.getEmailCheckToken() + "&email=" + account.getEmail(),
+                "nickname", account.getNickname(),
+                "linkName", "스터디올래 로그인하기",
+                "message", "로그인 하려면 링크를 클릭하세요",
+                "host", appProperties.getHost());
+        String message = mailTemplateRenderer.render("mail/simple-link", variables); // prefix :=> template / postfix :=> .html
 
         EmailMessage emailMessage = EmailMessage.builder()
                 .to(account.getEmail())
@@ -120,14 +127,19 @@ public class AccountService implements UserDetailsService {
 
     public void login(Account account) {
         // 로그인 할 때 토큰 만들어서 셋팅하기
+        UserAccount userAccount = new UserAccount(account); // UserAccount를 Principal 객체로 썼음
+        userAccount.eraseCredentials(); // 세션에 비밀번호를 남기지 않음
         UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken(
-        // 첫번째 전달인자로 Principal을 넣어 준다, Principal로 account 객체를 넣어서 @AuthenticationPrincipal을 사용하기 위해 UserAccount 클래스를 만듬
-                new UserAccount(account), // UserAccount를 Principal 객체로 썼음
-                account.getPassword(),
-                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+                userAccount, null, userAccount.getAuthorities());
         SecurityContextHolder.getContext().setAuthentication(token); // 만든 토큰값 넣기, view와 테스트에서 authenticated()로 이용할 수 있음
     }
 
+    private boolean isLoggedIn(Account account) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof UserAccount
+                && ((UserAccount) authentication.getPrincipal()).isAccountOf(account);
+    }
+
     @Transactional(readOnly = true) // 데이터를 변경하는 기능 메소드가 아니기 때문
     @Override
     /*
@@ -136,32 +148,52 @@ public class AccountService implements UserDetailsService {
         DB에 있는 이용자의 정보를 UserDetails 형으로 가져온다.
      */
     public UserDetails loadUserByUsername(String emailOrNickname) throws UsernameNotFoundException {
-        Account account = accountRepository.findByEmail(emailOrNickname);
-
-        if (account == null) {
-            account = accountRepository.findByNickname(emailOrNickname);
-        }
+        // 이메일, 닉네임을 쿼리 한번으로 찾고 최근에 로그인한 계정은 UserAccountCache 에서 꺼낸다
+        UserAccount userAccount = userAccountCache.get(emailOrNickname, () -> accountRepository.findByEmailOrNickname(emailOrNickname, emailOrNickname).stream()
+                .min(Comparator.comparing(account -> !emailOrNickname.equals(account.getEmail()))) // 이메일이 같은 계정 먼저
+                .map(UserAccount::new) // principal에 해당하는 객체를 넘김
+                .orElse(null));
 
-        if (account == null) {
+        if (userAccount == null) {
             throw new UsernameNotFoundException(emailOrNickname);
         }
 
-        return new UserAccount(account); // principal에 해당하는 객체를 넘김
+        return userAccount;
     }
 
     public void completeSignUp(Account account) {
         account.completeSignUp();
+        userAccountCache.invalidate(account.getId());
+        if (isLoggedIn(account)) {
+            login(account); // 세션의 UserAccount.emailVerified 갱신
+        }
 //        login(account); 강의에는 있는데 필요없어 보여서 일단 주석처리!!
     }
 
     public void updateProfile(Account account, Profile profile) {
+        profile.setProfileImage(imageService.toImageHash(profile.getProfileImage(), account.getProfileImage())); // data URL -> 이미지 저장소 해시
         modelMapper.map(profile, account);
         accountRepository.save(account); // save()는 id 값이 있는지 없는지 보고 있으면 merge를 시킨다
+        userAccountCache.invalidate(account.getId());
+        studyViewService.evictManagedBy(account.getId()); // 스터디 화면의 매니저 프로필
     }
 
     public void updatePassword(Account account, String newPassword) {
         account.setPassword(passwordEncoder.encode(newPassword));
         accountRepository.save(account); // 세션에 있는 account는 detached 상태이기 때문에 명시적으로 merge
+        userAccountCache.invalidate(account.getId()); // 예전 비밀번호로 로그인되지 않도록
+    }
+
+    /**
+     * 로그인에 성공했는데 저장된 비밀번호의 BCrypt cost 가 지금 설정보다 낮으면 시큐리티(DaoAuthenticationProvider)가
+     * 입력한 비밀번호를 다시 해시해서 호출한다
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newEncodedPassword) {
+        Account account = accountRepository.findById(((UserAccount) user).getId()).orElseThrow();
+        account.setPassword(newEncodedPassword);
+        userAccountCache.invalidate(account.getId());
+        return new UserAccount(account);
     }
 
     public void updateNotifications(Account account, Notifications notifications) {
@@ -173,6 +205,8 @@ public class AccountService implements UserDetailsService {
         // account 는 detached 상태이기 때문에 변경감지(더티체킹)이 작동 안한다
         account.setNickname(nickname);
         accountRepository.save(account); // 명시적으로 save 해주기 (save 할 때 merge 가 일어난다)
+        userAccountCache.invalidate(account.getId()); // 예전 닉네임으로 찾지 않도록
+        studyViewService.evictManagedBy(account.getId()); // 스터디 화면의 매니저 닉네임
         login(account); // 로그인도 다시 해줘야함!
     }
 
@@ -194,7 +228,11 @@ public class AccountService implements UserDetailsService {
          */
         Optional<Account> byId = accountRepository.findById(account.getId()); // select * from account where id = ?
         System.out.println("===================================");
-        byId.ifPresent(accountV -> accountV.getTags().add(tag)); // 있으면(null이 아니면) Tag를 Account > tags에 추가
+        byId.ifPresent(accountV -> { // 있으면(null이 아니면) Tag를 Account > tags에 추가
+            if (accountV.getTags().add(tag)) {
+                tagAutocomplete.tagUsed(tag); // 자동완성 사용 횟수
+            }
+        });
         // select tags0_.account_id as account_1_1_0_, tags0_.tags_id as tags_id2_1_0_, tag1_.id as id1_3_1_, tag1_.title as title2_3_1_ from account_tags tags0_ inner join tag tag1_ on tags0_.tags_id=tag1_.id where tags0_.account_id=?
         // inner join으로 select 도 한번 하는거 같음
         System.out.println("===================================");
@@ -205,7 +243,11 @@ public class AccountService implements UserDetailsService {
     //== 관심 주제 태그 삭제하기 ==//
     public void removeTag(Account account, Tag tag) {
         Optional<Account> byId = accountRepository.findById(account.getId());
-        byId.ifPresent(accountV -> accountV.getTags().remove(tag));
+        byId.ifPresent(accountV -> {
+            if (accountV.getTags().remove(tag)) {
+                tagAutocomplete.tagUnused(tag);
+            }
+        });
     }
 
     /**
@@ -0,0 +1,43 @@
+package com.studyolle.account;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.time.Duration;
+
+/**
+ * 서버에서 BCrypt 를 직접 돌려보고 해시 한번이 target 안에 끝나는 가장 높은 cost 를 고른다
+ * cost 가 1 오르면 시간이 두배가 되므로 target 을 넘으면 더 재지 않는다
+ */
+@Slf4j
+public final class BCryptCost {
+
+    public static final int MIN_COST = 10; // BCryptPasswordEncoder 기본값, 이보다 낮추지 않음
+    public static final int MAX_COST = 14;
+
+    private BCryptCost() {
+    }
+
+    public static int pick(Duration target) {
+        BCrypt.hashpw("warm-up", BCrypt.gensalt(4)); // JIT 워밍업
+
+        int picked = MIN_COST;
+        for (int cost = MIN_COST; cost <= MAX_COST; cost++) {
+            Duration elapsed = measure(cost);
+            log.info("bcrypt cost {} takes {} ms", cost, elapsed.toMillis());
+            if (elapsed.compareTo(target) > 0) {
+                break;
+            }
+            picked = cost;
+        }
+        log.info("bcrypt cost {} picked for target {} ms", picked, target.toMillis());
+        return picked;
+    }
+
+    private static Duration measure(int cost) {
+        String salt = BCrypt.gensalt(cost);
+        long start = System.nanoTime();
+        BCrypt.hashpw("benchmark-password", salt);
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,81 @@
+package com.studyolle.account;
+
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * 비밀번호 해시(encode, matches)를 CPU 코어 수만큼의 작업자 풀에서 돌린다
+ * 가입, 로그인이 몰려도 톰캣 요청 스레드가 모두 BCrypt 로 CPU 를 잡고 있지 않도록 동시에 도는 해시 수를 제한하고
+ * 대기열까지 차면 기다리지 않고 바로 PasswordHashBusyException 으로 실패시킨다
+ * (로그인은 로그인 화면에, 가입과 비밀번호 변경은 폼에 "잠시 후 다시 시도" 에러 표시)
+ * 로그인할 때 낮은 cost 비밀번호를 다시 해시하는 것은 미뤄도 되는 일이라 풀이 차 있으면 하지 않는다
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolTaskExecutor executor;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity) {
+        this.delegate = delegate;
+        this.executor = new ThreadPoolTaskExecutor();
+        this.executor.setCorePoolSize(threads);
+        this.executor.setMaxPoolSize(threads);
+        this.executor.setQueueCapacity(queueCapacity);
+        this.executor.setThreadNamePrefix("password-hash-");
+        this.executor.initialize();
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return call(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return call(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * 해시 앞부분의 cost 만 확인하므로 그냥 호출
+     * 대기열이 차 있으면 다시 해시하지 않고 다음 로그인 때 한다 (DaoAuthenticationProvider 가 이어서 encode 를 부르므로)
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword) && !isSaturated();
+    }
+
+    /** @Bean 의 destroy 메소드로 호출됨 **/
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private boolean isSaturated() {
+        return executor.getThreadPoolExecutor().getQueue().remainingCapacity() == 0;
+    }
+
+    private <T> T call(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (TaskRejectedException e) { // 작업자, 대기열이 모두 참
+            throw new PasswordHashBusyException(e);
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("비밀번호 해시를 기다리다 중단되었습니다.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.studyolle.account;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.web.authentication.rememberme.PersistentRememberMeToken;
+import org.springframework.security.web.authentication.rememberme.PersistentTokenRepository;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * remember-me 토큰 저장소 (persistent_logins), JdbcTokenRepositoryImpl 대신 사용
+ * - 자동 로그인할 때마다 하던 SELECT 는 최근에 쓴 시리즈를 메모리(LRU, CACHE_TTL)에서 찾아서 줄인다
+ * - 토큰 갱신 UPDATE 는 바로 DB 에 쓴다, 다른 서버는 DB 에서 새 토큰을 읽을 수 있어야 한다
+ * 다른 서버가 바꾼 토큰을 캐시에서 예전 값으로 줄 수 있는데, 쿠키와 다르면 도난으로 보기 전에 DB 에서 다시 읽는다
+ * (RevalidatingRememberMeServices -> evictIfStale)
+ */
+@Slf4j
+public class CachingPersistentTokenRepository implements PersistentTokenRepository {
+
+    static final Duration CACHE_TTL = Duration.ofMinutes(1); // 다른 서버에서 바꾼 토큰을 오래 들고 있지 않도록 짧게
+
+    private static final String SELECT = "SELECT username, series, token, last_used FROM persistent_logins WHERE series = ?";
+    private static final String INSERT = "INSERT INTO persistent_logins (username, series, token, last_used) VALUES (?, ?, ?, ?)";
+    private static final String UPDATE = "UPDATE persistent_logins SET token = ?, last_used = ? WHERE series = ?";
+    private static final String DELETE_BY_USERNAME = "DELETE FROM persistent_logins WHERE username = ?";
+    private static final String DELETE_EXPIRED = "DELETE FROM persistent_logins WHERE last_used < ?";
+
+    private static class CachedToken {
+
+        private final PersistentRememberMeToken token;
+        private final long cachedAt;
+
+        CachedToken(PersistentRememberMeToken token, long cachedAt) {
+            this.token = token;
+            this.cachedAt = cachedAt;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxCachedTokens;
+    private final Duration tokenValidity;
+    private final LinkedHashMap<String, CachedToken> cache = new LinkedHashMap<>(16, 0.75f, true); // 접근 순서
+
+    public CachingPersistentTokenRepository(JdbcTemplate jdbcTemplate, int maxCachedTokens, Duration tokenValidity) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxCachedTokens = maxCachedTokens;
+        this.tokenValidity = tokenValidity;
+    }
+
+    @Override
+    public void createNewToken(PersistentRememberMeToken token) {
+        jdbcTemplate.update(INSERT, token.getUsername(), token.getSeries(), token.getTokenValue(), new Timestamp(token.getDate().getTime()));
+        cache(token);
+    }
+
+    @Override
+    public void updateToken(String series, String tokenValue, Date lastUsed) {
+        PersistentRememberMeToken current = getTokenForSeries(series); // 바로 전에 읽은 시리즈라서 보통 캐시에 있음
+        if (current == null) {
+            return; // 그 사이 로그아웃
+        }
+        jdbcTemplate.update(UPDATE, tokenValue, new Timestamp(lastUsed.getTime()), series);
+        cache(new PersistentRememberMeToken(current.getUsername(), series, tokenValue, lastUsed));
+    }
+
+    /** 캐시의 토큰이 쿠키의 토큰과 다르면 버린다, 다른 서버에서 바꿨을 수 있으니 다음 읽기는 DB 에서 **/
+    public synchronized void evictIfStale(String seriesId, String presentedToken) {
+        CachedToken cached = cache.get(seriesId);
+        if (cached != null && !cached.token.getTokenValue().equals(presentedToken)) {
+            cache.remove(seriesId);
+        }
+    }
+
+    @Override
+    public PersistentRememberMeToken getTokenForSeries(String seriesId) {
+        synchronized (this) {
+            CachedToken cached = cache.get(seriesId);
+            if (cached != null && System.currentTimeMillis() - cached.cachedAt < CACHE_TTL.toMillis()) {
+                return cached.token;
+            }
+        }
+
+        List<PersistentRememberMeToken> found = jdbcTemplate.query(SELECT, (rs, rowNum) -> new PersistentRememberMeToken(
+                rs.getString("username"), rs.getString("series"), rs.getString("token"), rs.getTimestamp("last_used")), seriesId);
+        if (found.isEmpty()) {
+            return null;
+        }
+        cache(found.get(0));
+        return found.get(0);
+    }
+
+    @Override
+    public void removeUserTokens(String username) {
+        synchronized (this) {
+            cache.values().removeIf(cached -> cached.token.getUsername().equals(username));
+        }
+        jdbcTemplate.update(DELETE_BY_USERNAME, username);
+    }
+
+    /** 유효 기간이 지난 시리즈 삭제 (persistent_logins 는 로그인할 때마다 늘어나기만 함) **/
+    @Scheduled(fixedDelayString = "${app.remember-me-purge-interval:3600000}")
+    public void purgeExpiredTokens() {
+        int deleted = jdbcTemplate.update(DELETE_EXPIRED, new Timestamp(System.currentTimeMillis() - tokenValidity.toMillis()));
+        if (deleted > 0) {
+            log.info("purged {} expired remember-me tokens", deleted);
+        }
+    }
+
+    private synchronized void cache(PersistentRememberMeToken token) {
+        cache.put(token.getSeries(), new CachedToken(token, System.currentTimeMillis()));
+        if (cache.size() > maxCachedTokens) {
+            cache.remove(cache.keySet().iterator().next());
+        }
+    }
+}
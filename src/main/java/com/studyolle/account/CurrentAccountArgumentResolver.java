@@ -0,0 +1,49 @@
+package com.studyolle.account;
+
+import com.studyolle.domain.Account;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * @CurrentAccount Account 파라미터를 세션의 UserAccount id 로 읽어서 넣어준다
+ * 파라미터가 있는 핸들러에서만 읽고, 한 요청에서는 한번만 읽는다 (OSIV 라서 뷰에서도 지연 로딩 가능)
+ */
+@Component
+@RequiredArgsConstructor
+public class CurrentAccountArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private static final String ACCOUNT_ATTRIBUTE = CurrentAccountArgumentResolver.class.getName() + ".account";
+
+    private final AccountRepository accountRepository;
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(CurrentAccount.class)
+                && parameter.getParameterType().isAssignableFrom(Account.class);
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserAccount)) {
+            return null; // "anonymousUser"
+        }
+
+        Account account = (Account) webRequest.getAttribute(ACCOUNT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (account == null) {
+            UserAccount userAccount = (UserAccount) authentication.getPrincipal();
+            account = accountRepository.findById(userAccount.getId()).orElse(null);
+            webRequest.setAttribute(ACCOUNT_ATTRIBUTE, account, RequestAttributes.SCOPE_REQUEST);
+        }
+        return account;
+    }
+}
@@ -0,0 +1,17 @@
+package com.studyolle.account;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+/**
+ * 비밀번호 해시 작업자 풀과 대기열이 모두 차서 해시를 맡기지 못했을 때 (BoundedPasswordEncoder)
+ * 로그인에서는 AuthenticationServiceException 으로 로그인 화면에 에러를 보여주고,
+ * 가입, 비밀번호 변경은 컨트롤러에서 잡아서 폼 에러로 보여준다
+ */
+public class PasswordHashBusyException extends AuthenticationServiceException {
+
+    public static final String MESSAGE = "요청이 많습니다. 잠시 후 다시 시도해 주세요.";
+
+    public PasswordHashBusyException(Throwable cause) {
+        super(MESSAGE, cause);
+    }
+}
@@ -0,0 +1,32 @@
+package com.studyolle.account;
+
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.web.authentication.rememberme.PersistentTokenBasedRememberMeServices;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 쿠키의 토큰이 캐시의 토큰과 다르면 DB 에서 다시 읽고 비교한다 (CachingPersistentTokenRepository)
+ * 토큰이 다르면 도난으로 보고 그 사용자의 remember-me 를 모두 지우기 때문에
+ * 다른 서버가 바꾼 토큰을 이 서버의 캐시가 예전 값으로 들고 있을 때 멀쩡한 사용자를 로그아웃시키지 않게
+ */
+public class RevalidatingRememberMeServices extends PersistentTokenBasedRememberMeServices {
+
+    private final CachingPersistentTokenRepository tokenRepository;
+
+    public RevalidatingRememberMeServices(String key, UserDetailsService userDetailsService,
+                                          CachingPersistentTokenRepository tokenRepository) {
+        super(key, userDetailsService, tokenRepository);
+        this.tokenRepository = tokenRepository;
+    }
+
+    @Override
+    protected UserDetails processAutoLoginCookie(String[] cookieTokens, HttpServletRequest request, HttpServletResponse response) {
+        if (cookieTokens.length == 2) { // 시리즈, 토큰 (형식이 틀리면 상위 클래스가 거절)
+            tokenRepository.evictIfStale(cookieTokens[0], cookieTokens[1]);
+        }
+        return super.processAutoLoginCookie(cookieTokens, request, response);
+    }
+}
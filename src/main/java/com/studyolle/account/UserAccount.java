@@ -2,23 +2,61 @@ package com.studyolle.account;
 
 import com.studyolle.domain.Account;
 import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
  * SpringSecurity가 다루는 User정보와
  * 우리 도메인이 다루는 유저정보의 사이를 매꾸는 일종의 어댑터 역할이라고 생각
+ *
+ * 세션(SecurityContext)에 그대로 저장되기 때문에 Account 엔티티 대신 변하지 않는 값 몇개만 들고 있는다
+ * Account 가 필요한 핸들러는 @CurrentAccount 로 요청마다 새로 읽는다 (CurrentAccountArgumentResolver)
  */
 @Getter
 public class UserAccount extends User {
 
-    private Account account; // 이 Account는 우리가 가지고 있는 유저 정보
+    private final Long id;
+
+    private final String email;
+
+    private final boolean emailVerified; // 로그인 할 때의 값, 인증하면 다시 로그인 시켜서 갱신
 
     public UserAccount(Account account) {
         // SpringSecurity가 가지고 있는 유저정보를 우리가 가지고 있는 유저 정보랑 연동
-        super(account.getNickname(), account.getPassword(), List.of(new SimpleGrantedAuthority("ROLE_USER")));
-        this.account = account;
+        this(account.getId(), account.getNickname(), account.getPassword(), account.getEmail(), account.isEmailVerified(),
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+
+    private UserAccount(Long id, String nickname, String password, String email, boolean emailVerified,
+                        Collection<? extends GrantedAuthority> authorities) {
+        super(nickname, password, authorities);
+        this.id = id;
+        this.email = email;
+        this.emailVerified = emailVerified;
+    }
+
+    /** 세션 저장소에서 다시 만들 때 (SessionCodec), 비밀번호는 없음 **/
+    public static UserAccount restore(Long id, String nickname, String email, boolean emailVerified,
+                                      Collection<? extends GrantedAuthority> authorities) {
+        UserAccount userAccount = new UserAccount(id, nickname, "", email, emailVerified, authorities);
+        userAccount.eraseCredentials();
+        return userAccount;
+    }
+
+    /** 인증이 끝나면 비밀번호를 지우므로 (eraseCredentials) 캐시(UserAccountCache)에서는 복사본을 꺼내준다 **/
+    UserAccount copy() {
+        return new UserAccount(id, getUsername(), getPassword(), email, emailVerified, getAuthorities());
+    }
+
+    public String getNickname() {
+        return getUsername();
+    }
+
+    public boolean isAccountOf(Account account) {
+        return account != null && id.equals(account.getId());
     }
 }
@@ -0,0 +1,111 @@
+package com.studyolle.account;
+
+import com.studyolle.config.AppProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * loadUserByUsername 결과를 이메일과 닉네임 둘 다로 찾을 수 있게 들고 있는다 (app.user-details-cache-ttl 동안)
+ * 로그인이 몰릴 때 (폼 로그인, remember-me 자동 로그인) 같은 계정을 매번 DB 에서 읽지 않도록
+ * 비밀번호, 닉네임 등이 바뀌면 커밋 뒤에 invalidate 로 지운다
+ * invalidate 는 이 서버의 캐시만 지운다, 서버가 여러 대면 다른 서버는 ttl 이 지날 때까지 예전 비밀번호로도 로그인을 받는다
+ * 그래서 비밀번호가 들어있는 값은 오래 들고 있지 않는다 (기본 30초)
+ */
+@Component
+public class UserAccountCache {
+
+    private static class Entry {
+
+        private final UserAccount userAccount;
+        private final long expiresAt;
+
+        Entry(UserAccount userAccount, long expiresAt) {
+            this.userAccount = userAccount;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final long ttlMillis;
+    private final Map<String, Entry> entries;
+    private final AtomicLong version = new AtomicLong(); // 읽는 도중에 지워진 계정을 다시 넣지 않도록
+
+    public UserAccountCache(AppProperties appProperties) {
+        this.ttlMillis = appProperties.getUserDetailsCacheTtl().toMillis();
+        int maxSize = appProperties.getUserDetailsCacheSize();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) { // 접근 순서 LRU
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /** 캐시에 없으면 loader 로 읽어서 넣는다, 없는 계정이면 null **/
+    public UserAccount get(String emailOrNickname, Supplier<UserAccount> loader) {
+        synchronized (this) {
+            Entry entry = entries.get(emailOrNickname);
+            if (entry != null && entry.expiresAt > System.currentTimeMillis()) {
+                return entry.userAccount.copy();
+            }
+        }
+
+        long current = version.get();
+        UserAccount loaded = loader.get();
+        if (loaded == null) {
+            return null;
+        }
+        synchronized (this) {
+            if (version.get() == current) {
+                Entry entry = new Entry(loaded.copy(), System.currentTimeMillis() + ttlMillis);
+                entries.put(loaded.getEmail(), entry);
+                entries.put(loaded.getNickname(), entry);
+            }
+        }
+        return loaded;
+    }
+
+    /** 계정 정보를 바꾼 트랜잭션이 커밋된 뒤에 지운다 **/
+    public void invalidate(Long accountId) {
+        invalidate(userAccount -> userAccount.getId().equals(accountId));
+    }
+
+    /** 새로 가입한 계정의 이메일, 닉네임으로 남아있는 (지워진 계정의) 값을 지운다 **/
+    public void invalidate(String email, String nickname) {
+        invalidate(userAccount -> userAccount.getEmail().equals(email) || userAccount.getNickname().equals(nickname));
+    }
+
+    private void invalidate(Predicate<UserAccount> target) {
+        version.incrementAndGet(); // 지금 읽고 있는 값은 캐시에 넣지 않음
+        afterCommit(() -> {
+            version.incrementAndGet();
+            synchronized (this) {
+                entries.values().removeIf(entry -> target.test(entry.userAccount));
+            }
+        });
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private void afterCommit(Runnable runnable) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            runnable.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                runnable.run();
+            }
+        });
+    }
+}
@@ -1,19 +1,88 @@
 package com.studyolle.config;
 
+import com.studyolle.account.BCryptCost;
+import com.studyolle.account.BoundedPasswordEncoder;
+import com.studyolle.image.LegacyImageMigration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
 import org.modelmapper.convention.NameTokenizers;
 import org.modelmapper.spi.NameTokenizer;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Clock;
+import java.util.Map;
+
+@Slf4j
 @Configuration
+@EnableScheduling // OutboxEmailDispatcher 메일 재시도
 public class AppConfig {
 
-    @Bean // BCrypt 인코딩을 위해 빈으로 등록해뒀음
-    public PasswordEncoder passwordEncoder() {
-        return PasswordEncoderFactories.createDelegatingPasswordEncoder();
+    public static final String NOTIFICATION_EXECUTOR = "notificationExecutor";
+
+    /**
+     * 스터디 이벤트로 알림을 보내는 스레드 (NotificationFanOut), 요청 스레드는 NotificationFanOutTask 만 남기고 바로 응답한다
+     * 알림은 DB 에 쓰는 일이라 스레드를 많이 두지 않고 밀리면 큐에서 기다린다
+     * 큐까지 꽉 차면 넘긴 task id 는 버리고 경고 로그와 studyolle.notification.rejected 만 남긴다, task 는 DB 에 있어서 임대가 끝나면 resume 이 보낸다
+     * 커밋 뒤(afterCommit)에 넣는 것이라 예외를 던지면 이미 저장된 매니저의 요청이 500 이 되고,
+     * 요청 스레드에서 대신 보내면(CallerRunsPolicy) 매니저가 수만 명에게 보내는 동안 기다리게 된다
+     */
+    @Bean(NOTIFICATION_EXECUTOR)
+    public ThreadPoolTaskExecutor notificationExecutor(MeterRegistry meterRegistry) {
+        Counter rejected = meterRegistry.counter("studyolle.notification.rejected");
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(10_000);
+        executor.setThreadNamePrefix("notification-");
+        executor.setRejectedExecutionHandler((task, threadPoolExecutor) -> {
+            rejected.increment();
+            log.warn("notification executor is full ({} queued), study notification is delayed until resume", threadPoolExecutor.getQueue().size());
+        });
+        executor.setWaitForTasksToCompleteOnShutdown(true); // 종료할 때 받은 이벤트는 보내고 끝냄
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * data URL 로 저장된 예전 이미지를 ImageStore 로 옮긴 다음에 Hibernate 가 스키마를 만들거나 확인하게 한다
+     * (Flyway 를 쓸 때 스프링 부트가 하는 것과 같은 방법)
+     */
+    @Bean
+    public static EntityManagerFactoryDependsOnPostProcessor legacyImageMigrationDependency() {
+        return new EntityManagerFactoryDependsOnPostProcessor(LegacyImageMigration.BEAN_NAME);
+    }
+
+    /** 지금 시간, 스터디 상태 변경(Study.publish 등)과 StudyLifecycleSweeper 가 쓴다 **/
+    @Bean
+    public Clock clock() {
+        return Clock.systemDefaultZone();
+    }
+
+    /**
+     * BCrypt 인코딩을 위해 빈으로 등록해뒀음
+     * cost 는 시작할 때 이 서버에서 app.password-hash-target 안에 끝나는 값으로 고르고 (BCryptCost)
+     * 더 낮은 cost 로 저장된 비밀번호는 로그인할 때 다시 해시한다 (AccountService.updatePassword(UserDetails, String))
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder(AppProperties appProperties) {
+        int cost = appProperties.getPasswordHashCost() > 0
+                ? appProperties.getPasswordHashCost()
+                : BCryptCost.pick(appProperties.getPasswordHashTarget());
+
+        // 저장된 비밀번호는 모두 {bcrypt}..., cost 만 바꾸고 형식은 그대로
+        DelegatingPasswordEncoder delegatingPasswordEncoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", new BCryptPasswordEncoder(cost)));
+
+        return new BoundedPasswordEncoder(delegatingPasswordEncoder,
+                Runtime.getRuntime().availableProcessors(), appProperties.getPasswordHashQueueCapacity());
     }
 
     @Bean // ModelMapper는 매번 만들어서 사용 할 필요가 없기 때문에 빈으로 등록해둠
@@ -3,6 +3,9 @@ package com.studyolle.config;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
 
 @Data
 @Component
@@ -11,4 +14,62 @@ import org.springframework.stereotype.Component;
 public class AppProperties {
 
     private String host; // host를 바인딩 받겠다
+
+    private String imageDirectory; // 업로드한 이미지(프로필, 스터디 배너)를 저장할 디렉토리
+
+    private DataSize imageCacheSize = DataSize.ofMegabytes(32); // 크기별 이미지를 메모리에 올려둘 최대 크기
+
+    private int imageResizeThreads = 2; // 이미지를 줄이는 작업자 수
+
+    private int mailBatchSize = 50; // SMTP 연결 한번에 보낼 메일 수 (OutboxEmailDispatcher)
+
+    private Duration mailSendLease = Duration.ofMinutes(5); // 집어간 메일을 이 시간 안에 못 보내면 (서버가 죽으면) 다른 서버가 다시 집어감
+
+    private Duration mailRetention = Duration.ofDays(7); // 보낸(SENT) 메일과 포기한(DEAD) 메일을 outbox 에 남겨둘 기간
+
+    private int rememberMeCacheSize = 10_000; // 메모리에 들고 있을 remember-me 시리즈 수 (CachingPersistentTokenRepository)
+
+    private Duration userDetailsCacheTtl = Duration.ofSeconds(30); // 로그인할 때 읽은 계정 정보를 들고 있을 시간 (UserAccountCache), 다른 서버의 변경은 이만큼 늦게 보임
+
+    private int userDetailsCacheSize = 10_000; // 이메일, 닉네임 각각 하나씩 차지
+
+    private Duration passwordHashTarget = Duration.ofMillis(100); // 비밀번호 해시 한번에 쓸 시간, 이 안에서 가장 높은 BCrypt cost 를 고름
+
+    private int passwordHashCost; // 0 보다 크면 재지 않고 이 cost 를 사용
+
+    private int passwordHashQueueCapacity = 100; // 해시 작업자 풀이 바쁠 때 기다릴 수 있는 요청 수, 넘으면 바로 실패
+
+    private int studyViewCacheSize = 1_000; // 메모리에 들고 있을 스터디 화면 수 (StudyViewService)
+
+    private DataSize studyViewCacheWeight = DataSize.ofMegabytes(64); // 스터디 화면 캐시의 대략적인 최대 크기 (StudyView.getWeight 의 합)
+
+    private Duration studyRecruitingPeriod = Duration.ofDays(30); // 팀원 모집을 시작하고 이만큼 지나면 모집을 마감 (StudyLifecycleSweeper)
+
+    private Duration studyStalePeriod = Duration.ofDays(365); // 모집 없이 이만큼 지난 스터디는 종료
+
+    private int studySweepBatchSize = 1_000; // 한번에 잠그고 UPDATE 하는 스터디 수
+
+    private int notificationChunkSize = 500; // 알림 받을 사람을 한번에 읽어서 보내는 수 (NotificationFanOut)
+
+    private Duration notificationFanOutLease = Duration.ofMinutes(5); // 묶음을 보낼 때마다 연장, 이 시간 동안 진행이 없으면 (서버가 죽으면) 다른 서버가 이어서 보냄
+
+    private int notificationCounterSize = 100_000; // 메모리에 들고 있을 계정별 읽지 않은 알림 수 (UnreadNotificationCounter)
+
+    private Duration notificationCounterTtl = Duration.ofMinutes(1); // 읽어온 값을 이만큼 쓰고 나면 DB 에서 다시 읽음, 다른 서버가 더한 알림이 보이도록
+
+    private int sseMaxConnections = 20_000; // 서버 한대에 열어둘 SSE 연결 수, 넘으면 503 (SseConnections)
+
+    private int sseQueueCapacity = 100; // 브라우저가 못 받아서 연결 하나에 쌓인 이벤트가 이만큼이면 끊는다
+
+    private int sseSenderThreads = 8; // SSE 이벤트를 쓰는 스레드 수, 연결 수와 상관없음. 한 스레드는 느린 브라우저 하나에 최대 sseWriteTimeout 동안 막히므로, 그 시간 안에 동시에 막힐 브라우저 수보다 넉넉하게
+
+    private Duration sseHeartbeatInterval = Duration.ofSeconds(15); // 보낼 이벤트가 없는 연결에 주석을 보내는 주기
+
+    private Duration sseWriteCheckInterval = Duration.ofSeconds(1); // 쓰기가 sseWriteTimeout 을 넘었는지 보는 주기
+
+    private Duration sseWriteTimeout = Duration.ofSeconds(10); // 이벤트 하나를 쓰는 데 이보다 오래 걸리면 그 연결은 끊는다 (SseWriteTimeoutCustomizer)
+
+    private Duration sseTimeout = Duration.ofMinutes(30); // SSE 연결을 닫는 시간, 브라우저(EventSource)는 다시 연결한다
+
+    private int queryBudget = 20; // 요청 하나에서 이보다 많은 SQL 을 실행하면 경고 로그 (QueryMetrics)
 }
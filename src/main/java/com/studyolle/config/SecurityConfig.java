@@ -1,19 +1,23 @@
 package com.studyolle.config;
 
 import com.studyolle.account.AccountService;
+import com.studyolle.account.CachingPersistentTokenRepository;
+import com.studyolle.account.RevalidatingRememberMeServices;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.autoconfigure.security.servlet.PathRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.builders.WebSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
-import org.springframework.security.web.authentication.rememberme.JdbcTokenRepositoryImpl;
-import org.springframework.security.web.authentication.rememberme.PersistentTokenRepository;
+import org.springframework.security.web.authentication.rememberme.AbstractRememberMeServices;
 
 import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.UUID;
 
 @Configuration
 @EnableWebSecurity // SpringSecurity 설정을 직접 다 하겠다
@@ -22,6 +26,7 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter { // WebSecurit
 
     private final AccountService accountService;
     private final DataSource dataSource;
+    private final AppProperties appProperties;
 
     @Override
     protected void configure(HttpSecurity http) throws Exception {
@@ -37,19 +42,21 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter { // WebSecurit
         http.logout()
                 .logoutSuccessUrl("/");
 
+        String rememberMeKey = UUID.randomUUID().toString(); // 설정하지 않았을 때의 기본값과 같음, 토큰 비교에는 쓰지 않는다
         http.rememberMe() // 기본 세션 타임아웃 30분 이후에도 로그인 기억하기
-                .userDetailsService(accountService)
-                .tokenRepository(tokenRepository()); // username, 토큰(랜덤, 매번 바뀜), 시리즈(랜덤, 고정) 3가지 조합해서 만든 토큰
+                .key(rememberMeKey)
+                // username, 토큰(랜덤, 매번 바뀜), 시리즈(랜덤, 고정) 3가지 조합해서 만든 토큰
+                .rememberMeServices(new RevalidatingRememberMeServices(rememberMeKey, accountService, tokenRepository()));
     }
 
     /**
      * DB 에서 토큰값을 가져와서 비교해야 하기 때문에 이 메소드 필요 (remember-me)
+     * 자동 로그인마다 SELECT 하지 않도록 캐시한다 (CachingPersistentTokenRepository)
      */
     @Bean
-    public PersistentTokenRepository tokenRepository() {
-        JdbcTokenRepositoryImpl jdbcTokenRepository = new JdbcTokenRepositoryImpl();
-        jdbcTokenRepository.setDataSource(dataSource);
-        return jdbcTokenRepository;
+    public CachingPersistentTokenRepository tokenRepository() {
+        return new CachingPersistentTokenRepository(new JdbcTemplate(dataSource), appProperties.getRememberMeCacheSize(),
+                Duration.ofSeconds(AbstractRememberMeServices.TWO_WEEKS_S));
     }
 
     /**
@@ -0,0 +1,43 @@
+package com.studyolle.config;
+
+import com.studyolle.session.CompactJdbcSessionRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.session.MapSessionRepository;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * app.session-store 로 세션 저장소를 고른다
+ * container (기본) : 톰캣 메모리, jdbc : app_session 테이블 (CompactJdbcSessionRepository), memory : 서버 하나에서 쓰는 Map (로컬 개발용)
+ */
+@Configuration
+@EnableSpringHttpSession
+@ConditionalOnExpression("'${app.session-store:container}' != 'container'")
+public class SessionConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.session-store", havingValue = "jdbc")
+    public CompactJdbcSessionRepository jdbcSessionRepository(JdbcTemplate jdbcTemplate, ServerProperties serverProperties) {
+        return new CompactJdbcSessionRepository(jdbcTemplate, sessionTimeout(serverProperties));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.session-store", havingValue = "memory")
+    public MapSessionRepository mapSessionRepository(ServerProperties serverProperties) {
+        MapSessionRepository sessionRepository = new MapSessionRepository(new ConcurrentHashMap<>());
+        sessionRepository.setDefaultMaxInactiveInterval((int) sessionTimeout(serverProperties).getSeconds());
+        return sessionRepository;
+    }
+
+    private Duration sessionTimeout(ServerProperties serverProperties) {
+        return Optional.ofNullable(serverProperties.getServlet().getSession().getTimeout()).orElse(Duration.ofMinutes(30));
+    }
+}
@@ -0,0 +1,32 @@
+package com.studyolle.config;
+
+import com.studyolle.account.CurrentAccountArgumentResolver;
+import com.studyolle.infra.QueryCountInterceptor;
+import com.studyolle.notification.NotificationInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final QueryCountInterceptor queryCountInterceptor;
+    private final NotificationInterceptor notificationInterceptor;
+    private final CurrentAccountArgumentResolver currentAccountArgumentResolver;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(queryCountInterceptor); // 요청별 SQL 수 (N+1 확인)
+        registry.addInterceptor(notificationInterceptor); // 상단 메뉴 알림 배지
+    }
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(currentAccountArgumentResolver); // @CurrentAccount Account
+    }
+}
@@ -41,8 +41,9 @@ public class Account {
 
     private String location;
 
-    @Lob @Basic(fetch = FetchType.EAGER) // String => varcahr(255) / @Lob == text
-    // 이미지 같은 경우는 유저를 로딩할때 종종 같이 쓰일거 같아서 FetchType.EAGER로 줬음
+    // 이미지(data URL)를 그대로 저장하면 계정을 읽을 때마다 수백 KB 가 딸려오기 때문에
+    // 이미지는 ImageStore 에 저장하고 여기에는 SHA-256 해시만 저장
+    @Column(length = 64)
     private String profileImage;
 
     private boolean studyCreatedByEmail;
@@ -57,6 +58,9 @@ public class Account {
 
     private boolean studyUpdatedByWeb = true;
 
+    @Column(updatable = false)
+    private long unreadNotificationCount; // UnreadNotificationCounter 가 모아서 쓰는 값, 엔티티 저장으로는 덮어쓰지 않음
+
     @ManyToMany
     private Set<Tag> tags = new HashSet<>();
 
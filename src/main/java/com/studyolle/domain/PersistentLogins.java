@@ -6,6 +6,7 @@ import lombok.Setter;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.Table;
 import java.time.LocalDateTime;
 
@@ -13,7 +14,7 @@ import java.time.LocalDateTime;
  * SecurityConfig.java > tokenRepository() > JdbcTokenRepositoryImpl > CREATE_TABLE_SQL 스키마에 해당하는 Entity
  * JPA 이기 때문에 Entity로 만들어줘야함 (Remember-me 기능을 위한)
  */
-@Table(name = "persistent_logins")
+@Table(name = "persistent_logins", indexes = @Index(name = "persistent_logins_username_idx", columnList = "username")) // 로그아웃할 때 username 으로 지움
 @Entity
 @Getter
 @Setter
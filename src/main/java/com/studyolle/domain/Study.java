@@ -7,6 +7,7 @@ import lombok.*;
 import javax.persistence.*;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
@@ -41,9 +42,14 @@ import java.util.Set;
 @Builder @AllArgsConstructor @NoArgsConstructor
 public class Study {
 
+    public static final Duration RECRUITING_UPDATE_INTERVAL = Duration.ofHours(1); // 팀원 모집 시작/중단을 다시 바꿀 수 있는 간격
+
     @Id @GeneratedValue
     private Long id;
 
+    @Version
+    private Long version; // 매니저 여러명이 동시에 상태를 바꿀 때 나중에 저장한 쪽이 덮어쓰지 않게 (StudyStatusUpdater 에서 재시도)
+
     @ManyToMany
     private Set<Account> managers = new HashSet<>();
 
@@ -61,8 +67,8 @@ public class Study {
     @Lob @Basic(fetch = FetchType.EAGER)
     private String fullDescription; // 전체 본문
 
-    @Lob @Basic(fetch = FetchType.EAGER)
-    private String image;
+    @Column(length = 64)
+    private String image; // 배너 이미지, ImageStore 에 저장한 이미지의 해시
 
     @ManyToMany
     private Set<Tag> tags = new HashSet<>();
@@ -84,7 +90,8 @@ public class Study {
 
     private boolean useBanner; // 배너 사용 여부
 
-    private int memberCount;
+    @Column(updatable = false)
+    private int memberCount; // 가입/탈퇴 때 UPDATE 한번으로 더하기만 함 (StudyRepository.addMemberCount), 엔티티 저장으로는 덮어쓰지 않음
 
     /** 매니저 추가 **/
     public void addManger(Account account) {
@@ -94,21 +101,19 @@ public class Study {
     /** view 에서 호출한 메서드 **/
     //== 스터디에 가입이 가능한지 ==//
     public boolean isJoinable(UserAccount userAccount) {
-        Account account = userAccount.getAccount();
-
         // 공개가 됐고 인원 모집중이고 멤버가 아니고 매니저가 아니면 가입이 가능
         return this.isPublished() && this.isRecruiting()
-                && !this.members.contains(account) && !this.managers.contains(account);
+                && !isMember(userAccount) && !isManager(userAccount);
     }
 
     //== 멤버 인지 ==//
     public boolean isMember(UserAccount userAccount) {
-        return this.members.contains(userAccount.getAccount());
+        return this.members.stream().anyMatch(userAccount::isAccountOf); // 세션에는 Account 대신 id 만 있음
     }
 
     //== 매니저 인지 ==//
     public boolean isManager(UserAccount userAccount) {
-        return this.managers.contains(userAccount.getAccount());
+        return this.managers.stream().anyMatch(userAccount::isAccountOf);
     }
 
     public boolean isRemovable() {
@@ -116,57 +121,58 @@ public class Study {
     }
     /** End **/
 
-    /** 스터디 공개 **/
-    public void publish() {
-        if (!this.closed && !this.published) { // 스터디가 종료되지 않았고 공개되지 않았을 때 공개 가능
-            this.published = true;
-            this.publishedDateTime = LocalDateTime.now();
-        } else {
-            throw new RuntimeException("스터디를 공개할 수 없는 상태입니다. 스터디를 이미 공개했거나 종료했습니다.");
-        }
+    /** 지금 상태 (StudyState), 화면에서도 study.state 로 쓸 수 있다 **/
+    public StudyState getState() {
+        return StudyState.of(this.published, this.recruiting, this.closed);
     }
 
-    /** 스터디 종료 **/
-    public void close() {
-        if (this.published && !this.closed) { // 스터디가 종료되지 않았고 공개된 상태일 때 종료 가능
-            this.closed = true;
-            this.closedDateTime = LocalDateTime.now();
-        } else {
-            throw new RuntimeException("스터디를 종료할 수 없습니다. 스터디를 공개하지 않았거나 이미 종료한 스터디입니다.");
-        }
+    /** 스터디 공개 **/
+    public void publish(LocalDateTime now) {
+        transit(StudyTransition.PUBLISH, now);
+        this.published = true;
+        this.publishedDateTime = now;
     }
 
-    public void startRecruit() {
-        if (canUpdateRecruiting()) {
-            this.recruiting = true;
-            this.recruitingUpdatedDateTime = LocalDateTime.now();
-        } else {
-            throw new RuntimeException("인원 모집을 시작할 수 없습니다. 스터디를 공개하거나 한 시간 뒤 다시 시도하세요.");
+    /** 스터디 종료, 모집중이었으면 모집도 끝난다 **/
+    public void close(LocalDateTime now) {
+        transit(StudyTransition.CLOSE, now);
+        if (this.recruiting) {
+            this.recruiting = false;
+            this.recruitingUpdatedDateTime = now;
         }
+        this.closed = true;
+        this.closedDateTime = now;
     }
 
-    public void stopRecruit() {
-        if (canUpdateRecruiting()) {
-            this.recruiting = false;
-            this.recruitingUpdatedDateTime = LocalDateTime.now();
-        } else {
-            throw new RuntimeException("인원 모집을 멈출 수 없습니다. 스터디를 공개하거나 한 시간 뒤 다시 시도하세요.");
-        }
+    public void startRecruit(LocalDateTime now) {
+        transit(StudyTransition.START_RECRUIT, now);
+        this.recruiting = true;
+        this.recruitingUpdatedDateTime = now;
     }
 
-    /** 팀원 모집 시작/중단 자주 못하게 방지 **/
-    public boolean canUpdateRecruiting() {
-        return this.published && this.recruitingUpdatedDateTime == null || this.recruitingUpdatedDateTime.isBefore(LocalDateTime.now().minusHours(1));
+    public void stopRecruit(LocalDateTime now) {
+        transit(StudyTransition.STOP_RECRUIT, now);
+        this.recruiting = false;
+        this.recruitingUpdatedDateTime = now;
     }
 
-    public void addMember(Account account) {
-        this.getMembers().add(account);
-        this.memberCount++;
+    /** 팀원 모집 시작/중단 자주 못하게 방지, 공개했고 종료하지 않은 스터디만 **/
+    public boolean canUpdateRecruiting(LocalDateTime now) {
+        StudyState state = getState();
+        return (state == StudyState.PUBLISHED || state == StudyState.RECRUITING)
+                && (this.recruitingUpdatedDateTime == null
+                || !this.recruitingUpdatedDateTime.isAfter(now.minus(RECRUITING_UPDATE_INTERVAL)));
     }
 
-    public void removeMember(Account account) {
-        this.getMembers().remove(account);
-        this.memberCount--;
+    /** 지금 상태에서 transition 을 할 수 있는지, 안되면 StudyTransitionException **/
+    private void transit(StudyTransition transition, LocalDateTime now) {
+        StudyState state = getState();
+        if (!transition.isAllowedFrom(state)) {
+            throw new StudyTransitionException(transition, state, transition.getRejectedMessage());
+        }
+        if (transition.isRecruitingChange() && !canUpdateRecruiting(now)) {
+            throw new StudyTransitionException(transition, state, "1시간 안에 인원 모집 설정을 여러번 변경할 수 없습니다.");
+        }
     }
 
     /** account가 해당 스터디의 매니저인지 **/
@@ -0,0 +1,23 @@
+package com.studyolle.domain;
+
+/**
+ * 스터디의 상태, DB 에는 published, recruiting, closed 컬럼으로 남아있고 여기서는 그 조합을 하나로 본다
+ * DRAFT -> PUBLISHED <-> RECRUITING -> CLOSED (StudyTransition)
+ */
+public enum StudyState {
+
+    DRAFT, // 만들고 아직 공개하지 않음
+    PUBLISHED, // 공개했고 팀원은 모집하지 않음
+    RECRUITING, // 공개했고 팀원 모집중
+    CLOSED; // 종료, 더 이상 바뀌지 않음
+
+    static StudyState of(boolean published, boolean recruiting, boolean closed) {
+        if (closed) {
+            return CLOSED;
+        }
+        if (!published) {
+            return DRAFT;
+        }
+        return recruiting ? RECRUITING : PUBLISHED;
+    }
+}
@@ -0,0 +1,41 @@
+package com.studyolle.domain;
+
+import lombok.Getter;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * 스터디 상태를 바꾸는 방법과 바꿀 수 있는 상태 (Study.publish, close, startRecruit, stopRecruit)
+ * 팀원 모집 시작/중단은 상태가 맞아도 Study.RECRUITING_UPDATE_INTERVAL 안에 다시 바꿀 수 없다
+ */
+@Getter
+public enum StudyTransition {
+
+    PUBLISH(EnumSet.of(StudyState.DRAFT), StudyState.PUBLISHED,
+            "스터디를 공개할 수 없는 상태입니다. 스터디를 이미 공개했거나 종료했습니다."),
+    START_RECRUIT(EnumSet.of(StudyState.PUBLISHED), StudyState.RECRUITING,
+            "인원 모집을 시작할 수 없습니다. 스터디를 공개하지 않았거나 이미 모집중이거나 종료한 스터디입니다."),
+    STOP_RECRUIT(EnumSet.of(StudyState.RECRUITING), StudyState.PUBLISHED,
+            "인원 모집을 멈출 수 없습니다. 모집중인 스터디가 아닙니다."),
+    CLOSE(EnumSet.of(StudyState.PUBLISHED, StudyState.RECRUITING), StudyState.CLOSED,
+            "스터디를 종료할 수 없습니다. 스터디를 공개하지 않았거나 이미 종료한 스터디입니다.");
+
+    private final Set<StudyState> from;
+    private final StudyState to;
+    private final String rejectedMessage;
+
+    StudyTransition(Set<StudyState> from, StudyState to, String rejectedMessage) {
+        this.from = from;
+        this.to = to;
+        this.rejectedMessage = rejectedMessage;
+    }
+
+    public boolean isAllowedFrom(StudyState state) {
+        return this.from.contains(state);
+    }
+
+    public boolean isRecruitingChange() {
+        return this == START_RECRUIT || this == STOP_RECRUIT;
+    }
+}
@@ -0,0 +1,17 @@
+package com.studyolle.domain;
+
+import lombok.Getter;
+
+/** 지금 상태에서 할 수 없는 상태 변경, 메시지는 그대로 화면에 보여준다 (StudySettingsController) **/
+@Getter
+public class StudyTransitionException extends IllegalStateException {
+
+    private final StudyTransition transition;
+    private final StudyState state;
+
+    public StudyTransitionException(StudyTransition transition, StudyState state, String message) {
+        super(message);
+        this.transition = transition;
+        this.state = state;
+    }
+}
@@ -5,7 +5,9 @@ import lombok.*;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
 
 @Entity
 @Getter
@@ -14,8 +16,10 @@ import javax.persistence.Id;
 @Builder @AllArgsConstructor @NoArgsConstructor
 public class Zone {
 
+    // 지역 데이터는 한번에 넣으므로 (ReferenceDataLoader) 시퀀스 값을 100개씩 받아와서 행마다 시퀀스를 부르지 않는다
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "zone_seq")
+    @SequenceGenerator(name = "zone_seq", sequenceName = "zone_seq", allocationSize = 100)
     private Long id;
 
     @Column(nullable = false)
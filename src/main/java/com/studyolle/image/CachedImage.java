@@ -0,0 +1,22 @@
+package com.studyolle.image;
+
+import lombok.Getter;
+
+/**
+ * 메모리 캐시(ImageCache)에 올려두는 줄인 이미지
+ */
+@Getter
+public class CachedImage {
+
+    private final String contentType;
+    private final byte[] content;
+
+    CachedImage(String contentType, byte[] content) {
+        this.contentType = contentType;
+        this.content = content;
+    }
+
+    public int getSize() {
+        return content.length;
+    }
+}
@@ -0,0 +1,49 @@
+package com.studyolle.image;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 바이트 크기 기준 LRU 캐시
+ * 담긴 이미지 크기의 합이 maxBytes 를 넘으면 가장 오래 안 쓴 이미지부터 뺀다
+ */
+class ImageCache {
+
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final LinkedHashMap<String, CachedImage> entries = new LinkedHashMap<>(16, 0.75f, true); // 접근 순서
+    private long currentBytes;
+
+    ImageCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = maxBytes / 8; // 큰 이미지 하나가 캐시를 다 비우지 않도록
+    }
+
+    synchronized CachedImage get(String key) {
+        return entries.get(key);
+    }
+
+    synchronized void put(String key, CachedImage image) {
+        if (image.getSize() > maxEntryBytes) {
+            return;
+        }
+
+        CachedImage previous = entries.put(key, image);
+        currentBytes += image.getSize() - (previous == null ? 0 : previous.getSize());
+
+        Iterator<Map.Entry<String, CachedImage>> eldest = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && eldest.hasNext()) {
+            currentBytes -= eldest.next().getValue().getSize();
+            eldest.remove();
+        }
+    }
+
+    synchronized long getCurrentBytes() {
+        return currentBytes;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+}
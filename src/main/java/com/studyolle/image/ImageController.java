@@ -0,0 +1,122 @@
+package com.studyolle.image;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.catalina.Globals;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Optional;
+
+/**
+ * 저장소 이미지 내려주기
+ * /images/** 는 SecurityConfig 에서 정적 리소스로 보고 시큐리티 필터를 타지 않는다
+ * 해시 모양({64자리 16진수})만 받기 때문에 static/images 에 있는 로고 파일들은 그대로 정적 리소스 핸들러가 처리한다
+ */
+@Controller
+@RequiredArgsConstructor
+public class ImageController {
+
+    // 내용이 바뀌면 해시(URL)가 바뀌므로 1년 동안 다시 확인하지 않아도 된다
+    static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    // 크기별 이미지를 아직 만드는 중일 때 대신 내려주는 원본은 잠깐만 캐시한다
+    static final String PENDING_VARIANT_CACHE_CONTROL = "public, max-age=60";
+
+    private final ImageStore imageStore;
+    private final ImageVariantService imageVariantService;
+
+    @GetMapping("/images/{hash:[0-9a-f]{64}}")
+    public void image(@PathVariable String hash, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        Optional<StoredImage> found = imageStore.find(hash);
+        if (found.isEmpty()) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        // 해시가 곧 내용이므로 strong ETag, If-None-Match 가 같으면 304 응답 후 끝
+        if (new ServletWebRequest(request, response).checkNotModified("\"" + hash + "\"")) {
+            return;
+        }
+
+        StoredImage image = found.get();
+        response.setContentType(image.getContentType());
+        response.setContentLengthLong(image.getSize());
+        write(image, request, response);
+    }
+
+    /** 크기별 이미지는 작아서 메모리 캐시(ImageCache)에서 바로 내려준다, 아직 없으면 원본을 내려준다 **/
+    @GetMapping("/images/{hash:[0-9a-f]{64}}/{size:[0-9]+}")
+    public void imageVariant(@PathVariable String hash, @PathVariable int size,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Optional<ImageVariant> variant = ImageVariant.ofSize(size);
+        if (variant.isEmpty()) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+
+        Optional<CachedImage> found = imageVariantService.find(hash, variant.get());
+        if (found.isEmpty()) {
+            writeOriginal(hash, request, response);
+            return;
+        }
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        if (new ServletWebRequest(request, response).checkNotModified("\"" + hash + "_" + size + "\"")) {
+            return;
+        }
+
+        CachedImage image = found.get();
+        response.setContentType(image.getContentType());
+        response.setContentLength(image.getSize());
+        response.getOutputStream().write(image.getContent());
+    }
+
+    /** 크기별 이미지를 만드는 동안 (만들기 시작만 하고 기다리지 않음), ETag 없이 잠깐만 캐시한다 **/
+    private void writeOriginal(String hash, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Optional<StoredImage> original = imageStore.find(hash);
+        if (original.isEmpty()) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, PENDING_VARIANT_CACHE_CONTROL);
+        response.setContentType(original.get().getContentType());
+        response.setContentLengthLong(original.get().getSize());
+        write(original.get(), request, response);
+    }
+
+    /**
+     * 톰캣이 sendfile 을 지원하면 파일 경로만 넘겨서 커널이 소켓으로 바로 보내게 하고 (zero-copy)
+     * 아니면 FileChannel.transferTo 로 힙에 바이트 배열을 만들지 않고 복사한다
+     */
+    private void write(StoredImage image, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Optional<String> file = image.file().map(path -> path.toAbsolutePath().toString());
+        if (file.isPresent() && Boolean.TRUE.equals(request.getAttribute(Globals.SENDFILE_SUPPORTED_ATTR))) {
+            request.setAttribute(Globals.SENDFILE_FILENAME_ATTR, file.get());
+            request.setAttribute(Globals.SENDFILE_FILE_START_ATTR, 0L);
+            request.setAttribute(Globals.SENDFILE_FILE_END_ATTR, image.getSize());
+            return;
+        }
+
+        try (FileChannel channel = image.openChannel()) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            long size = channel.size();
+            while (position < size) {
+                position += channel.transferTo(position, size - position, out);
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.studyolle.image;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Optional;
+
+/**
+ * 이미지 줄이기 (java.awt, ImageIO 만 사용)
+ * 한번에 크게 줄이면 픽셀이 뭉개지기 때문에 절반씩 여러번 줄인다
+ */
+final class ImageResizer {
+
+    // 디코딩하면 픽셀마다 4바이트, 8000x5000 이면 160MB (작게 압축된 파일도 풀면 이만큼 커진다)
+    static final long MAX_PIXELS = 40_000_000L;
+
+    private ImageResizer() {
+    }
+
+    /**
+     * ImageIO 가 읽지 못하는 형식(webp 등)이나 깨진 이미지, MAX_PIXELS 보다 큰 이미지는 Optional.empty()
+     * 가로, 세로는 헤더만 읽어서 확인하고 그 다음에 디코딩한다
+     */
+    static Optional<BufferedImage> decode(byte[] content) {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(content))) {
+            Iterator<ImageReader> readers = input == null ? Collections.emptyIterator() : ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return Optional.empty();
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > MAX_PIXELS) {
+                    return Optional.empty();
+                }
+                return Optional.ofNullable(reader.read(0));
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+
+    static boolean needsResize(BufferedImage image, ImageVariant variant) {
+        return Math.max(image.getWidth(), image.getHeight()) > variant.getSize();
+    }
+
+    /** 투명도가 있으면 png, 없으면 jpeg 로 인코딩한다 **/
+    static byte[] resize(BufferedImage source, ImageVariant variant) throws IOException {
+        double scale = (double) variant.getSize() / Math.max(source.getWidth(), source.getHeight());
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * scale));
+        boolean alpha = source.getColorModel().hasAlpha();
+
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            current = draw(current, width, height, alpha);
+        } while (width != targetWidth || height != targetHeight);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(current, alpha ? "png" : "jpg", out);
+        return out.toByteArray();
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height, boolean alpha) {
+        BufferedImage target = new BufferedImage(width, height, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+}
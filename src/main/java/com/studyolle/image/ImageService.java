@@ -0,0 +1,90 @@
+package com.studyolle.image;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Base64;
+
+/**
+ * 화면에서 올라오는 이미지(data URL)를 저장소에 넣고 엔티티에는 해시만 남기도록 바꿔주는 서비스
+ */
+@Service
+@RequiredArgsConstructor
+public class ImageService {
+
+    public static final String URL_PREFIX = "/images/";
+
+    private static final String DATA_URL_PREFIX = "data:";
+    private static final String BASE64_MARKER = ";base64,";
+
+    private final ImageStore imageStore;
+    private final ImageVariantService imageVariantService;
+
+    /**
+     * 폼으로 받은 이미지 값을 저장소 해시로 바꾼다
+     * - data:image/...;base64,... : 새로 올린 이미지이므로 저장하고 해시를 돌려줌
+     * - 해시 : 지금 이미지(currentHash)를 그대로 다시 보낸 것이므로 그대로 돌려줌, 다른 해시는 받지 않는다 (없는 이미지나 남의 이미지)
+     * - 빈 값 : 이미지를 지운 것이므로 null
+     * 읽을 수 없는 값이면 InvalidImageException
+     */
+    public String toImageHash(String image, String currentHash) {
+        if (image == null || image.isBlank()) {
+            return null;
+        }
+
+        if (ImageStore.isHash(image)) {
+            if (!image.equals(currentHash)) {
+                throw new InvalidImageException("이미지를 다시 올려주세요.");
+            }
+            return image;
+        }
+
+        if (!image.startsWith(DATA_URL_PREFIX)) {
+            throw new InvalidImageException("이미지 형식이 올바르지 않습니다.");
+        }
+
+        return store(decodeDataUrl(image));
+    }
+
+    public String store(byte[] content) {
+        if (ImageType.detect(content).isEmpty()) {
+            throw new InvalidImageException("지원하지 않는 이미지 형식입니다.");
+        }
+
+        String hash;
+        try {
+            hash = imageStore.store(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        imageVariantService.generateAsync(hash); // 화면에서 쓸 크기별 이미지를 미리 만들어 둔다
+        return hash;
+    }
+
+    public static String urlOf(String hash) {
+        return hash == null ? null : URL_PREFIX + hash;
+    }
+
+    /** 크기별 이미지 주소, ImageVariant 에 없는 크기는 원본 주소 **/
+    public static String urlOf(String hash, int size) {
+        if (hash == null) {
+            return null;
+        }
+        return ImageVariant.ofSize(size).map(variant -> URL_PREFIX + hash + "/" + variant.getSize()).orElse(urlOf(hash));
+    }
+
+    private byte[] decodeDataUrl(String dataUrl) {
+        int marker = dataUrl.indexOf(BASE64_MARKER);
+        if (marker < 0) {
+            throw new InvalidImageException("base64 로 인코딩된 이미지만 올릴 수 있습니다.");
+        }
+
+        try {
+            return Base64.getDecoder().decode(dataUrl.substring(marker + BASE64_MARKER.length()));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidImageException("이미지를 읽을 수 없습니다.", e);
+        }
+    }
+}
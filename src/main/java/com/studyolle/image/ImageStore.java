@@ -0,0 +1,44 @@
+package com.studyolle.image;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * 이미지 원본을 내용의 SHA-256 해시로 저장하는 저장소
+ * 같은 이미지는 한번만 저장되고 해시가 바뀌지 않기 때문에 브라우저에 영구 캐시를 걸 수 있다
+ * 로컬 디스크(LocalDiskImageStore) 말고 다른 저장소를 쓰려면 이 인터페이스를 구현하면 된다
+ */
+public interface ImageStore {
+
+    Pattern HASH_PATTERN = Pattern.compile("^[0-9a-f]{64}$");
+
+    /** 저장하고 해시를 돌려준다, 이미 있는 이미지면 다시 쓰지 않는다 **/
+    String store(byte[] content) throws IOException;
+
+    Optional<StoredImage> find(String hash) throws IOException;
+
+    /** 원본(hash)을 줄인 이미지를 저장한다 **/
+    void storeVariant(String hash, ImageVariant variant, byte[] content) throws IOException;
+
+    Optional<StoredImage> findVariant(String hash, ImageVariant variant) throws IOException;
+
+    static boolean isHash(String value) {
+        return value != null && HASH_PATTERN.matcher(value).matches();
+    }
+
+    static String hash(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
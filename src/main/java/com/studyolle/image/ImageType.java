@@ -0,0 +1,44 @@
+package com.studyolle.image;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * 받을 수 있는 이미지 형식
+ * 저장할 때 content-type 을 따로 보관하지 않고 파일 앞부분(매직 넘버)으로 형식을 판단한다
+ */
+public enum ImageType {
+
+    PNG("image/png", new byte[]{(byte) 0x89, 'P', 'N', 'G'}),
+    JPEG("image/jpeg", new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF}),
+    GIF("image/gif", new byte[]{'G', 'I', 'F', '8'}),
+    WEBP("image/webp", new byte[]{'R', 'I', 'F', 'F'});
+
+    private final String contentType;
+    private final byte[] magic;
+
+    ImageType(String contentType, byte[] magic) {
+        this.contentType = contentType;
+        this.magic = magic;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public static Optional<ImageType> detect(byte[] header) {
+        return Arrays.stream(values()).filter(type -> type.matches(header)).findFirst();
+    }
+
+    private boolean matches(byte[] header) {
+        if (header.length < magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if (header[i] != magic[i]) {
+                return false;
+            }
+        }
+        return this != WEBP || (header.length >= 12 && header[8] == 'W' && header[9] == 'E' && header[10] == 'B' && header[11] == 'P');
+    }
+}
@@ -0,0 +1,29 @@
+package com.studyolle.image;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * 화면에서 쓰는 크기별 이미지
+ * 가로, 세로 중 긴 쪽이 size 를 넘지 않게 줄이고 원본이 더 작으면 원본 그대로 쓴다
+ */
+public enum ImageVariant {
+
+    AVATAR(48), // 상단 메뉴 프로필 (레티나에서 24px 두배)
+    THUMBNAIL(150), // 멤버 목록, 프로필 화면
+    BANNER(1200); // 스터디 배너
+
+    private final int size;
+
+    ImageVariant(int size) {
+        this.size = size;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public static Optional<ImageVariant> ofSize(int size) {
+        return Arrays.stream(values()).filter(variant -> variant.size == size).findFirst();
+    }
+}
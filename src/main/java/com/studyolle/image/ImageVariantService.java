@@ -0,0 +1,133 @@
+package com.studyolle.image;
+
+import com.studyolle.config.AppProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 크기별 이미지(ImageVariant) 만들기, 내려주기
+ * 이미지를 올리면 작업자 풀에서 원본을 한번만 디코딩해서 모든 크기를 만들어 저장소에 저장해두고
+ * 요청이 오면 메모리 캐시 -> 저장소 순서로 찾는다. 아직 없으면 (이전에 올린 이미지 등) 작업자 풀에 맡기고 기다리지 않는다
+ * (그 사이에는 ImageController 가 원본을 내려준다)
+ * 이미지 디코딩은 메모리를 많이 쓰기 때문에 동시에 도는 작업 수를 작업자 풀 크기로 제한한다
+ */
+@Slf4j
+@Service
+public class ImageVariantService {
+
+    private static final int QUEUE_CAPACITY = 100;
+
+    private final ImageStore imageStore;
+    private final ImageCache imageCache;
+    private final ThreadPoolTaskExecutor executor;
+    private final Map<String, CompletableFuture<Void>> inProgress = new ConcurrentHashMap<>(); // 같은 이미지를 두번 디코딩하지 않도록
+
+    public ImageVariantService(ImageStore imageStore, AppProperties appProperties) {
+        this.imageStore = imageStore;
+        this.imageCache = new ImageCache(appProperties.getImageCacheSize().toBytes());
+        this.executor = new ThreadPoolTaskExecutor();
+        this.executor.setCorePoolSize(appProperties.getImageResizeThreads());
+        this.executor.setMaxPoolSize(appProperties.getImageResizeThreads());
+        this.executor.setQueueCapacity(QUEUE_CAPACITY);
+        this.executor.setThreadNamePrefix("image-resize-");
+        this.executor.initialize();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /** 업로드 직후 호출, 작업자 풀이 꽉 차 있으면 나중에 요청이 올 때 만든다 **/
+    public void generateAsync(String hash) {
+        submit(hash);
+    }
+
+    /** 아직 만들지 않았으면 만들기 시작하고 바로 Optional.empty(), 원본이 없어도 Optional.empty() **/
+    public Optional<CachedImage> find(String hash, ImageVariant variant) throws IOException {
+        String key = hash + "_" + variant.getSize();
+        CachedImage cached = imageCache.get(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        Optional<StoredImage> stored = imageStore.findVariant(hash, variant);
+        if (stored.isEmpty()) {
+            if (imageStore.find(hash).isPresent()) {
+                submit(hash); // 요청 스레드는 기다리지 않는다, 다음 요청부터 줄인 이미지
+            }
+            return Optional.empty();
+        }
+
+        CachedImage image = new CachedImage(stored.get().getContentType(), stored.get().readAllBytes());
+        imageCache.put(key, image);
+        return Optional.of(image);
+    }
+
+    private CompletableFuture<Void> submit(String hash) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        CompletableFuture<Void> running = inProgress.putIfAbsent(hash, future);
+        if (running != null) {
+            return running;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(hash);
+                    future.complete(null);
+                } catch (Exception e) {
+                    log.warn("failed to generate image variants: {}", hash, e);
+                    future.completeExceptionally(e);
+                } finally {
+                    inProgress.remove(hash, future);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            inProgress.remove(hash, future);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * 없는 크기만 만든다
+     * 줄일 수 없는 이미지(움직이는 gif, ImageIO 가 못 읽는 webp)나 이미 작은 이미지는 원본을 그대로 저장해서
+     * 다음 요청부터는 다시 디코딩하지 않게 한다
+     */
+    void generate(String hash) throws IOException {
+        List<ImageVariant> missing = new ArrayList<>();
+        for (ImageVariant variant : ImageVariant.values()) {
+            if (imageStore.findVariant(hash, variant).isEmpty()) {
+                missing.add(variant);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        StoredImage original = imageStore.find(hash).orElseThrow(() -> new IllegalArgumentException(hash + "에 해당하는 이미지가 없습니다."));
+        byte[] content = original.readAllBytes();
+        Optional<BufferedImage> decoded = ImageType.detect(content).filter(type -> type != ImageType.GIF)
+                .flatMap(type -> ImageResizer.decode(content));
+
+        for (ImageVariant variant : missing) {
+            byte[] variantContent = decoded.isPresent() && ImageResizer.needsResize(decoded.get(), variant)
+                    ? ImageResizer.resize(decoded.get(), variant)
+                    : content;
+            imageStore.storeVariant(hash, variant, variantContent);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.studyolle.image;
+
+/**
+ * 올린 이미지를 읽을 수 없을 때 (data URL 형식이 아니거나 지원하지 않는 형식)
+ * 사용자 입력 문제라서 컨트롤러에서 잡아 폼 에러로 보여준다
+ */
+public class InvalidImageException extends IllegalArgumentException {
+
+    public InvalidImageException(String message) {
+        super(message);
+    }
+
+    public InvalidImageException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,141 @@
+package com.studyolle.image;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 예전에 account.profile_image, study.image 에 data URL 로 저장한 이미지를 ImageStore 로 옮기고 해시만 남긴다
+ * 컬럼도 엔티티(@Column(length = 64))에 맞게 varchar(64) 로 줄여서 ddl-auto=validate 로 띄울 수 있게 한다
+ * Hibernate 가 스키마를 확인하기 전에 돌아야 하기 때문에 JPA 대신 JDBC 로 읽고 쓰고,
+ * AppConfig 에서 EntityManagerFactory 가 이 빈을 기다리게 한다
+ * 이미 옮긴 DB(또는 테이블이 아직 없는 새 DB)에서는 컬럼 정보만 확인하고 넘어간다
+ */
+@Slf4j
+@Component(LegacyImageMigration.BEAN_NAME)
+public class LegacyImageMigration {
+
+    public static final String BEAN_NAME = "legacyImageMigration";
+
+    private static final int BATCH_SIZE = 100;
+    private static final int HASH_LENGTH = 64;
+
+    // 테이블 -> 이미지 컬럼
+    private static final Map<String, String> IMAGE_COLUMNS = Map.of("account", "profile_image", "study", "image");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ImageService imageService;
+
+    public LegacyImageMigration(DataSource dataSource, ImageService imageService) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.imageService = imageService;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        for (Map.Entry<String, String> entry : IMAGE_COLUMNS.entrySet()) {
+            String table = entry.getKey();
+            String column = entry.getValue();
+            ColumnInfo columnInfo = columnInfo(table, column);
+            if (columnInfo == null) {
+                continue; // 새 DB, Hibernate 가 varchar(64) 로 만든다
+            }
+            if (columnInfo.isHashColumn()) {
+                continue; // 이미 옮겼음
+            }
+
+            int moved = moveImages(table, column);
+            jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN " + column + " SET DATA TYPE varchar(" + HASH_LENGTH + ")");
+            log.info("moved {} legacy images from {}.{} to the image store", moved, table, column);
+        }
+    }
+
+    /** 해시가 아닌 값이 남아 있는 행을 id 순서로 BATCH_SIZE 개씩 읽어서 해시(또는 null)로 바꾼다 **/
+    private int moveImages(String table, String column) {
+        String select = "SELECT id, " + column + " FROM " + table
+                + " WHERE id > ? AND " + column + " IS NOT NULL AND LENGTH(" + column + ") <> " + HASH_LENGTH
+                + " ORDER BY id LIMIT " + BATCH_SIZE;
+        String update = "UPDATE " + table + " SET " + column + " = ? WHERE id = ?";
+
+        int moved = 0;
+        long lastId = 0;
+        while (true) {
+            List<Object[]> rows = jdbcTemplate.query(select, (rs, rowNum) -> new Object[]{rs.getLong(1), readImage(rs)}, lastId);
+            if (rows.isEmpty()) {
+                return moved;
+            }
+
+            for (Object[] row : rows) {
+                long id = (Long) row[0];
+                String hash = toHash(table, id, (String) row[1]);
+                jdbcTemplate.update(update, hash, id);
+                if (hash != null) {
+                    moved++;
+                }
+                lastId = id;
+            }
+        }
+    }
+
+    /**
+     * PostgreSQL 에서 @Lob String 은 text 컬럼에 large object 의 OID 만 들어가 있기 때문에
+     * 숫자만 있으면 getClob 으로 실제 값을 읽는다
+     */
+    private String readImage(ResultSet rs) throws SQLException {
+        String value = rs.getString(2);
+        if (value != null && !value.isEmpty() && value.chars().allMatch(Character::isDigit)) {
+            Clob clob = rs.getClob(2);
+            return clob.getSubString(1, (int) clob.length());
+        }
+        return value;
+    }
+
+    private String toHash(String table, long id, String image) {
+        if (ImageStore.isHash(image)) {
+            return image;
+        }
+        try {
+            return imageService.toImageHash(image, null); // 해시는 위에서 걸렀음
+        } catch (InvalidImageException e) {
+            log.warn("dropping unreadable legacy image {}.id={}: {}", table, id, e.getMessage());
+            return null; // 화면에서는 기본 이미지(jdenticon)
+        }
+    }
+
+    private ColumnInfo columnInfo(String table, String column) {
+        return jdbcTemplate.execute((Connection connection) -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            boolean upperCase = metaData.storesUpperCaseIdentifiers(); // H2 는 대문자, PostgreSQL 은 소문자
+            try (ResultSet rs = metaData.getColumns(null, null,
+                    upperCase ? table.toUpperCase() : table, upperCase ? column.toUpperCase() : column)) {
+                return rs.next() ? new ColumnInfo(rs.getInt("DATA_TYPE"), rs.getInt("COLUMN_SIZE")) : null;
+            }
+        });
+    }
+
+    private static class ColumnInfo {
+
+        private final int dataType;
+        private final int size;
+
+        private ColumnInfo(int dataType, int size) {
+            this.dataType = dataType;
+            this.size = size;
+        }
+
+        private boolean isHashColumn() {
+            return dataType == Types.VARCHAR && size == HASH_LENGTH;
+        }
+    }
+}
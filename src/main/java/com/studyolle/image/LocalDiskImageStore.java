@@ -0,0 +1,142 @@
+package com.studyolle.image;
+
+import com.studyolle.config.AppProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+/**
+ * 로컬 디스크 이미지 저장소
+ * {app.image-directory}/ab/cd/abcd...(해시) 형태로 저장해서 한 디렉토리에 파일이 너무 많이 쌓이지 않게 한다
+ * 줄인 이미지는 원본 옆에 abcd..._48 처럼 크기를 붙여서 저장한다
+ */
+@Slf4j
+@Component
+public class LocalDiskImageStore implements ImageStore {
+
+    private static final int HEADER_SIZE = 12;
+
+    private final Path root;
+
+    public LocalDiskImageStore(AppProperties appProperties) throws IOException {
+        this.root = Paths.get(appProperties.getImageDirectory()).toAbsolutePath();
+        Files.createDirectories(this.root);
+        log.info("image store directory: {}", this.root);
+    }
+
+    @Override
+    public String store(byte[] content) throws IOException {
+        String hash = ImageStore.hash(content);
+        Path target = pathOf(hash);
+        if (Files.exists(target)) {
+            return hash; // 같은 내용이면 같은 해시, 이미 저장되어 있음
+        }
+
+        write(target, content);
+        return hash;
+    }
+
+    @Override
+    public Optional<StoredImage> find(String hash) throws IOException {
+        if (!ImageStore.isHash(hash)) {
+            return Optional.empty();
+        }
+        return find(hash, pathOf(hash));
+    }
+
+    @Override
+    public void storeVariant(String hash, ImageVariant variant, byte[] content) throws IOException {
+        write(variantPathOf(hash, variant), content);
+    }
+
+    @Override
+    public Optional<StoredImage> findVariant(String hash, ImageVariant variant) throws IOException {
+        if (!ImageStore.isHash(hash)) {
+            return Optional.empty();
+        }
+        return find(hash, variantPathOf(hash, variant));
+    }
+
+    private Optional<StoredImage> find(String hash, Path path) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        return Optional.of(new DiskImage(hash, path, contentTypeOf(path), Files.size(path)));
+    }
+
+    private void write(Path target, byte[] content) throws IOException {
+        Files.createDirectories(target.getParent());
+        // 임시 파일에 다 쓴 다음 옮겨서 읽는 쪽에서 반쯤 쓰인 파일을 보지 않게 한다
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, content);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private Path pathOf(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    private Path variantPathOf(String hash, ImageVariant variant) {
+        return pathOf(hash).resolveSibling(hash + "_" + variant.getSize());
+    }
+
+    private String contentTypeOf(Path path) throws IOException {
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            byte[] header = inputStream.readNBytes(HEADER_SIZE);
+            return ImageType.detect(header).map(ImageType::getContentType).orElse("application/octet-stream");
+        }
+    }
+
+    private static class DiskImage implements StoredImage {
+
+        private final String hash;
+        private final Path path;
+        private final String contentType;
+        private final long size;
+
+        private DiskImage(String hash, Path path, String contentType, long size) {
+            this.hash = hash;
+            this.path = path;
+            this.contentType = contentType;
+            this.size = size;
+        }
+
+        @Override
+        public String getHash() {
+            return hash;
+        }
+
+        @Override
+        public String getContentType() {
+            return contentType;
+        }
+
+        @Override
+        public long getSize() {
+            return size;
+        }
+
+        @Override
+        public Optional<Path> file() {
+            return Optional.of(path);
+        }
+
+        @Override
+        public FileChannel openChannel() throws IOException {
+            return FileChannel.open(path, StandardOpenOption.READ);
+        }
+    }
+}
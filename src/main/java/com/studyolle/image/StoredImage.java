@@ -0,0 +1,35 @@
+package com.studyolle.image;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * 저장소에 있는 이미지 한 건
+ * 디스크에 있는 이미지는 file() 을 돌려줘서 ImageController 가 복사 없이(sendfile, transferTo) 내려보낼 수 있게 한다
+ */
+public interface StoredImage {
+
+    String getHash();
+
+    String getContentType();
+
+    long getSize();
+
+    /** 디스크 파일이 아닌 저장소는 Optional.empty() **/
+    Optional<Path> file();
+
+    FileChannel openChannel() throws IOException;
+
+    default byte[] readAllBytes() throws IOException {
+        try (FileChannel channel = openChannel()) {
+            ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(channel.size()));
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // 다 읽을 때까지
+            }
+            return buffer.array();
+        }
+    }
+}
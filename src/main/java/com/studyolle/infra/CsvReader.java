@@ -0,0 +1,58 @@
+package com.studyolle.infra;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 한 줄씩 읽는 CSV 리더, 큰따옴표로 감싼 값("a,b", "say ""hi""")까지만 지원 (값 안의 줄바꿈은 지원하지 않음)
+ */
+class CsvReader {
+
+    private final BufferedReader reader;
+
+    CsvReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    /** 다음 행, 빈 줄은 건너뛰고 끝이면 null **/
+    String[] next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank());
+        return parse(line);
+    }
+
+    static String[] parse(String line) {
+        List<String> columns = new ArrayList<>();
+        StringBuilder column = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    column.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    column.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                columns.add(column.toString());
+                column.setLength(0);
+            } else {
+                column.append(c);
+            }
+        }
+        columns.add(column.toString());
+        return columns.toArray(new String[0]);
+    }
+}
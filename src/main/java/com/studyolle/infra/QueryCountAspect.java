@@ -0,0 +1,38 @@
+package com.studyolle.infra;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * @Transactional 서비스 메소드, @Async 메소드별로 실행한 SQL 을 센다
+ * @Async 메소드는 요청 스레드 밖에서 돌아서 QueryCountInterceptor 에 잡히지 않기 때문에 여기서 센다
+ * 트랜잭션 advice 바깥에서 감싸야 커밋할 때 flush 되는 SQL 까지 포함되므로 순서를 하나 앞에 둔다
+ * 안에서 부른 다른 서비스 메소드의 SQL 도 포함된다
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class QueryCountAspect {
+
+    private final QueryMetrics queryMetrics;
+
+    @Around("within(com.studyolle..*) && ("
+            + "@within(org.springframework.transaction.annotation.Transactional) || @annotation(org.springframework.transaction.annotation.Transactional)"
+            + " || @within(javax.transaction.Transactional) || @annotation(javax.transaction.Transactional)"
+            + " || @annotation(org.springframework.scheduling.annotation.Async))")
+    public Object count(ProceedingJoinPoint joinPoint) throws Throwable {
+        QueryStats start = QueryCounter.current();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            String method = joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName();
+            queryMetrics.recordService(method, QueryCounter.current().minus(start));
+        }
+    }
+}
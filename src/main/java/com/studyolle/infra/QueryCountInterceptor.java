@@ -0,0 +1,66 @@
+package com.studyolle.infra;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 요청 하나(핸들러 + 뷰 렌더링, OSIV 로 뷰에서 지연 로딩하는 것까지)에서 실행한 SQL 을 센다
+ * 결과는 STATS_ATTRIBUTE 로 요청에 남겨서 테스트에서 확인할 수 있다
+ *
+ * 요청 스레드에서 실행한 SQL 만 센다
+ * - SSE(/sse) 처럼 비동기로 넘어가는 요청은 afterCompletion 대신 afterConcurrentHandlingStarted 에서 그때까지 센 값을 남기고,
+ *   나중에 다시 디스패치되면 그 구간은 따로 센다
+ * - 다른 스레드에서 실행한 SQL (알림 스레드, 스케줄러) 은 요청에 들어가지 않고 QueryCountAspect 가 메소드 단위로 센다
+ */
+@Component
+@RequiredArgsConstructor
+public class QueryCountInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String STATS_ATTRIBUTE = QueryCountInterceptor.class.getName() + ".stats";
+    private static final String START_ATTRIBUTE = QueryCountInterceptor.class.getName() + ".start";
+
+    private final QueryMetrics queryMetrics;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.setAttribute(START_ATTRIBUTE, QueryCounter.current());
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        record(request, handler); // 비동기 응답은 afterCompletion 이 불리지 않는다
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        record(request, handler);
+    }
+
+    private void record(HttpServletRequest request, Object handler) {
+        QueryStats start = (QueryStats) request.getAttribute(START_ATTRIBUTE);
+        if (start == null) {
+            return;
+        }
+        QueryStats stats = QueryCounter.current().minus(start);
+        request.removeAttribute(START_ATTRIBUTE);
+        request.setAttribute(STATS_ATTRIBUTE, stats);
+        queryMetrics.recordRequest(nameOf(request, handler), stats);
+    }
+
+    /** MainController.home 처럼 컨트롤러.메소드, 컨트롤러가 아니면 매핑된 경로 패턴 **/
+    private String nameOf(HttpServletRequest request, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            HandlerMethod handlerMethod = (HandlerMethod) handler;
+            return handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern == null ? "unmapped" : pattern.toString();
+    }
+}
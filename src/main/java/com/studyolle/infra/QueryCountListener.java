@@ -0,0 +1,51 @@
+package com.studyolle.infra;
+
+import com.p6spy.engine.common.PreparedStatementInformation;
+import com.p6spy.engine.common.ResultSetInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+/**
+ * p6spy 가 감싼 DataSource 에서 SQL 이 실행될 때마다 QueryCounter 에 더한다 (빈으로 등록하면 p6spy starter 가 알아서 붙임)
+ * 배치 INSERT 는 한번에 보내므로 SQL 1개로 센다
+ */
+@Component
+public class QueryCountListener extends SimpleJdbcEventListener {
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        QueryCounter.executed(timeElapsedNanos);
+    }
+
+    @Override
+    public void onAfterExecuteUpdate(PreparedStatementInformation statementInformation, long timeElapsedNanos, int rowCount, SQLException e) {
+        super.onAfterExecuteUpdate(statementInformation, timeElapsedNanos, rowCount, e);
+        QueryCounter.rows(Math.max(0, rowCount));
+    }
+
+    @Override
+    public void onAfterExecuteUpdate(StatementInformation statementInformation, long timeElapsedNanos, String sql, int rowCount, SQLException e) {
+        super.onAfterExecuteUpdate(statementInformation, timeElapsedNanos, sql, rowCount, e);
+        QueryCounter.rows(Math.max(0, rowCount));
+    }
+
+    @Override
+    public void onAfterExecuteBatch(StatementInformation statementInformation, long timeElapsedNanos, int[] updateCounts, SQLException e) {
+        super.onAfterExecuteBatch(statementInformation, timeElapsedNanos, updateCounts, e);
+        if (updateCounts != null) {
+            for (int updateCount : updateCounts) {
+                QueryCounter.rows(Math.max(0, updateCount)); // SUCCESS_NO_INFO(-2) 는 세지 않음
+            }
+        }
+    }
+
+    @Override
+    public void onAfterResultSetNext(ResultSetInformation resultSetInformation, long timeElapsedNanos, boolean hasNext, SQLException e) {
+        if (hasNext) {
+            QueryCounter.rows(1);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.studyolle.infra;
+
+/**
+ * 스레드별 SQL 실행 누적값, QueryCountListener 가 쌓고 요청(QueryCountInterceptor) / 서비스 메소드(QueryCountAspect) 단위로 잘라서 본다
+ * 값은 계속 늘어나기만 하므로 스레드 풀에서 재사용되어도 지울 필요가 없다
+ */
+public final class QueryCounter {
+
+    private static final ThreadLocal<long[]> COUNTS = ThreadLocal.withInitial(() -> new long[3]);
+
+    private static final int STATEMENTS = 0, ROWS = 1, NANOS = 2;
+
+    private QueryCounter() {
+    }
+
+    public static QueryStats current() {
+        long[] counts = COUNTS.get();
+        return new QueryStats(counts[STATEMENTS], counts[ROWS], counts[NANOS]);
+    }
+
+    static void executed(long nanos) {
+        long[] counts = COUNTS.get();
+        counts[STATEMENTS]++;
+        counts[NANOS] += nanos;
+    }
+
+    static void rows(long rows) {
+        COUNTS.get()[ROWS] += rows;
+    }
+}
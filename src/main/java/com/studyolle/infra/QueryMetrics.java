@@ -0,0 +1,45 @@
+package com.studyolle.infra;
+
+import com.studyolle.config.AppProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 구간별 QueryStats 를 Micrometer 지표로 남긴다 (/actuator/metrics/studyolle.query.statements?tag=name:MainController.home)
+ * 요청 하나가 app.query-budget 보다 많은 SQL 을 실행하면 경고 로그를 남긴다 (N+1 이 새로 생겼는지 확인용)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class QueryMetrics {
+
+    static final String REQUEST = "request";
+    static final String SERVICE = "service";
+
+    private final MeterRegistry meterRegistry;
+    private final AppProperties appProperties;
+
+    void recordRequest(String handler, QueryStats stats) {
+        record(REQUEST, handler, stats);
+        if (stats.getStatements() > appProperties.getQueryBudget()) {
+            log.warn("{} exceeded query budget {}: {}", handler, appProperties.getQueryBudget(), stats);
+        }
+    }
+
+    void recordService(String method, QueryStats stats) {
+        record(SERVICE, method, stats);
+    }
+
+    private void record(String scope, String name, QueryStats stats) {
+        DistributionSummary.builder("studyolle.query.statements").tags("scope", scope, "name", name)
+                .register(meterRegistry).record(stats.getStatements());
+        DistributionSummary.builder("studyolle.query.rows").tags("scope", scope, "name", name)
+                .register(meterRegistry).record(stats.getRows());
+        meterRegistry.timer("studyolle.query.time", "scope", scope, "name", name).record(stats.getNanos(), TimeUnit.NANOSECONDS);
+    }
+}
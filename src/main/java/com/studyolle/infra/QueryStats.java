@@ -0,0 +1,38 @@
+package com.studyolle.infra;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * 실행한 SQL 수, 읽거나 바꾼 행 수, DB 에서 보낸 시간
+ * QueryCounter.current() 는 스레드가 시작된 뒤 누적값이므로 구간의 값은 끝 - 시작(minus)으로 구한다
+ */
+@Getter
+public class QueryStats {
+
+    public static final QueryStats EMPTY = new QueryStats(0, 0, 0);
+
+    private final long statements;
+    private final long rows;
+    private final long nanos;
+
+    QueryStats(long statements, long rows, long nanos) {
+        this.statements = statements;
+        this.rows = rows;
+        this.nanos = nanos;
+    }
+
+    public QueryStats minus(QueryStats start) {
+        return new QueryStats(statements - start.statements, rows - start.rows, nanos - start.nanos);
+    }
+
+    public Duration getTime() {
+        return Duration.ofNanos(nanos);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d statements, %d rows, %d ms", statements, rows, getTime().toMillis());
+    }
+}
@@ -0,0 +1,41 @@
+package com.studyolle.infra;
+
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.time.LocalDateTime;
+
+/**
+ * 마지막으로 넣은 기준 데이터 파일의 체크섬, 같은 파일이면 다시 넣지 않는다
+ */
+@Entity
+@Getter @EqualsAndHashCode(of = "name")
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class ReferenceDataChecksum {
+
+    @Id
+    @Column(length = 100)
+    private String name;
+
+    @Column(nullable = false, length = 64)
+    private String checksum;
+
+    private int insertedRows;
+
+    private LocalDateTime loadedDateTime;
+
+    ReferenceDataChecksum(String name) {
+        this.name = name;
+    }
+
+    void loaded(String checksum, int insertedRows, LocalDateTime loadedDateTime) {
+        this.checksum = checksum;
+        this.insertedRows = insertedRows;
+        this.loadedDateTime = loadedDateTime;
+    }
+}
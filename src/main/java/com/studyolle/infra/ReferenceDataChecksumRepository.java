@@ -0,0 +1,8 @@
+package com.studyolle.infra;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Transactional(readOnly = true)
+public interface ReferenceDataChecksumRepository extends JpaRepository<ReferenceDataChecksum, String> {
+}
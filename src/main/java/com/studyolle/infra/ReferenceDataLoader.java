@@ -0,0 +1,126 @@
+package com.studyolle.infra;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 지역 목록 같은 기준 데이터(CSV)를 DB 에 한번에 넣는다
+ * - 파일을 한 줄씩 읽어서 CHUNK_SIZE 개마다 flush 하므로 hibernate.jdbc.batch_size 단위의 배치 INSERT 로 나간다
+ *   (엔티티 id 는 allocationSize 가 큰 시퀀스를 써야 행마다 시퀀스를 부르지 않는다)
+ * - 파일의 SHA-256 을 ReferenceDataChecksum 에 저장해두고 같으면 건너뛰므로 재시작할 때는 체크섬 조회 한번으로 끝난다
+ * - 파일이 바뀌었으면 이미 있는 행(keyOf 기준)은 두고 새 행만 넣는다
+ */
+@Slf4j
+@Component
+public class ReferenceDataLoader {
+
+    static final int CHUNK_SIZE = 100; // hibernate.jdbc.batch_size 와 맞춤
+
+    private final EntityManager entityManager;
+    private final ReferenceDataChecksumRepository checksumRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public ReferenceDataLoader(EntityManager entityManager, ReferenceDataChecksumRepository checksumRepository,
+                               PlatformTransactionManager transactionManager) {
+        this.entityManager = entityManager;
+        this.checksumRepository = checksumRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /** 새로 넣은 행 수, 파일이 그대로라서 건너뛰면 0 **/
+    public <T> int load(ReferenceDataSet<T> dataSet) throws IOException {
+        String checksum = checksumOf(dataSet);
+        boolean unchanged = checksumRepository.findById(dataSet.getName())
+                .map(loaded -> loaded.getChecksum().equals(checksum))
+                .orElse(false);
+        if (unchanged) {
+            log.debug("reference data '{}' unchanged, skipped", dataSet.getName());
+            return 0;
+        }
+
+        try {
+            Integer inserted = transactionTemplate.execute(status -> insert(dataSet, checksum));
+            log.info("reference data '{}' loaded, {} rows inserted", dataSet.getName(), inserted);
+            return inserted == null ? 0 : inserted;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private <T> int insert(ReferenceDataSet<T> dataSet, String checksum) {
+        Set<Object> existingKeys = dataSet.getExistingRows().get().stream()
+                .map(dataSet.getKeyOf())
+                .collect(Collectors.toCollection(HashSet::new));
+
+        int inserted = 0;
+        try (BufferedReader reader = openReader(dataSet.getResource().getInputStream())) {
+            CsvReader csvReader = new CsvReader(reader);
+            String[] columns;
+            while ((columns = csvReader.next()) != null) {
+                T row = dataSet.getRowMapper().apply(columns);
+                if (!existingKeys.add(dataSet.getKeyOf().apply(row))) {
+                    continue; // 이미 있거나 파일 안에서 중복된 행
+                }
+                entityManager.persist(row);
+                if (++inserted % CHUNK_SIZE == 0) {
+                    entityManager.flush();
+                    entityManager.clear(); // 영속성 컨텍스트가 파일 크기만큼 커지지 않도록
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        ReferenceDataChecksum loaded = checksumRepository.findById(dataSet.getName())
+                .orElseGet(() -> new ReferenceDataChecksum(dataSet.getName()));
+        loaded.loaded(checksum, inserted, LocalDateTime.now());
+        checksumRepository.save(loaded);
+        return inserted;
+    }
+
+    private String checksumOf(ReferenceDataSet<?> dataSet) throws IOException {
+        MessageDigest digest = sha256();
+        try (InputStream inputStream = new DigestInputStream(dataSet.getResource().getInputStream(), digest)) {
+            inputStream.transferTo(OutputStream.nullOutputStream()); // 읽기만 하면 digest 에 반영됨
+        }
+        return toHex(digest.digest());
+    }
+
+    private static BufferedReader openReader(InputStream inputStream) {
+        return new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,27 @@
+package com.studyolle.infra;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.springframework.core.io.Resource;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * ReferenceDataLoader 로 넣을 기준 데이터 (CSV 파일 하나 = 엔티티 하나)
+ */
+@Getter
+@Builder
+public class ReferenceDataSet<T> {
+
+    private final String name; // 체크섬을 저장할 때 쓰는 이름
+
+    private final Resource resource; // UTF-8 CSV
+
+    private final Function<String[], T> rowMapper; // CSV 한 행 -> 엔티티
+
+    private final Function<T, ?> keyOf; // 이미 들어있는 행인지 판단할 키
+
+    private final Supplier<List<T>> existingRows; // 파일이 바뀌었을 때만 호출
+}
@@ -0,0 +1,80 @@
+package com.studyolle.mail;
+
+import org.unbescape.html.HtmlEscape;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 미리 렌더링해 둔 메일 템플릿
+ * 고정된 html 조각(LITERAL)과 변수가 들어갈 자리(ESCAPED, RAW)의 목록이라서 렌더링은 이어 붙이기만 하면 된다
+ */
+class CompiledMailTemplate {
+
+    private static final int MAX_BUFFER_CAPACITY = 64 * 1024; // 큰 메일을 한번 만들었다고 버퍼를 계속 들고 있지 않도록
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(StringBuilder::new);
+
+    enum Type {
+        LITERAL, // 템플릿의 고정된 부분
+        ESCAPED, // th:text, th:href 처럼 html 이스케이프 후 들어가는 변수
+        RAW // th:utext 처럼 그대로 들어가는 변수
+    }
+
+    static class Fragment {
+
+        private final Type type;
+        private final String value; // LITERAL 이면 html, 아니면 변수 이름
+
+        Fragment(Type type, String value) {
+            this.type = type;
+            this.value = value;
+        }
+
+        boolean isLiteral() {
+            return type == Type.LITERAL;
+        }
+
+        String getValue() {
+            return value;
+        }
+    }
+
+    private final List<Fragment> fragments;
+    private final int literalLength;
+
+    CompiledMailTemplate(List<Fragment> fragments) {
+        this.fragments = List.copyOf(fragments);
+        this.literalLength = fragments.stream().filter(fragment -> fragment.type == Type.LITERAL).mapToInt(fragment -> fragment.value.length()).sum();
+    }
+
+    String render(Map<String, ?> variables) {
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        buffer.ensureCapacity(literalLength + 256);
+        for (Fragment fragment : fragments) {
+            switch (fragment.type) {
+                case LITERAL:
+                    buffer.append(fragment.value);
+                    break;
+                case ESCAPED:
+                    buffer.append(HtmlEscape.escapeHtml4Xml(valueOf(variables, fragment.value))); // 타임리프 th:text 와 같은 이스케이프
+                    break;
+                case RAW:
+                    buffer.append(valueOf(variables, fragment.value));
+                    break;
+            }
+        }
+
+        String rendered = buffer.toString();
+        if (buffer.capacity() > MAX_BUFFER_CAPACITY) {
+            BUFFER.remove();
+        }
+        return rendered;
+    }
+
+    private String valueOf(Map<String, ?> variables, String name) {
+        Object value = variables.get(name);
+        return value == null ? "" : value.toString();
+    }
+}
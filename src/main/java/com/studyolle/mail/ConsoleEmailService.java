@@ -1,12 +1,14 @@
 package com.studyolle.mail;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
 @Slf4j
 @Profile("local") // 로컬이라는 프로파일로 실행을 할 때만 사용 (개발환경)
 @Component
+@Qualifier(EmailService.TRANSPORT)
 /**
  * 콘솔로만 출력하는 이메일 구현체
  */
@@ -1,6 +1,29 @@
 package com.studyolle.mail;
 
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
 public interface EmailService {
 
+    /** 실제로 메일을 보내는 구현체(ConsoleEmailService, HtmlEmailService)의 @Qualifier **/
+    String TRANSPORT = "emailTransport";
+
     void sendEmail(EmailMessage emailMessage);
+
+    /**
+     * 여러 통을 한번에 보낸다, 보내지 못한 메시지와 그 이유를 돌려준다 (같은 객체 기준)
+     * SMTP 처럼 연결 비용이 큰 구현체는 연결 하나로 보내도록 재정의한다
+     */
+    default Map<EmailMessage, Exception> sendEmails(List<EmailMessage> emailMessages) {
+        Map<EmailMessage, Exception> failures = new IdentityHashMap<>();
+        for (EmailMessage emailMessage : emailMessages) {
+            try {
+                sendEmail(emailMessage);
+            } catch (RuntimeException e) {
+                failures.put(emailMessage, e);
+            }
+        }
+        return failures;
+    }
 }
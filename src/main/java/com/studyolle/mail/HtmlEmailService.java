@@ -2,17 +2,24 @@ package com.studyolle.mail;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Profile;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Component;
 
 import javax.mail.MessagingException;
 import javax.mail.internet.MimeMessage;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Profile("dev")  // 프로파일이 dev일 때 사용이 됨
 @Component
+@Qualifier(EmailService.TRANSPORT)
 @RequiredArgsConstructor
 /**
  * Html로 이메일 보내는 구현체
@@ -23,14 +30,8 @@ public class HtmlEmailService implements EmailService {
 
     @Override
     public void sendEmail(EmailMessage emailMessage) {
-        MimeMessage mimeMessage = javaMailSender.createMimeMessage(); // HTML으로 만들어진 이메일을 보내기 위한 것
         try {
-            // MimeMessageHelper로 감싸주지 않으면 setTo 같은거 할때 대부분 두번째 인자가 캐릭터셋이라 번거로움
-            MimeMessageHelper mimeMessageHelper = new MimeMessageHelper(mimeMessage, false, "UTF-8");
-            mimeMessageHelper.setTo(emailMessage.getTo());
-            mimeMessageHelper.setSubject(emailMessage.getSubject());
-            mimeMessageHelper.setText(emailMessage.getMessage(), true);
-            javaMailSender.send(mimeMessage);
+            javaMailSender.send(createMimeMessage(emailMessage));
             log.info("sent email: {}", emailMessage.getMessage());
         } catch (MessagingException e) {
             log.error("failed to send email", e);
@@ -38,4 +39,45 @@ public class HtmlEmailService implements EmailService {
         }
 
     }
+
+    /** JavaMailSender 에 한번에 넘기면 SMTP 연결 하나로 모두 보낸다 **/
+    @Override
+    public Map<EmailMessage, Exception> sendEmails(List<EmailMessage> emailMessages) {
+        Map<EmailMessage, Exception> failures = new IdentityHashMap<>();
+        Map<MimeMessage, EmailMessage> mimeMessages = new IdentityHashMap<>();
+        for (EmailMessage emailMessage : emailMessages) {
+            try {
+                mimeMessages.put(createMimeMessage(emailMessage), emailMessage);
+            } catch (MessagingException e) {
+                failures.put(emailMessage, e);
+            }
+        }
+        if (mimeMessages.isEmpty()) {
+            return failures;
+        }
+
+        try {
+            javaMailSender.send(mimeMessages.keySet().toArray(new MimeMessage[0]));
+            log.info("sent {} emails", mimeMessages.size());
+        } catch (MailSendException e) {
+            // 연결 자체가 실패하면 failedMessages 에 전부 들어있다
+            e.getFailedMessages().forEach((mimeMessage, exception) -> failures.put(mimeMessages.get(mimeMessage), exception));
+            if (e.getFailedMessages().isEmpty()) {
+                mimeMessages.values().forEach(emailMessage -> failures.put(emailMessage, e));
+            }
+        } catch (MailException e) {
+            mimeMessages.values().forEach(emailMessage -> failures.put(emailMessage, e));
+        }
+        return failures;
+    }
+
+    private MimeMessage createMimeMessage(EmailMessage emailMessage) throws MessagingException {
+        MimeMessage mimeMessage = javaMailSender.createMimeMessage(); // HTML으로 만들어진 이메일을 보내기 위한 것
+        // MimeMessageHelper로 감싸주지 않으면 setTo 같은거 할때 대부분 두번째 인자가 캐릭터셋이라 번거로움
+        MimeMessageHelper mimeMessageHelper = new MimeMessageHelper(mimeMessage, false, "UTF-8");
+        mimeMessageHelper.setTo(emailMessage.getTo());
+        mimeMessageHelper.setSubject(emailMessage.getSubject());
+        mimeMessageHelper.setText(emailMessage.getMessage(), true);
+        return mimeMessage;
+    }
 }
@@ -0,0 +1,128 @@
+package com.studyolle.mail;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.thymeleaf.ThymeleafProperties;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 메일 본문 렌더링
+ * 변수만 바꿔 끼우는 단순한 템플릿(mail/simple-link 등)은 처음 한번만 타임리프로 렌더링해서 CompiledMailTemplate 으로 만들어두고
+ * 다음부터는 조각을 이어 붙이기만 한다. 로그인 링크를 한번에 수만 통 보낼 때 템플릿을 매번 처리하지 않기 위함
+ *
+ * 미리 만드는 방법 : 변수마다 표시(slot)를 넣어서 렌더링한 뒤 결과를 표시 기준으로 자른다
+ * 표시에 '&' 를 넣어두면 '&amp;' 로 바뀌었는지를 보고 이스케이프 되는 자리인지 알 수 있다
+ * th:if, th:each 처럼 결과 모양이 값에 따라 달라지거나 ${변수} 말고 다른 식을 쓰는 템플릿은 그냥 타임리프로 렌더링한다
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MailTemplateRenderer {
+
+    private static final Pattern DYNAMIC_ATTRIBUTE = Pattern.compile(
+            "th:(if|unless|each|switch|case|insert|replace|include|with|object|remove|block|fragment|attr|classappend|inline)\\b");
+    private static final Pattern EXPRESSION = Pattern.compile("[$*#@~]\\{([^}]*)}");
+    private static final Pattern SIMPLE_VARIABLES = Pattern.compile("\\s*\\w+(\\s*\\+\\s*\\w+)*\\s*"); // ${a} 또는 ${a + b}
+
+    private final TemplateEngine templateEngine;
+    private final ThymeleafProperties thymeleafProperties;
+    private final ResourceLoader resourceLoader;
+
+    private final Map<String, Optional<CompiledMailTemplate>> compiledTemplates = new ConcurrentHashMap<>(); // empty 면 타임리프로 렌더링
+
+    public String render(String template, Map<String, ?> variables) {
+        String key = template + new TreeSet<>(variables.keySet()); // 같은 템플릿이라도 넘기는 변수가 다르면 따로 만든다
+        Optional<CompiledMailTemplate> compiled = thymeleafProperties.isCache()
+                ? compiledTemplates.computeIfAbsent(key, k -> compile(template, variables.keySet()))
+                : Optional.empty();
+        return compiled.map(compiledTemplate -> compiledTemplate.render(variables))
+                .orElseGet(() -> process(template, variables));
+    }
+
+    private String process(String template, Map<String, ?> variables) {
+        Context context = new Context(); // model과 같은 역할
+        variables.forEach(context::setVariable);
+        return templateEngine.process(template, context);
+    }
+
+    Optional<CompiledMailTemplate> compile(String template, Iterable<String> names) {
+        if (!isStatic(template)) {
+            log.info("mail template {} is rendered by thymeleaf every time", template);
+            return Optional.empty();
+        }
+
+        String nonce = UUID.randomUUID().toString().replace("-", "");
+        List<String> slotNames = new ArrayList<>();
+        Context context = new Context();
+        for (String name : names) {
+            context.setVariable(name, "{{" + nonce + ":" + slotNames.size() + "&}}");
+            slotNames.add(name);
+        }
+        String rendered = templateEngine.process(template, context);
+
+        Matcher slot = Pattern.compile("\\{\\{" + nonce + ":(\\d+)(&amp;|&)}}").matcher(rendered);
+        List<CompiledMailTemplate.Fragment> fragments = new ArrayList<>();
+        int literalStart = 0;
+        while (slot.find()) {
+            addLiteral(fragments, rendered.substring(literalStart, slot.start()));
+            CompiledMailTemplate.Type type = slot.group(2).equals("&") ? CompiledMailTemplate.Type.RAW : CompiledMailTemplate.Type.ESCAPED;
+            fragments.add(new CompiledMailTemplate.Fragment(type, slotNames.get(Integer.parseInt(slot.group(1)))));
+            literalStart = slot.end();
+        }
+        addLiteral(fragments, rendered.substring(literalStart));
+
+        // url 인코딩 등 다른 방식으로 바뀐 표시가 남아있으면 조각으로 나눌 수 없음
+        String literals = fragments.stream().filter(CompiledMailTemplate.Fragment::isLiteral).map(CompiledMailTemplate.Fragment::getValue).reduce("", String::concat);
+        if (literals.contains(nonce)) {
+            log.info("mail template {} is rendered by thymeleaf every time", template);
+            return Optional.empty();
+        }
+        return Optional.of(new CompiledMailTemplate(fragments));
+    }
+
+    private void addLiteral(List<CompiledMailTemplate.Fragment> fragments, String literal) {
+        if (!literal.isEmpty()) {
+            fragments.add(new CompiledMailTemplate.Fragment(CompiledMailTemplate.Type.LITERAL, literal));
+        }
+    }
+
+    /** 템플릿 원본을 보고 변수를 바꿔 끼우기만 하는 템플릿인지 확인 **/
+    private boolean isStatic(String template) {
+        Resource resource = resourceLoader.getResource(thymeleafProperties.getPrefix() + template + thymeleafProperties.getSuffix());
+        String source;
+        try (InputStream inputStream = resource.getInputStream()) {
+            source = StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return false;
+        }
+
+        if (DYNAMIC_ATTRIBUTE.matcher(source).find()) {
+            return false;
+        }
+        Matcher expression = EXPRESSION.matcher(source);
+        while (expression.find()) {
+            if (expression.group().charAt(0) != '$' || !SIMPLE_VARIABLES.matcher(expression.group(1)).matches()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
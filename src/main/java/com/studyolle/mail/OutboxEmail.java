@@ -0,0 +1,109 @@
+package com.studyolle.mail;
+
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * 보낼 메일 (outbox)
+ * 메일을 보내는 쪽의 트랜잭션 안에서 저장만 하고 실제 전송은 커밋 이후에 OutboxEmailDispatcher 가 한다
+ * 보내다 실패하면 점점 간격을 늘려가며 다시 보내고 MAX_ATTEMPTS 번 실패하면 DEAD 로 남겨둔다
+ * 보내기 전에 SENDING 으로 집어가고 nextAttemptAt 을 임대 만료 시각으로 쓴다, 만료될 때까지 못 보내면 다시 집어갈 수 있다
+ * 보낸 메일은 본문(로그인 링크의 토큰 등)을 바로 지우고, SENT 와 DEAD 는 app.mail-retention 이 지나면 행을 지운다 (OutboxEmailDispatcher.purge)
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_outbox_email_status", columnList = "status, nextAttemptAt"))
+@Getter @EqualsAndHashCode(of = "id")
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class OutboxEmail {
+
+    static final int MAX_ATTEMPTS = 5;
+    static final Duration FIRST_RETRY_DELAY = Duration.ofMinutes(1); // 1분, 2분, 4분, 8분 뒤에 다시 보냄
+    static final int MAX_ERROR_LENGTH = 1000;
+
+    public enum Status {
+        PENDING, SENDING, SENT, DEAD
+    }
+
+    @Id @GeneratedValue
+    private Long id;
+
+    @Version
+    private Long version; // 두 서버가 같은 메일을 동시에 집어가면 나중에 커밋한 쪽이 실패
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Lob @Basic(fetch = FetchType.EAGER)
+    private String message;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Status status;
+
+    private int attempts;
+
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = MAX_ERROR_LENGTH)
+    private String lastError;
+
+    private LocalDateTime createdDateTime;
+
+    private LocalDateTime sentDateTime;
+
+    public static OutboxEmail of(EmailMessage emailMessage, LocalDateTime now) {
+        OutboxEmail outboxEmail = new OutboxEmail();
+        outboxEmail.recipient = emailMessage.getTo();
+        outboxEmail.subject = emailMessage.getSubject();
+        outboxEmail.message = emailMessage.getMessage();
+        outboxEmail.status = Status.PENDING;
+        outboxEmail.nextAttemptAt = now;
+        outboxEmail.createdDateTime = now;
+        return outboxEmail;
+    }
+
+    public EmailMessage toEmailMessage() {
+        return EmailMessage.builder()
+                .to(this.recipient)
+                .subject(this.subject)
+                .message(this.message)
+                .build();
+    }
+
+    /** leaseUntil 까지 이 서버가 보낸다 **/
+    public void claim(LocalDateTime leaseUntil) {
+        this.status = Status.SENDING;
+        this.nextAttemptAt = leaseUntil;
+    }
+
+    public void sent(LocalDateTime now) {
+        this.attempts++;
+        this.status = Status.SENT;
+        this.message = null; // 다시 보낼 일이 없음
+        this.sentDateTime = now;
+        this.nextAttemptAt = null;
+        this.lastError = null;
+    }
+
+    public void failed(Exception exception, LocalDateTime now) {
+        this.attempts++;
+        String error = String.valueOf(exception);
+        this.lastError = error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+        if (this.attempts >= MAX_ATTEMPTS) {
+            this.status = Status.DEAD;
+            this.nextAttemptAt = null;
+        } else {
+            this.status = Status.PENDING;
+            this.nextAttemptAt = now.plus(FIRST_RETRY_DELAY.multipliedBy(1L << (this.attempts - 1)));
+        }
+    }
+}
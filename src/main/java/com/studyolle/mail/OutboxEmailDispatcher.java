@@ -0,0 +1,160 @@
+package com.studyolle.mail;
+
+import com.studyolle.config.AppProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * outbox 테이블에 쌓인 메일을 실제로 보내는 쪽
+ * 전용 스레드 하나가 보낼 때가 된 메일을 batchSize 통씩 읽어서 EmailService.TRANSPORT 구현체로 한번에 보낸다
+ * 읽는 트랜잭션에서 SENDING 으로 바꿔서 (임대, app.mail-send-lease) 커밋한 뒤에 보내기 때문에 서버가 여러 대여도 같은 메일을 두번 보내지 않는다
+ * 두 서버가 같은 묶음을 읽으면 나중에 커밋한 쪽이 버전 충돌로 물러나고, 보내다 서버가 죽은 메일은 임대가 끝나면 다시 집어간다
+ * SMTP 연결은 묶음 단위로 한번만 맺는다
+ * 커밋 직후 QueueingEmailService 가 깨우고, 재시도할 메일은 주기적으로 깨워서 보낸다
+ */
+@Slf4j
+@Component
+public class OutboxEmailDispatcher {
+
+    private static final Set<OutboxEmail.Status> CLAIMABLE = EnumSet.of(OutboxEmail.Status.PENDING, OutboxEmail.Status.SENDING);
+    private static final Set<OutboxEmail.Status> FINISHED = EnumSet.of(OutboxEmail.Status.SENT, OutboxEmail.Status.DEAD);
+
+    private final OutboxEmailRepository outboxEmailRepository;
+    private final EmailService transport;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolTaskExecutor executor;
+    private final int batchSize;
+    private final Duration lease;
+    private final Duration retention;
+    private final AtomicBoolean scheduled = new AtomicBoolean(); // 이미 보내기로 한 작업이 큐에 있으면 또 넣지 않음
+
+    public OutboxEmailDispatcher(OutboxEmailRepository outboxEmailRepository,
+                                 @Qualifier(EmailService.TRANSPORT) EmailService transport,
+                                 PlatformTransactionManager transactionManager,
+                                 AppProperties appProperties) {
+        this.outboxEmailRepository = outboxEmailRepository;
+        this.transport = transport;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = appProperties.getMailBatchSize();
+        this.lease = appProperties.getMailSendLease();
+        this.retention = appProperties.getMailRetention();
+        this.executor = new ThreadPoolTaskExecutor();
+        this.executor.setCorePoolSize(1);
+        this.executor.setMaxPoolSize(1);
+        this.executor.setThreadNamePrefix("mail-sender-");
+        this.executor.setWaitForTasksToCompleteOnShutdown(true); // 보내는 중인 묶음은 마저 보내고 종료
+        this.executor.initialize();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public void wakeUp() {
+        if (!scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(this::drain);
+        } catch (TaskRejectedException e) { // 종료 중
+            scheduled.set(false);
+        }
+    }
+
+    /** 재시도 시간이 된 메일이나 깨우기 전에 서버가 내려가서 남은 메일을 보낸다 **/
+    @Scheduled(fixedDelayString = "${app.mail-retry-interval:30000}")
+    public void poll() {
+        wakeUp();
+    }
+
+    /** app.mail-retention 보다 오래된 SENT, DEAD 메일을 지운다, 테이블이 끝없이 커지지 않게 **/
+    @Scheduled(fixedDelayString = "${app.mail-purge-interval:3600000}")
+    public void purge() {
+        int purged = outboxEmailRepository.deleteByStatusInAndCreatedBefore(FINISHED, LocalDateTime.now().minus(retention));
+        if (purged > 0) {
+            log.info("purged {} outbox emails older than {}", purged, retention);
+        }
+    }
+
+    /** 보낼 메일이 없을 때까지 묶음 단위로 보낸다 **/
+    void drain() {
+        scheduled.set(false);
+        try {
+            int sent;
+            do {
+                sent = sendBatch();
+            } while (sent == batchSize);
+        } catch (RuntimeException e) {
+            log.error("failed to dispatch outbox emails", e);
+        }
+    }
+
+    private int sendBatch() {
+        List<OutboxEmail> batch;
+        try {
+            batch = transactionTemplate.execute(status -> claimBatch(LocalDateTime.now()));
+        } catch (ObjectOptimisticLockingFailureException e) { // 다른 서버가 먼저 집어감, 그 서버가 마저 보낸다
+            log.debug("outbox emails were claimed by another dispatcher");
+            return 0;
+        }
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        // DB 트랜잭션(커넥션)을 잡지 않은 채로 SMTP 전송
+        List<EmailMessage> emailMessages = new ArrayList<>();
+        for (OutboxEmail outboxEmail : batch) {
+            emailMessages.add(outboxEmail.toEmailMessage());
+        }
+        Map<EmailMessage, Exception> failures = transport.sendEmails(emailMessages);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            Map<Long, OutboxEmail> outboxEmails = outboxEmailRepository.findAllById(batch.stream().map(OutboxEmail::getId).collect(Collectors.toList()))
+                    .stream().collect(Collectors.toMap(OutboxEmail::getId, Function.identity()));
+            for (int i = 0; i < batch.size(); i++) {
+                OutboxEmail outboxEmail = outboxEmails.get(batch.get(i).getId());
+                if (outboxEmail == null || !outboxEmail.getVersion().equals(batch.get(i).getVersion())) {
+                    continue; // 임대가 끝나서 다른 서버가 다시 집어감
+                }
+                Exception failure = failures.get(emailMessages.get(i));
+                if (failure == null) {
+                    outboxEmail.sent(now);
+                } else {
+                    outboxEmail.failed(failure, now);
+                    log.warn("failed to send email to {} ({} attempts): {}", outboxEmail.getRecipient(), outboxEmail.getAttempts(), failure.toString());
+                }
+            }
+        });
+        return batch.size();
+    }
+
+    /** 보낼 때가 된 메일과 임대가 끝난 메일을 읽어서 SENDING 으로 바꾼다, 커밋되면 이 서버 것 **/
+    private List<OutboxEmail> claimBatch(LocalDateTime now) {
+        List<OutboxEmail> batch = outboxEmailRepository.findByStatusInAndNextAttemptAtLessThanEqualOrderById(
+                CLAIMABLE, now, PageRequest.of(0, batchSize));
+        batch.forEach(outboxEmail -> outboxEmail.claim(now.plus(lease)));
+        return batch;
+    }
+}
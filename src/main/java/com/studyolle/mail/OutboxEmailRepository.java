@@ -0,0 +1,25 @@
+package com.studyolle.mail;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Transactional(readOnly = true)
+public interface OutboxEmailRepository extends JpaRepository<OutboxEmail, Long> {
+
+    List<OutboxEmail> findByStatusInAndNextAttemptAtLessThanEqualOrderById(Collection<OutboxEmail.Status> statuses, LocalDateTime now, Pageable pageable);
+
+    long countByStatus(OutboxEmail.Status status);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM OutboxEmail o WHERE o.status IN :statuses AND o.createdDateTime < :before")
+    int deleteByStatusInAndCreatedBefore(@Param("statuses") Collection<OutboxEmail.Status> statuses, @Param("before") LocalDateTime before);
+}
@@ -0,0 +1,38 @@
+package com.studyolle.mail;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+
+/**
+ * EmailService 를 주입받는 곳은 모두 이 구현체를 쓴다 (@Primary)
+ * SMTP 로 바로 보내지 않고 호출한 쪽의 트랜잭션 안에서 outbox 테이블에 저장만 하기 때문에
+ * 회원 가입, 로그인 링크 요청이 SMTP 응답을 기다리지 않는다. 롤백되면 메일도 같이 사라진다
+ */
+@Component
+@Primary
+@RequiredArgsConstructor
+public class QueueingEmailService implements EmailService {
+
+    private final OutboxEmailRepository outboxEmailRepository;
+    private final OutboxEmailDispatcher outboxEmailDispatcher;
+
+    @Override
+    @Transactional
+    public void sendEmail(EmailMessage emailMessage) {
+        outboxEmailRepository.save(OutboxEmail.of(emailMessage, LocalDateTime.now()));
+
+        // 커밋이 되어야 보내는 쪽에서 읽을 수 있으므로 커밋 후에 깨운다
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                outboxEmailDispatcher.wakeUp();
+            }
+        });
+    }
+}
@@ -0,0 +1,97 @@
+package com.studyolle.main;
+
+import com.studyolle.study.StudyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 첫 화면("/")에 보여줄 스터디 목록(LandingSnapshot)을 미리 읽어두고
+ * 로그인하지 않은 사용자에게 보여줄 HTML 을 한번 그려서 바이트로 들고 있는다 (LandingPageFilter)
+ * app.landing-refresh-interval 마다, 그리고 스터디를 공개/종료하면 커밋 뒤에 다시 읽는다
+ * 그 사이에 들어오는 요청은 DB 를 읽지 않는다
+ */
+@Slf4j
+@Component
+public class LandingPage {
+
+    static final int STUDY_COUNT = 9;
+    static final int ZONE_COUNT = 10;
+
+    private static class RenderedHtml {
+
+        private final LandingSnapshot snapshot;
+        private final byte[] bytes;
+
+        RenderedHtml(LandingSnapshot snapshot, byte[] bytes) {
+            this.snapshot = snapshot;
+            this.bytes = bytes;
+        }
+    }
+
+    private final StudyRepository studyRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile LandingSnapshot snapshot;
+    private volatile RenderedHtml html;
+
+    public LandingPage(StudyRepository studyRepository, PlatformTransactionManager transactionManager) {
+        this.studyRepository = studyRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.landing-refresh-interval:60000}")
+    public void refresh() {
+        LandingSnapshot refreshed = transactionTemplate.execute(status -> new LandingSnapshot(
+                studyRepository.findRecentStudies(PageRequest.of(0, STUDY_COUNT)),
+                studyRepository.findPopularStudies(PageRequest.of(0, STUDY_COUNT)),
+                studyRepository.countStudiesByZone(PageRequest.of(0, ZONE_COUNT))));
+        this.snapshot = refreshed;
+        this.html = null;
+    }
+
+    /** 스터디를 공개/종료한 트랜잭션이 커밋된 뒤에 다시 읽는다 **/
+    public void refreshAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                refresh();
+            }
+        });
+    }
+
+    public LandingSnapshot getSnapshot() {
+        LandingSnapshot current = this.snapshot;
+        if (current == null) { // ApplicationReadyEvent 전에 들어온 요청
+            refresh();
+            current = this.snapshot;
+        }
+        return current;
+    }
+
+    /** snapshot 으로 그린 HTML, 그 뒤에 다시 읽었으면 null **/
+    byte[] getHtml(LandingSnapshot snapshot) {
+        RenderedHtml current = this.html;
+        return current != null && current.snapshot == snapshot ? current.bytes : null;
+    }
+
+    void putHtml(LandingSnapshot snapshot, byte[] bytes) {
+        if (this.snapshot == snapshot) {
+            this.html = new RenderedHtml(snapshot, bytes);
+        }
+    }
+}
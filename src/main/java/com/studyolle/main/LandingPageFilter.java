@@ -0,0 +1,79 @@
+package com.studyolle.main;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 로그인하지 않은 사용자의 GET "/" 는 LandingPage 가 들고 있는 HTML 바이트를 그대로 내려준다
+ * 아직 그린 적이 없으면 MainController 로 한번 그리고 그 결과를 LandingPage 에 넣어둔다
+ * 시큐리티 필터 체인 뒤에서 실행되므로 remember-me 로 로그인한 사용자도 여기서는 로그인한 사용자로 보인다
+ */
+@Component
+@RequiredArgsConstructor
+public class LandingPageFilter extends OncePerRequestFilter {
+
+    static final String CACHE_CONTROL = "public, max-age=60";
+
+    private static final UrlPathHelper URL_PATH_HELPER = new UrlPathHelper();
+
+    private final LandingPage landingPage;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod()) || !"/".equals(URL_PATH_HELPER.getPathWithinApplication(request));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!isAnonymous()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // 로그인 여부(세션 쿠키)에 따라 내용이 달라지므로 공유 캐시는 쿠키별로 나눠서 저장하게 한다
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.COOKIE);
+
+        LandingSnapshot snapshot = landingPage.getSnapshot();
+        byte[] html = landingPage.getHtml(snapshot);
+        if (html != null) {
+            response.setContentType(MediaType.TEXT_HTML_VALUE + ";charset=UTF-8");
+            response.setContentLength(html.length);
+            response.getOutputStream().write(html);
+            return;
+        }
+
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, responseWrapper);
+        if (responseWrapper.getStatus() == HttpServletResponse.SC_OK && !hasEncodedSessionId(request)) {
+            landingPage.putHtml(snapshot, responseWrapper.getContentAsByteArray());
+        }
+        responseWrapper.copyBodyToResponse();
+    }
+
+    private boolean isAnonymous() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null || authentication instanceof AnonymousAuthenticationToken;
+    }
+
+    /** 쿠키 없이 세션이 만들어지면 링크에 ;jsessionid 가 붙어서 그린 HTML 을 다른 사용자에게 줄 수 없다 **/
+    private boolean hasEncodedSessionId(HttpServletRequest request) {
+        return request.getSession(false) != null && !request.isRequestedSessionIdFromCookie();
+    }
+}
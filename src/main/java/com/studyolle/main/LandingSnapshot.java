@@ -0,0 +1,23 @@
+package com.studyolle.main;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/** 첫 화면("/")에 보여줄 값을 미리 읽어둔 것, LandingPage 가 주기적으로 새로 만든다 **/
+@Getter
+public class LandingSnapshot {
+
+    private final List<LandingStudy> recentStudies; // 최근에 공개한 스터디
+    private final List<LandingStudy> popularStudies; // 멤버가 많은 스터디
+    private final List<ZoneCount> zoneCounts; // 스터디가 많은 지역
+    private final LocalDateTime createdDateTime;
+
+    LandingSnapshot(List<LandingStudy> recentStudies, List<LandingStudy> popularStudies, List<ZoneCount> zoneCounts) {
+        this.recentStudies = List.copyOf(recentStudies);
+        this.popularStudies = List.copyOf(popularStudies);
+        this.zoneCounts = List.copyOf(zoneCounts);
+        this.createdDateTime = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,27 @@
+package com.studyolle.main;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/** 첫 화면에 보여줄 스터디 한 건 (StudyRepository.findLandingStudies) **/
+@Getter
+public class LandingStudy {
+
+    private final String path;
+    private final String title;
+    private final String shortDescription;
+    private final int memberCount;
+    private final boolean recruiting;
+    private final LocalDateTime publishedDateTime;
+
+    public LandingStudy(String path, String title, String shortDescription, int memberCount, boolean recruiting,
+                        LocalDateTime publishedDateTime) {
+        this.path = path;
+        this.title = title;
+        this.shortDescription = shortDescription;
+        this.memberCount = memberCount;
+        this.recruiting = recruiting;
+        this.publishedDateTime = publishedDateTime;
+    }
+}
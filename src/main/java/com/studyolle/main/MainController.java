@@ -2,18 +2,23 @@ package com.studyolle.main;
 
 import com.studyolle.account.CurrentAccount;
 import com.studyolle.domain.Account;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 
 @Controller
+@RequiredArgsConstructor
 public class MainController {
 
+    private final LandingPage landingPage;
+
     @GetMapping("/")
     public String home(@CurrentAccount Account account, Model model) {
         if (account != null) {
             model.addAttribute(account);
         }
+        model.addAttribute("landing", landingPage.getSnapshot()); // 미리 읽어둔 스터디 목록, 로그인하지 않았으면 그린 HTML 도 캐시됨 (LandingPageFilter)
         return "index";
     }
 
@@ -0,0 +1,18 @@
+package com.studyolle.main;
+
+import lombok.Getter;
+
+/** 지역별 진행중인 스터디 수 (StudyRepository.countStudiesByZone) **/
+@Getter
+public class ZoneCount {
+
+    private final Long zoneId;
+    private final String localNameOfCity;
+    private final long count;
+
+    public ZoneCount(Long zoneId, String localNameOfCity, long count) {
+        this.zoneId = zoneId;
+        this.localNameOfCity = localNameOfCity;
+        this.count = count;
+    }
+}
@@ -0,0 +1,45 @@
+package com.studyolle.notification;
+
+import com.studyolle.domain.Account;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 웹 알림
+ * 한 스터디에 대한 알림이 수만 건씩 생기기 때문에 엔티티로 저장하지 않고 NotificationFanOut 에서 JdbcTemplate 으로 묶어서 INSERT 한다
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_notification_account_checked", columnList = "account_id, checked, created_date_time")) // 계정별 읽은/안 읽은 알림을 최신순으로
+@Getter @EqualsAndHashCode(of = "id")
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class Notification {
+
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY) // JDBC INSERT 에서 id 를 넣지 않아도 되도록
+    private Long id;
+
+    private String title; // 스터디 이름
+
+    private String link; // 스터디 URL
+
+    private String message;
+
+    private boolean checked; // 읽었는지
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @OnDelete(action = OnDeleteAction.CASCADE) // 계정을 지우면 알림도 DB 에서 같이 지운다
+    private Account account;
+
+    @Column(name = "created_date_time") // 인덱스의 columnList 를 모두 컬럼 이름으로 쓰기 위함
+    private LocalDateTime createdDateTime;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private NotificationType notificationType;
+}
@@ -0,0 +1,42 @@
+package com.studyolle.notification;
+
+import com.studyolle.account.CurrentAccount;
+import com.studyolle.domain.Account;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+
+@Controller
+@RequiredArgsConstructor
+public class NotificationController {
+
+    private final NotificationService notificationService;
+
+    /** 읽지 않은 알림 **/
+    @GetMapping("/notifications")
+    public String getNotifications(@CurrentAccount Account account, @PageableDefault(size = 20) Pageable pageable, Model model) {
+        model.addAttribute(account);
+        model.addAttribute("notificationPage", notificationService.getNotifications(account.getId(), false, pageable));
+        model.addAttribute("isNew", true);
+        return "notification/list";
+    }
+
+    /** 읽은 알림 **/
+    @GetMapping("/notifications/old")
+    public String getOldNotifications(@CurrentAccount Account account, @PageableDefault(size = 20) Pageable pageable, Model model) {
+        model.addAttribute(account);
+        model.addAttribute("notificationPage", notificationService.getNotifications(account.getId(), true, pageable));
+        model.addAttribute("isNew", false);
+        return "notification/list";
+    }
+
+    @PostMapping("/notifications/read")
+    public String markAllRead(@CurrentAccount Account account) {
+        notificationService.markAllRead(account.getId());
+        return "redirect:/notifications/old";
+    }
+}
@@ -0,0 +1,354 @@
+package com.studyolle.notification;
+
+import com.studyolle.config.AppConfig;
+import com.studyolle.config.AppProperties;
+import com.studyolle.mail.EmailMessage;
+import com.studyolle.mail.EmailService;
+import com.studyolle.mail.MailTemplateRenderer;
+import com.studyolle.sse.SseConnections;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * 스터디 이벤트를 받을 사람을 찾아서 웹 알림과 메일로 보낸다
+ * 이벤트를 발행한 트랜잭션 안에서 NotificationFanOutTask 를 저장하고 (start), 커밋되면 그 id 만 알림 스레드에 넘긴다
+ * 알림 스레드의 큐가 꽉 차서 버려지거나 큐에 있는 채로 서버가 내려가도 task 는 DB 에 있으므로 임대가 끝나면 resume 이 보낸다
+ * 받을 사람은 계정 id 순으로 app.notification-chunk-size 명씩 SQL 로 찾고 (id > 마지막 id, OFFSET 없음)
+ * 찾은 묶음마다 웹 알림 batch INSERT, 메일 outbox INSERT, 진행 상황(NotificationFanOutTask.lastId)을 한 트랜잭션으로 넣는다
+ * 읽지 않은 알림 수와 SSE 는 그 트랜잭션이 커밋된 뒤에 올리고 보내서, 롤백된 알림이 화면에 보이지 않는다
+ * 보내다 실패하면 커밋된 묶음 다음부터 다시 보내고 (resume), 같은 사람에게 두번 가지 않는다
+ * 받을 사람이 수만 명이어도 메모리에는 한 묶음만 올라간다
+ */
+@Slf4j
+@Component
+public class NotificationFanOut {
+
+    /** 받을 사람, 보내다 멈춘 알림을 다시 보낼 수 있게 SQL 대신 이름을 저장한다 (NotificationFanOutTask) **/
+    public enum Audience {
+        MATCHING_TAGS_OR_ZONES, MEMBERS_AND_MANAGERS, ACCOUNT
+    }
+
+    /** 스터디를 공개했을 때 : 관심 주제나 지역이 하나라도 겹치는 사용자 (매니저 제외) **/
+    static final String MATCHING_TAGS_OR_ZONES = "(EXISTS (SELECT 1 FROM account_tags t JOIN study_tags st ON st.tags_id = t.tags_id " +
+            "WHERE t.account_id = a.id AND st.study_id = ?) " +
+            "OR EXISTS (SELECT 1 FROM account_zones z JOIN study_zones sz ON sz.zones_id = z.zones_id " +
+            "WHERE z.account_id = a.id AND sz.study_id = ?)) " +
+            "AND NOT EXISTS (SELECT 1 FROM study_managers sm WHERE sm.study_id = ? AND sm.managers_id = a.id)";
+
+    /** 스터디가 바뀌었을 때 : 멤버와 매니저 (바꾼 매니저 제외) **/
+    static final String MEMBERS_AND_MANAGERS = "(EXISTS (SELECT 1 FROM study_members m WHERE m.study_id = ? AND m.members_id = a.id) " +
+            "OR EXISTS (SELECT 1 FROM study_managers sm WHERE sm.study_id = ? AND sm.managers_id = a.id)) AND a.id <> ?";
+
+    /** 가입한 사용자 한 명 **/
+    static final String ACCOUNT = "a.id = ?";
+
+    private static final String INSERT_NOTIFICATION = "INSERT INTO notification " +
+            "(title, link, message, checked, account_id, created_date_time, notification_type) VALUES (?, ?, ?, FALSE, ?, ?, ?)";
+
+    private static final String UPDATE_PROGRESS = "UPDATE notification_fan_out_task SET last_id = ?, lease_until = ? " +
+            "WHERE id = ? AND owner = ?";
+
+    private static final int RESUME_BATCH_SIZE = 10;
+
+    private static class StudySummary {
+
+        private final String title;
+        private final String link;
+
+        StudySummary(String title, String path) {
+            this.title = title;
+            this.link = "/study/" + URLEncoder.encode(path, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static class Recipient {
+
+        private final Long id;
+        private final String email;
+        private final String nickname;
+        private final boolean byWeb;
+        private final boolean byEmail;
+
+        Recipient(Long id, String email, String nickname, boolean byWeb, boolean byEmail) {
+            this.id = id;
+            this.email = email;
+            this.nickname = nickname;
+            this.byWeb = byWeb;
+            this.byEmail = byEmail;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final NotificationFanOutTaskRepository taskRepository;
+    private final TaskExecutor notificationExecutor;
+    private final EmailService emailService;
+    private final MailTemplateRenderer mailTemplateRenderer;
+    private final AppProperties appProperties;
+    private final UnreadNotificationCounter unreadNotificationCounter;
+    private final SseConnections sseConnections;
+
+    public NotificationFanOut(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                              NotificationFanOutTaskRepository taskRepository,
+                              @Qualifier(AppConfig.NOTIFICATION_EXECUTOR) TaskExecutor notificationExecutor, EmailService emailService,
+                              MailTemplateRenderer mailTemplateRenderer, AppProperties appProperties,
+                              UnreadNotificationCounter unreadNotificationCounter, SseConnections sseConnections) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.taskRepository = taskRepository;
+        this.notificationExecutor = notificationExecutor;
+        this.emailService = emailService;
+        this.mailTemplateRenderer = mailTemplateRenderer;
+        this.appProperties = appProperties;
+        this.unreadNotificationCounter = unreadNotificationCounter;
+        this.sseConnections = sseConnections;
+    }
+
+    /**
+     * 호출한 쪽의 트랜잭션 안에서 task 를 저장하고, 커밋되면 알림 스레드에서 보낸다 (롤백되면 task 도 없음)
+     * @param accountId ACCOUNT 이면 받을 사람, MEMBERS_AND_MANAGERS 이면 빼야 할 사람(바꾼 매니저)
+     */
+    public void start(Long studyId, NotificationType type, String message, Audience audience, Long accountId) {
+        String owner = UUID.randomUUID().toString();
+        Long taskId = taskRepository.save(newTask(studyId, type, message, audience, accountId, owner)).getId();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(taskId, owner);
+            }
+        });
+    }
+
+    /**
+     * 지금 스레드에서 바로 보낸다
+     * audience 중 type 의 알림(웹, 메일)을 받겠다고 한 사용자에게 보내고, 메일은 이메일 인증을 한 사용자에게만 보낸다
+     * @return 알림을 받은 사용자 수
+     */
+    public int notify(Long studyId, NotificationType type, String message, Audience audience, Long accountId) {
+        String owner = UUID.randomUUID().toString();
+        return run(taskRepository.save(newTask(studyId, type, message, audience, accountId, owner)), owner);
+    }
+
+    private NotificationFanOutTask newTask(Long studyId, NotificationType type, String message, Audience audience, Long accountId,
+                                           String owner) {
+        LocalDateTime now = LocalDateTime.now();
+        return NotificationFanOutTask.of(studyId, type, message, audience, accountId,
+                owner, now, now.plus(appProperties.getNotificationFanOutLease()));
+    }
+
+    /** 알림 스레드에 id 만 넘긴다, 큐가 차서 버려지면 (AppConfig.notificationExecutor) 임대가 끝난 뒤 resume 이 보낸다 **/
+    private void submit(Long taskId, String owner) {
+        try {
+            notificationExecutor.execute(() -> taskRepository.findById(taskId).ifPresent(task -> run(task, owner)));
+        } catch (TaskRejectedException e) { // 종료 중
+            log.warn("notification fan-out {} was not submitted, will resume after its lease", taskId);
+        }
+    }
+
+    /** 보내다 실패했거나 보내던 서버가 죽어서 임대가 끝난 알림을 알림 스레드에서 마저 보낸다 **/
+    @Scheduled(fixedDelayString = "${app.notification-resume-interval:60000}")
+    public void resume() {
+        LocalDateTime now = LocalDateTime.now();
+        List<NotificationFanOutTask> tasks = taskRepository.findByStatusAndLeaseUntilLessThanEqualOrderById(
+                NotificationFanOutTask.Status.RUNNING, now, PageRequest.of(0, RESUME_BATCH_SIZE));
+        for (NotificationFanOutTask task : tasks) {
+            String owner = UUID.randomUUID().toString();
+            int claimed = jdbcTemplate.update("UPDATE notification_fan_out_task SET owner = ?, lease_until = ?, attempts = attempts + 1 " +
+                            "WHERE id = ? AND owner = ? AND status = ?",
+                    owner, Timestamp.valueOf(now.plus(appProperties.getNotificationFanOutLease())), task.getId(), task.getOwner(),
+                    NotificationFanOutTask.Status.RUNNING.name());
+            if (claimed == 0) {
+                continue; // 다른 서버가 먼저 집어감
+            }
+            submit(task.getId(), owner);
+        }
+    }
+
+    /** task.lastId 다음 사람부터 묶음 단위로 보내고, 다 보내면 task 를 지운다 **/
+    private int run(NotificationFanOutTask task, String owner) {
+        StudySummary study = findStudy(task.getStudyId());
+        if (study == null) { // 이벤트를 처리하기 전에 삭제됨
+            taskRepository.deleteById(task.getId());
+            return 0;
+        }
+
+        String[] flags = flagColumns(task.getType());
+        String sql = "SELECT a.id, a.email, a.nickname, a." + flags[0] + " AS by_web, (a." + flags[1] + " AND a.email_verified) AS by_email " +
+                "FROM account a WHERE a.id > ? AND (a." + flags[0] + " = TRUE OR (a." + flags[1] + " = TRUE AND a.email_verified = TRUE)) " +
+                "AND " + condition(task.getAudience()) + " ORDER BY a.id LIMIT ?";
+        Object[] conditionArgs = conditionArgs(task);
+        int chunkSize = appProperties.getNotificationChunkSize();
+
+        int notified = 0;
+        long lastId = task.getLastId();
+        try {
+            List<Recipient> chunk;
+            do {
+                List<Object> args = new ArrayList<>();
+                args.add(lastId);
+                args.addAll(List.of(conditionArgs));
+                args.add(chunkSize);
+                chunk = jdbcTemplate.query(sql, (rs, rowNum) -> new Recipient(rs.getLong("id"), rs.getString("email"),
+                        rs.getString("nickname"), rs.getBoolean("by_web"), rs.getBoolean("by_email")), args.toArray());
+                if (chunk.isEmpty()) {
+                    break;
+                }
+
+                long chunkLastId = chunk.get(chunk.size() - 1).id;
+                List<Recipient> delivering = chunk;
+                transactionTemplate.executeWithoutResult(status -> {
+                    deliver(study, task.getType(), task.getMessage(), delivering);
+                    int updated = jdbcTemplate.update(UPDATE_PROGRESS, chunkLastId,
+                            Timestamp.valueOf(LocalDateTime.now().plus(appProperties.getNotificationFanOutLease())), task.getId(), owner);
+                    if (updated == 0) { // 임대가 끝나서 다른 서버가 이어서 보내는 중
+                        throw new IllegalStateException("notification fan-out " + task.getId() + " was taken over");
+                    }
+                });
+                notified += chunk.size();
+                lastId = chunkLastId;
+            } while (chunk.size() == chunkSize);
+        } catch (RuntimeException e) {
+            failed(task, owner, lastId, e);
+            return notified;
+        }
+
+        taskRepository.deleteById(task.getId());
+        log.info("study {} {} notification sent to {} accounts", task.getStudyId(), task.getType(), notified);
+        return notified;
+    }
+
+    /** 다음 resume 주기에 lastId 다음부터 다시 보내게 임대를 풀고, MAX_ATTEMPTS 번 실패하면 FAILED 로 남겨둔다 **/
+    private void failed(NotificationFanOutTask task, String owner, long lastId, RuntimeException e) {
+        boolean giveUp = task.getAttempts() >= NotificationFanOutTask.MAX_ATTEMPTS;
+        log.error("notification fan-out {} failed after account {} ({} attempts){}", task.getId(), lastId, task.getAttempts(),
+                giveUp ? ", giving up" : ", will resume", e);
+        try {
+            jdbcTemplate.update("UPDATE notification_fan_out_task SET lease_until = ?, status = ? WHERE id = ? AND owner = ?",
+                    Timestamp.valueOf(LocalDateTime.now()),
+                    (giveUp ? NotificationFanOutTask.Status.FAILED : NotificationFanOutTask.Status.RUNNING).name(), task.getId(), owner);
+        } catch (RuntimeException updateFailure) { // DB 가 안 되면 임대가 끝난 뒤에 다시 보낸다
+            log.warn("failed to release notification fan-out {}: {}", task.getId(), updateFailure.toString());
+        }
+    }
+
+    /**
+     * 호출한 쪽의 트랜잭션 안에서 웹 알림과 메일(outbox)을 넣는다
+     * QueueingEmailService 는 outbox 에 저장만 하므로 같은 트랜잭션에 들어가서 INSERT 가 batch 로 나간다
+     */
+    private void deliver(StudySummary study, NotificationType type, String message, List<Recipient> chunk) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Recipient> byWeb = chunk.stream().filter(recipient -> recipient.byWeb).collect(Collectors.toList());
+        if (!byWeb.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_NOTIFICATION, byWeb.stream()
+                    .map(recipient -> new Object[]{study.title, study.link, message, recipient.id, now, type.name()})
+                    .collect(Collectors.toList()));
+
+            // 롤백되면 알림도 없으므로 커밋된 뒤에 센다
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    byWeb.forEach(recipient -> {
+                        unreadNotificationCounter.add(recipient.id, 1); // 상단 메뉴 알림 배지
+                        push(recipient.id, study, message);
+                    });
+                }
+            });
+        }
+
+        chunk.stream()
+                .filter(recipient -> recipient.byEmail)
+                .map(recipient -> toEmailMessage(study, message, recipient))
+                .forEach(emailService::sendEmail);
+    }
+
+    /** 지금 이 서버에 연결된 브라우저가 있으면 바로 보낸다 (SseConnections) **/
+    private void push(Long accountId, StudySummary study, String message) {
+        String topic = SseConnections.accountTopic(accountId);
+        if (sseConnections.isConnected(topic)) {
+            sseConnections.send(topic, "notification", Map.of(
+                    "title", study.title,
+                    "link", study.link,
+                    "message", message,
+                    "unread", unreadNotificationCounter.get(accountId)));
+        }
+    }
+
+    private EmailMessage toEmailMessage(StudySummary study, String message, Recipient recipient) {
+        Map<String, Object> variables = Map.of(
+                "link", study.link,
+                "nickname", recipient.nickname,
+                "linkName", study.title,
+                "message", message,
+                "host", appProperties.getHost());
+        return EmailMessage.builder()
+                .to(recipient.email)
+                .subject("스터디올래, '" + study.title + "' " + message)
+                .message(mailTemplateRenderer.render("mail/simple-link", variables))
+                .build();
+    }
+
+    private StudySummary findStudy(Long studyId) {
+        try {
+            return jdbcTemplate.queryForObject("SELECT title, path FROM study WHERE id = ?",
+                    (rs, rowNum) -> new StudySummary(rs.getString("title"), rs.getString("path")), studyId);
+        } catch (EmptyResultDataAccessException e) {
+            return null;
+        }
+    }
+
+    private String condition(Audience audience) {
+        switch (audience) {
+            case MATCHING_TAGS_OR_ZONES:
+                return MATCHING_TAGS_OR_ZONES;
+            case MEMBERS_AND_MANAGERS:
+                return MEMBERS_AND_MANAGERS;
+            default:
+                return ACCOUNT;
+        }
+    }
+
+    private Object[] conditionArgs(NotificationFanOutTask task) {
+        Long studyId = task.getStudyId();
+        switch (task.getAudience()) {
+            case MATCHING_TAGS_OR_ZONES:
+                return new Object[]{studyId, studyId, studyId};
+            case MEMBERS_AND_MANAGERS:
+                return new Object[]{studyId, studyId, task.getAccountId()};
+            default:
+                return new Object[]{task.getAccountId()};
+        }
+    }
+
+    /** 알림 종류별 Account 의 (웹, 메일) 수신 설정 컬럼 **/
+    private String[] flagColumns(NotificationType type) {
+        switch (type) {
+            case STUDY_CREATED:
+                return new String[]{"study_created_by_web", "study_created_by_email"};
+            case STUDY_UPDATED:
+                return new String[]{"study_updated_by_web", "study_updated_by_email"};
+            default:
+                return new String[]{"study_enrollment_result_by_web", "study_enrollment_result_by_email"};
+        }
+    }
+}
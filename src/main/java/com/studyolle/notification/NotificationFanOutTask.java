@@ -0,0 +1,79 @@
+package com.studyolle.notification;
+
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 보내고 있는 스터디 알림 하나 (NotificationFanOut)
+ * 묶음을 보낼 때마다 같은 트랜잭션에서 lastId 를 올리고, 다 보내면 지운다
+ * 보내다 실패하거나 서버가 죽으면 남아 있다가 임대(leaseUntil)가 끝나면 lastId 다음 사람부터 다시 보낸다
+ * 임대를 잡은 서버만 owner 가 같아서 lastId 를 올릴 수 있다
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_notification_fan_out_task_status", columnList = "status, leaseUntil"))
+@Getter @EqualsAndHashCode(of = "id")
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class NotificationFanOutTask {
+
+    static final int MAX_ATTEMPTS = 5;
+
+    public enum Status {
+        RUNNING, FAILED
+    }
+
+    @Id @GeneratedValue
+    private Long id;
+
+    @Column(nullable = false)
+    private Long studyId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private NotificationType type;
+
+    @Column(nullable = false)
+    private String message;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private NotificationFanOut.Audience audience;
+
+    private Long accountId; // audience 에 따라 받을 사람이나 빼야 할 사람
+
+    private long lastId; // 여기까지는 보냈음 (계정 id)
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Status status;
+
+    private int attempts;
+
+    @Column(nullable = false, length = 36)
+    private String owner;
+
+    private LocalDateTime leaseUntil;
+
+    private LocalDateTime createdDateTime;
+
+    public static NotificationFanOutTask of(Long studyId, NotificationType type, String message,
+                                            NotificationFanOut.Audience audience, Long accountId,
+                                            String owner, LocalDateTime now, LocalDateTime leaseUntil) {
+        NotificationFanOutTask task = new NotificationFanOutTask();
+        task.studyId = studyId;
+        task.type = type;
+        task.message = message;
+        task.audience = audience;
+        task.accountId = accountId;
+        task.status = Status.RUNNING;
+        task.attempts = 1;
+        task.owner = owner;
+        task.leaseUntil = leaseUntil;
+        task.createdDateTime = now;
+        return task;
+    }
+}
@@ -0,0 +1,14 @@
+package com.studyolle.notification;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Transactional(readOnly = true)
+public interface NotificationFanOutTaskRepository extends JpaRepository<NotificationFanOutTask, Long> {
+
+    List<NotificationFanOutTask> findByStatusAndLeaseUntilLessThanEqualOrderById(NotificationFanOutTask.Status status, LocalDateTime now, Pageable pageable);
+}
@@ -0,0 +1,42 @@
+package com.studyolle.notification;
+
+import com.studyolle.account.UserAccount;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.view.RedirectView;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 화면을 그리는 요청이면 상단 메뉴의 알림 배지에 쓸 읽지 않은 알림 수를 모델에 넣는다 (fragments.html main-nav)
+ * 수는 UnreadNotificationCounter 에서 꺼내므로 요청마다 COUNT(*) 를 실행하지 않는다
+ */
+@Component
+@RequiredArgsConstructor
+public class NotificationInterceptor implements HandlerInterceptor {
+
+    private final UnreadNotificationCounter unreadNotificationCounter;
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler, ModelAndView modelAndView) {
+        if (modelAndView == null || isRedirect(modelAndView)) {
+            return;
+        }
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserAccount) {
+            UserAccount userAccount = (UserAccount) authentication.getPrincipal();
+            modelAndView.addObject("unreadNotificationCount", unreadNotificationCounter.get(userAccount.getId()));
+        }
+    }
+
+    private boolean isRedirect(ModelAndView modelAndView) {
+        return (modelAndView.getViewName() != null && modelAndView.getViewName().startsWith("redirect:"))
+                || modelAndView.getView() instanceof RedirectView;
+    }
+}
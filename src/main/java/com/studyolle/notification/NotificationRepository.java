@@ -0,0 +1,21 @@
+package com.studyolle.notification;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+@Transactional(readOnly = true)
+public interface NotificationRepository extends JpaRepository<Notification, Long> {
+
+    /** (account_id, checked, created_date_time) 인덱스 순서대로 읽음, 전체 개수는 세지 않는다 **/
+    Slice<Notification> findByAccountIdAndCheckedOrderByCreatedDateTimeDesc(Long accountId, boolean checked, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("update Notification n set n.checked = true where n.account.id = :accountId and n.checked = false")
+    int markAllRead(@Param("accountId") Long accountId);
+}
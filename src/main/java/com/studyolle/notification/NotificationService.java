@@ -0,0 +1,46 @@
+package com.studyolle.notification;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Service
+@Transactional
+@RequiredArgsConstructor
+public class NotificationService {
+
+    private final NotificationRepository notificationRepository;
+    private final UnreadNotificationCounter unreadNotificationCounter;
+
+    @Transactional(readOnly = true)
+    public Slice<Notification> getNotifications(Long accountId, boolean checked, Pageable pageable) {
+        return notificationRepository.findByAccountIdAndCheckedOrderByCreatedDateTimeDesc(accountId, checked, pageable);
+    }
+
+    /** 알림을 하나씩 읽지 않고 UPDATE 한번으로 모두 읽음 처리, 바뀐 행 수만큼 읽지 않은 알림 수를 뺀다 **/
+    public int markAllRead(Long accountId) {
+        int read = notificationRepository.markAllRead(accountId);
+        if (read > 0) {
+            afterCommit(() -> unreadNotificationCounter.add(accountId, -read));
+        }
+        return read;
+    }
+
+    private void afterCommit(Runnable runnable) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            runnable.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                runnable.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,6 @@
+package com.studyolle.notification;
+
+public enum NotificationType {
+
+    STUDY_CREATED, STUDY_UPDATED, STUDY_ENROLLMENT
+}
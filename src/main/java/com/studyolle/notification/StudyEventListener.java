@@ -0,0 +1,42 @@
+package com.studyolle.notification;
+
+import com.studyolle.study.event.StudyMemberJoinedEvent;
+import com.studyolle.study.event.StudyPublishedEvent;
+import com.studyolle.study.event.StudyUpdatedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import static com.studyolle.notification.NotificationFanOut.Audience.ACCOUNT;
+import static com.studyolle.notification.NotificationFanOut.Audience.MATCHING_TAGS_OR_ZONES;
+import static com.studyolle.notification.NotificationFanOut.Audience.MEMBERS_AND_MANAGERS;
+
+/**
+ * StudyService 가 발행한 이벤트를 그 트랜잭션이 커밋하기 직전에 NotificationFanOutTask 로 남긴다
+ * 스터디가 바뀐 것과 보낼 알림이 같이 커밋되거나 같이 롤백되고, 받을 사람을 찾고 보내는 일은 커밋된 뒤에 알림 스레드에서 한다
+ */
+@Component
+@RequiredArgsConstructor
+public class StudyEventListener {
+
+    private final NotificationFanOut notificationFanOut;
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void handleStudyPublished(StudyPublishedEvent event) {
+        notificationFanOut.start(event.getStudyId(), NotificationType.STUDY_CREATED, "새로운 스터디가 생겼습니다.",
+                MATCHING_TAGS_OR_ZONES, null);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void handleStudyUpdated(StudyUpdatedEvent event) {
+        notificationFanOut.start(event.getStudyId(), NotificationType.STUDY_UPDATED, event.getMessage(),
+                MEMBERS_AND_MANAGERS, event.getAccountId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void handleStudyMemberJoined(StudyMemberJoinedEvent event) {
+        notificationFanOut.start(event.getStudyId(), NotificationType.STUDY_ENROLLMENT, "스터디에 가입했습니다.",
+                ACCOUNT, event.getAccountId());
+    }
+}
@@ -0,0 +1,212 @@
+package com.studyolle.notification;
+
+import com.studyolle.account.UserAccount;
+import com.studyolle.config.AppProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.event.AuthenticationSuccessEvent;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 계정별 읽지 않은 알림 수, 화면마다 상단 메뉴에 보여주기 때문에 COUNT(*) 대신 메모리에서 꺼낸다 (NotificationInterceptor)
+ * 로그인할 때(또는 처음 읽을 때) 한번만 account.unread_notification_count 를 읽고, 그 뒤로는 더하고 빼기만 한다
+ * 바뀐 만큼(pending)은 app.notification-counter-flush-interval 마다 UPDATE ... + delta 로 DB 에 모아서 쓴다 (write-behind)
+ * 서버가 갑자기 죽으면 마지막 주기의 변화는 DB 에 남지 않는데, 알림 배지 숫자라서 그 정도는 허용한다
+ * 서버가 여러 대면 다른 서버가 더하고 뺀 값은 그 서버가 flush 한 뒤, 이 서버가 app.notification-counter-ttl 이 지나서 다시 읽을 때 보인다
+ * (최대 flush 주기 + ttl 만큼 늦게 보임)
+ * DB 를 읽고 쓰는 동안에는 아무 락도 잡지 않는다. flush 는 pending 을 inFlight 로 옮겨두고 UPDATE 하고,
+ * 그 사이에 다시 읽어야 하는 계정은 DB 값에 inFlight 가 들어갔는지 알 수 없으므로 메모리 값을 그대로 쓴다
+ */
+@Slf4j
+@Component
+public class UnreadNotificationCounter {
+
+    private static class Entry {
+
+        private long unread; // 메모리의 값, loaded 전에는 DB 에 더할 값만 들고 있음
+        private long pending; // 아직 DB 에 쓰지 않은 변화
+        private long inFlight; // flush 가 지금 DB 에 쓰고 있는 변화
+        private long flushes; // flush 가 inFlight 를 잡거나 내려놓을 때마다 +1, DB 를 읽는 동안 flush 가 끼어들었는지 확인
+        private boolean loaded;
+        private long loadedAt; // System.nanoTime
+        private boolean removed; // 맵에서 빠졌으면 새 Entry 로 다시 시도
+    }
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object(); // 주기적인 flush 와 종료할 때의 flush 가 겹치지 않게, 읽는 쪽은 잡지 않는다
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxEntries;
+    private final long ttl;
+
+    public UnreadNotificationCounter(JdbcTemplate jdbcTemplate, AppProperties appProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxEntries = appProperties.getNotificationCounterSize();
+        this.ttl = appProperties.getNotificationCounterTtl().toNanos();
+    }
+
+    /** 읽지 않은 알림 수, 처음이거나 ttl 이 지났으면 DB 에서 한 행 읽는다 **/
+    public long get(Long accountId) {
+        while (true) {
+            Entry entry = entries.computeIfAbsent(accountId, id -> new Entry());
+            synchronized (entry) {
+                if (entry.removed) {
+                    continue;
+                }
+                if (isFresh(entry)) {
+                    return Math.max(0, entry.unread);
+                }
+            }
+            Long unread = load(accountId, entry);
+            if (unread != null) {
+                return Math.max(0, unread);
+            }
+        }
+    }
+
+    /** 로그인하면 미리 읽어둬서 화면을 그리는 요청에서는 DB 를 읽지 않게 **/
+    @EventListener
+    public void onLogin(AuthenticationSuccessEvent event) {
+        if (event.getAuthentication().getPrincipal() instanceof UserAccount) {
+            get(((UserAccount) event.getAuthentication().getPrincipal()).getId());
+        }
+    }
+
+    /** 알림이 생기면 +, 읽으면 - (메모리에만, DB 는 다음 flush 때) **/
+    public void add(Long accountId, long delta) {
+        while (true) {
+            Entry entry = entries.computeIfAbsent(accountId, id -> new Entry());
+            synchronized (entry) {
+                if (!entry.removed) {
+                    entry.unread += delta;
+                    entry.pending += delta;
+                    return;
+                }
+            }
+        }
+    }
+
+    /** @return 읽은 값, 그 사이 맵에서 빠졌거나 처음 읽는데 flush 가 끼어들었으면 null (다시 시도) **/
+    private Long load(Long accountId, Entry entry) {
+        long flushes;
+        synchronized (entry) {
+            if (entry.removed) {
+                return null;
+            }
+            if (isFresh(entry)) { // 다른 스레드가 먼저 읽음
+                return entry.unread;
+            }
+            if (entry.inFlight != 0) {
+                if (entry.loaded) { // 쓰는 중에 읽은 DB 값은 믿을 수 없으므로 지금 값을 쓰고 다음에 다시 읽는다
+                    return entry.unread;
+                }
+                awaitFlush(entry); // 처음 읽는 계정, UPDATE 한번만 기다린다
+                return null;
+            }
+            flushes = entry.flushes;
+        }
+
+        List<Long> counts = jdbcTemplate.queryForList("SELECT unread_notification_count FROM account WHERE id = ?", Long.class, accountId);
+
+        synchronized (entry) {
+            if (entry.removed) {
+                return null;
+            }
+            if (entry.flushes != flushes) { // 읽는 사이에 flush 가 시작했거나 끝남
+                return entry.loaded ? entry.unread : null;
+            }
+            // DB 에는 이미 flush 한 변화까지 (다른 서버 것도) 들어있으므로 아직 안 쓴 pending 만 더한다
+            entry.unread = (counts.isEmpty() ? 0 : counts.get(0)) + entry.pending;
+            entry.loaded = true;
+            entry.loadedAt = System.nanoTime();
+            return entry.unread;
+        }
+    }
+
+    /** entry 의 락을 잡은 채로 부른다, flush 가 inFlight 를 내려놓으면 깨운다 **/
+    private void awaitFlush(Entry entry) {
+        try {
+            while (entry.inFlight != 0 && !entry.removed) {
+                entry.wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for unread notification count", e);
+        }
+    }
+
+    private boolean isFresh(Entry entry) {
+        return entry.loaded && System.nanoTime() - entry.loadedAt < ttl;
+    }
+
+    /**
+     * 바뀐 계정들의 변화를 batch UPDATE 한번으로 쓰고, 너무 많이 들고 있으면 다 쓴 계정은 내려놓는다
+     * 계정마다 락을 잡고 pending 을 inFlight 로 옮기기만 하고, UPDATE 는 락 없이 한다 (그동안 get, add 는 기다리지 않음)
+     */
+    @Scheduled(fixedDelayString = "${app.notification-counter-flush-interval:5000}")
+    public void flush() {
+        synchronized (flushLock) {
+            List<Object[]> updates = new ArrayList<>();
+            List<Entry> flushed = new ArrayList<>();
+            entries.forEach((accountId, entry) -> {
+                synchronized (entry) {
+                    if (entry.pending != 0) {
+                        updates.add(new Object[]{entry.pending, accountId});
+                        flushed.add(entry);
+                        entry.inFlight = entry.pending;
+                        entry.pending = 0;
+                        entry.flushes++;
+                    }
+                }
+            });
+
+            if (!updates.isEmpty()) {
+                boolean written = false;
+                try {
+                    jdbcTemplate.batchUpdate("UPDATE account SET unread_notification_count = GREATEST(unread_notification_count + ?, 0) WHERE id = ?", updates);
+                    written = true;
+                } catch (DataAccessException e) {
+                    log.warn("failed to write {} unread notification counts, retrying next time", updates.size(), e);
+                }
+                for (Entry entry : flushed) {
+                    synchronized (entry) {
+                        if (!written) { // 다음에 다시 쓴다
+                            entry.pending += entry.inFlight;
+                        }
+                        entry.inFlight = 0;
+                        entry.flushes++;
+                        entry.notifyAll(); // 처음 읽으려고 기다리는 스레드 (awaitFlush)
+                    }
+                }
+                if (!written) {
+                    return;
+                }
+            }
+
+            if (entries.size() > maxEntries) {
+                entries.entrySet().removeIf(e -> {
+                    synchronized (e.getValue()) {
+                        if (e.getValue().pending != 0) {
+                            return false;
+                        }
+                        e.getValue().removed = true;
+                        return true;
+                    }
+                });
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,32 @@
+package com.studyolle.search;
+
+import com.studyolle.account.CurrentAccount;
+import com.studyolle.domain.Account;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+
+@Controller
+@RequiredArgsConstructor
+public class SearchController {
+
+    private final StudySearchIndex studySearchIndex;
+
+    /** 스터디 검색 (SecurityConfig 에서 permitAll) **/
+    @GetMapping("/search/study")
+    public String searchStudy(@CurrentAccount Account account, String keyword,
+                              @PageableDefault(size = 9) Pageable pageable, Model model) {
+        if (account != null) {
+            model.addAttribute(account);
+        }
+
+        Page<StudySearchResult> studyPage = studySearchIndex.search(keyword, pageable);
+        model.addAttribute("keyword", keyword);
+        model.addAttribute("studyPage", studyPage);
+        return "search";
+    }
+}
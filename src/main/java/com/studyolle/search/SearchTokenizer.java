@@ -0,0 +1,76 @@
+package com.studyolle.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 검색어와 스터디 본문을 같은 규칙으로 잘라주는 토크나이저
+ * 한글은 "스프링을", "스프링으로" 처럼 조사가 붙기 때문에 앞부분(edge n-gram)도 같이 색인해서
+ * "스프링" 으로 검색해도 찾을 수 있게 한다
+ */
+final class SearchTokenizer {
+
+    static final int MIN_PREFIX_LENGTH = 2;
+    static final int MAX_PREFIX_LENGTH = 20; // url 같은 긴 단어 때문에 색인이 커지지 않도록
+
+    private static final Pattern HTML_TAG = Pattern.compile("<[^>]*>");
+    private static final Pattern HTML_ENTITY = Pattern.compile("&[a-zA-Z#0-9]+;");
+
+    private SearchTokenizer() {
+    }
+
+    /** 문자, 숫자가 아닌 글자를 기준으로 잘라서 소문자 토큰 목록을 만든다 **/
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                current.append(Character.toLowerCase(c));
+            } else if (current.length() > 0) {
+                tokens.add(current.toString());
+                current.setLength(0);
+            }
+        }
+        if (current.length() > 0) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+
+    /** 검색어 토큰 (중복 제거) **/
+    static Set<String> queryTerms(String keyword) {
+        return new LinkedHashSet<>(tokenize(keyword));
+    }
+
+    /** 토큰의 앞부분 (두 글자 이상, 토큰 자신은 제외) **/
+    static List<String> prefixes(String token) {
+        List<String> prefixes = new ArrayList<>();
+        int maxLength = Math.min(token.length(), MAX_PREFIX_LENGTH + 1);
+        for (int length = MIN_PREFIX_LENGTH; length < maxLength; length++) {
+            prefixes.add(token.substring(0, length));
+        }
+        return prefixes;
+    }
+
+    /** summernote 에디터로 작성한 본문(html)에서 태그를 걷어낸다 **/
+    static String stripHtml(String html) {
+        if (html == null) {
+            return "";
+        }
+        String text = HTML_TAG.matcher(html).replaceAll(" ");
+        return HTML_ENTITY.matcher(text).replaceAll(" ");
+    }
+
+    static String lowerCase(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,112 @@
+package com.studyolle.search;
+
+import com.studyolle.domain.Study;
+import com.studyolle.domain.Zone;
+import com.studyolle.tag.Tag;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 색인에 올라가는 스터디 한 건
+ * 엔티티를 그대로 들고 있지 않고 검색 결과 화면에 필요한 값과 (검색어 -> 점수) 만 복사해 둔다
+ */
+@Getter
+class StudyDocument {
+
+    static final float TITLE_WEIGHT = 3.0f;
+    static final float TAG_WEIGHT = 2.0f;
+    static final float ZONE_WEIGHT = 2.0f;
+    static final float SHORT_DESCRIPTION_WEIGHT = 1.5f;
+    static final float FULL_DESCRIPTION_WEIGHT = 1.0f;
+    static final float PREFIX_PENALTY = 0.5f; // 단어의 앞부분만 일치하는 경우
+
+    private final Long id;
+    private final String path;
+    private final String title;
+    private final String shortDescription;
+    private final List<String> tags;
+    private final List<String> zones;
+    private final int memberCount;
+    private final boolean published;
+    private final boolean closed;
+    private final boolean recruiting;
+    private final LocalDateTime publishedDateTime;
+    private final Map<String, Float> terms;
+
+    private StudyDocument(Study study) {
+        this.id = study.getId();
+        this.path = study.getPath();
+        this.title = study.getTitle();
+        this.shortDescription = study.getShortDescription();
+        this.tags = study.getTags().stream().map(Tag::getTitle).sorted().collect(Collectors.toList());
+        this.zones = study.getZones().stream().map(Zone::getLocalNameOfCity).sorted().collect(Collectors.toList());
+        this.memberCount = study.getMemberCount();
+        this.published = study.isPublished();
+        this.closed = study.isClosed();
+        this.recruiting = study.isRecruiting();
+        this.publishedDateTime = study.getPublishedDateTime();
+        this.terms = Collections.unmodifiableMap(analyze(study));
+    }
+
+    private StudyDocument(StudyDocument document, int memberCount, boolean recruiting, boolean closed) {
+        this.id = document.id;
+        this.path = document.path;
+        this.title = document.title;
+        this.shortDescription = document.shortDescription;
+        this.tags = document.tags;
+        this.zones = document.zones;
+        this.memberCount = memberCount;
+        this.published = document.published;
+        this.closed = closed;
+        this.recruiting = recruiting;
+        this.publishedDateTime = document.publishedDateTime;
+        this.terms = document.terms;
+    }
+
+    static StudyDocument of(Study study) {
+        return new StudyDocument(study);
+    }
+
+    /** 멤버 수만 바뀐 문서, 검색어는 그대로 **/
+    StudyDocument withMemberCount(int memberCount) {
+        return new StudyDocument(this, memberCount, this.recruiting, this.closed);
+    }
+
+    /** 모집중/종료 여부만 바뀐 문서 (StudyLifecycleSweeper), 검색어는 그대로 **/
+    StudyDocument withStatus(boolean recruiting, boolean closed) {
+        return new StudyDocument(this, this.memberCount, recruiting, closed);
+    }
+
+    /** 필드별 가중치를 더해서 (검색어 -> 점수) 를 만든다 **/
+    private Map<String, Float> analyze(Study study) {
+        Map<String, Float> terms = new HashMap<>();
+        addField(terms, study.getTitle(), TITLE_WEIGHT);
+        addField(terms, study.getShortDescription(), SHORT_DESCRIPTION_WEIGHT);
+        addField(terms, SearchTokenizer.stripHtml(study.getFullDescription()), FULL_DESCRIPTION_WEIGHT);
+        study.getTags().forEach(tag -> addField(terms, tag.getTitle(), TAG_WEIGHT));
+        study.getZones().forEach(zone -> {
+            addField(terms, zone.getCity(), ZONE_WEIGHT);
+            addField(terms, zone.getLocalNameOfCity(), ZONE_WEIGHT);
+            addField(terms, zone.getProvince(), ZONE_WEIGHT);
+        });
+        return terms;
+    }
+
+    private void addField(Map<String, Float> terms, String text, float weight) {
+        // 한 필드 안에서 같은 단어가 여러번 나와도 한번만 점수를 준다
+        Map<String, Float> fieldTerms = new HashMap<>();
+        for (String token : SearchTokenizer.tokenize(text)) {
+            fieldTerms.merge(token, weight, Math::max);
+            for (String prefix : SearchTokenizer.prefixes(token)) {
+                fieldTerms.merge(prefix, weight * PREFIX_PENALTY, Math::max);
+            }
+        }
+        fieldTerms.forEach((term, score) -> terms.merge(term, score, Float::sum));
+    }
+}
@@ -0,0 +1,218 @@
+package com.studyolle.search;
+
+import com.studyolle.domain.Study;
+import com.studyolle.study.StudyRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 스터디 검색용 메모리 역색인 (검색어 -> 스터디 id -> 점수)
+ * fullDescription 은 @Lob 이라 DB 에서 LIKE '%검색어%' 로 찾으면 전체 스캔이 일어나기 때문에
+ * 애플리케이션이 뜰 때 한번 색인을 만들고 StudyService 에서 스터디가 바뀔 때마다 해당 스터디만 다시 색인한다
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StudySearchIndex {
+
+    private static final int REBUILD_PAGE_SIZE = 500;
+
+    private static final Comparator<Scored> BY_RELEVANCE = Comparator
+            .comparing((Scored scored) -> scored.score)
+            .thenComparing(scored -> scored.document.getPublishedDateTime(), Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(scored -> scored.document.getId());
+
+    private final StudyRepository studyRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private final Map<Long, StudyDocument> documents = new ConcurrentHashMap<>();
+    private final Map<String, Map<Long, Float>> postings = new ConcurrentHashMap<>();
+
+    /** 애플리케이션이 뜨면 DB 에 있는 스터디로 색인을 만든다 **/
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+
+        int page = 0;
+        boolean hasNext = true;
+        while (hasNext) {
+            PageRequest pageRequest = PageRequest.of(page++, REBUILD_PAGE_SIZE, Sort.by("id"));
+            // 페이지 단위로 트랜잭션을 나눠서 영속성 컨텍스트가 스터디 전체를 들고 있지 않게 한다
+            hasNext = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                Page<Study> studies = studyRepository.findAll(pageRequest);
+                studies.forEach(study -> apply(StudyDocument.of(study)));
+                return studies.hasNext();
+            }));
+        }
+        log.info("study search index built: {} studies, {} terms", documents.size(), postings.size());
+    }
+
+    /**
+     * 스터디를 다시 색인한다
+     * 트랜잭션 안에서 호출되면 커밋이 된 뒤에 반영해서 롤백된 변경이 검색에 나오지 않게 한다
+     */
+    public void index(Study study) {
+        StudyDocument document = StudyDocument.of(study); // 연관관계(tags, zones)는 트랜잭션 안에서 읽어둬야 함
+        afterCommit(() -> apply(document));
+    }
+
+    /** 가입/탈퇴로 멤버 수만 바뀌었을 때, 스터디를 다시 읽지 않고 색인의 멤버 수만 더한다 **/
+    public void memberCountChanged(Long studyId, int delta) {
+        afterCommit(() -> documents.computeIfPresent(studyId,
+                (id, document) -> document.withMemberCount(document.getMemberCount() + delta)));
+    }
+
+    /** 스터디를 읽지 않고 UPDATE 로만 상태를 바꿨을 때 (StudyLifecycleSweeper), 색인의 모집중/종료 여부만 바꾼다 **/
+    public void statusChanged(Collection<Long> studyIds, boolean recruiting, boolean closed) {
+        afterCommit(() -> studyIds.forEach(studyId -> documents.computeIfPresent(studyId,
+                (id, document) -> document.withStatus(recruiting, closed))));
+    }
+
+    /** 삭제된 스터디를 색인에서 뺀다 **/
+    public void remove(Long studyId) {
+        afterCommit(() -> delete(studyId));
+    }
+
+    /**
+     * 공개된 스터디 중에서 검색어를 모두 포함하는 스터디를 점수가 높은 순으로 찾는다
+     * 점수가 같으면 최근에 공개한 스터디가 먼저 나온다
+     */
+    public Page<StudySearchResult> search(String keyword, Pageable pageable) {
+        Set<String> terms = SearchTokenizer.queryTerms(keyword);
+        if (terms.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        List<Map<Long, Float>> termPostings = new ArrayList<>();
+        for (String term : terms) {
+            Map<Long, Float> posting = postings.get(term);
+            if (posting == null) {
+                return Page.empty(pageable); // 하나라도 없는 검색어가 있으면 결과 없음 (AND 검색)
+            }
+            termPostings.add(posting);
+        }
+        termPostings.sort(Comparator.comparingInt(Map::size)); // 가장 짧은 목록부터 교집합
+
+        int limit = (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize());
+        PriorityQueue<Scored> top = new PriorityQueue<>(BY_RELEVANCE); // 상위 limit 개만 유지
+        int total = 0;
+        for (Map.Entry<Long, Float> candidate : termPostings.get(0).entrySet()) {
+            Float score = score(candidate.getKey(), candidate.getValue(), termPostings);
+            StudyDocument document = documents.get(candidate.getKey());
+            if (score == null || document == null || !document.isPublished()) {
+                continue;
+            }
+
+            total++;
+            top.offer(new Scored(document, score));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+
+        List<Scored> ranked = new ArrayList<>(top);
+        if (pageable.getOffset() >= ranked.size()) { // 마지막 페이지 뒤 (?page= 가 아주 크면 int 로 바꿀 수 없음)
+            return new PageImpl<>(List.of(), pageable, total);
+        }
+        ranked.sort(BY_RELEVANCE.reversed());
+        List<StudySearchResult> content = new ArrayList<>();
+        for (int i = (int) pageable.getOffset(); i < ranked.size(); i++) {
+            Scored scored = ranked.get(i);
+            content.add(new StudySearchResult(scored.document, terms, scored.score));
+        }
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    int size() {
+        return documents.size();
+    }
+
+    private Float score(Long studyId, float firstScore, List<Map<Long, Float>> termPostings) {
+        float score = firstScore;
+        for (int i = 1; i < termPostings.size(); i++) {
+            Float termScore = termPostings.get(i).get(studyId);
+            if (termScore == null) {
+                return null;
+            }
+            score += termScore;
+        }
+        return score;
+    }
+
+    /** 쓰기는 드물기 때문에 동기화로 단순하게, 읽기(search)는 락 없이 ConcurrentHashMap 을 읽는다 **/
+    synchronized void apply(StudyDocument document) {
+        StudyDocument previous = documents.put(document.getId(), document);
+        Map<String, Float> previousTerms = previous == null ? Collections.emptyMap() : previous.getTerms();
+
+        previousTerms.keySet().stream()
+                .filter(term -> !document.getTerms().containsKey(term))
+                .forEach(term -> removePosting(term, document.getId()));
+        document.getTerms().forEach((term, score) ->
+                postings.computeIfAbsent(term, t -> new ConcurrentHashMap<>()).put(document.getId(), score));
+    }
+
+    synchronized void delete(Long studyId) {
+        StudyDocument previous = documents.remove(studyId);
+        if (previous != null) {
+            previous.getTerms().keySet().forEach(term -> removePosting(term, studyId));
+        }
+    }
+
+    private void removePosting(String term, Long studyId) {
+        Map<Long, Float> posting = postings.get(term);
+        if (posting != null) {
+            posting.remove(studyId);
+            if (posting.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    private void afterCommit(Runnable runnable) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            runnable.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                runnable.run();
+            }
+        });
+    }
+
+    private static class Scored {
+
+        private final StudyDocument document;
+        private final float score;
+
+        private Scored(StudyDocument document, float score) {
+            this.document = document;
+            this.score = score;
+        }
+    }
+}
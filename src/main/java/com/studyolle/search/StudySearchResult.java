@@ -0,0 +1,83 @@
+package com.studyolle.search;
+
+import lombok.Getter;
+import org.springframework.web.util.HtmlUtils;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 검색 결과 화면(search.html)에 내려주는 값
+ * highlightedTitle, highlightedShortDescription 은 이미 html 이스케이프가 되어있고 검색어만 <mark>로 감싸져 있어서 th:utext 로 출력한다
+ */
+@Getter
+public class StudySearchResult {
+
+    private final String path;
+    private final String title;
+    private final String highlightedTitle;
+    private final String highlightedShortDescription;
+    private final List<String> tags;
+    private final List<String> zones;
+    private final int memberCount;
+    private final boolean recruiting;
+    private final boolean closed;
+    private final LocalDateTime publishedDateTime;
+    private final float score;
+
+    StudySearchResult(StudyDocument document, Collection<String> terms, float score) {
+        this.path = document.getPath();
+        this.title = document.getTitle();
+        this.highlightedTitle = highlight(document.getTitle(), terms);
+        this.highlightedShortDescription = highlight(document.getShortDescription(), terms);
+        this.tags = document.getTags();
+        this.zones = document.getZones();
+        this.memberCount = document.getMemberCount();
+        this.recruiting = document.isRecruiting();
+        this.closed = document.isClosed();
+        this.publishedDateTime = document.getPublishedDateTime();
+        this.score = score;
+    }
+
+    public String getEncodedPath() {
+        return URLEncoder.encode(this.path, StandardCharsets.UTF_8);
+    }
+
+    /** 검색어와 일치하는 부분을 <mark>로 감싼다, 나머지는 html 이스케이프 **/
+    static String highlight(String text, Collection<String> terms) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+
+        String lowerText = SearchTokenizer.lowerCase(text);
+        if (lowerText.length() != text.length()) { // 소문자로 바꾸면서 길이가 달라지는 문자가 있으면 위치를 맞출 수 없음
+            return HtmlUtils.htmlEscape(text);
+        }
+
+        boolean[] marked = new boolean[text.length()];
+        for (String term : terms) {
+            int from = lowerText.indexOf(term);
+            while (from >= 0) {
+                for (int i = from; i < from + term.length(); i++) {
+                    marked[i] = true;
+                }
+                from = lowerText.indexOf(term, from + term.length());
+            }
+        }
+
+        List<String> parts = new ArrayList<>();
+        int start = 0;
+        for (int i = 1; i <= text.length(); i++) {
+            if (i == text.length() || marked[i] != marked[start]) {
+                String part = HtmlUtils.htmlEscape(text.substring(start, i));
+                parts.add(marked[start] ? "<mark>" + part + "</mark>" : part);
+                start = i;
+            }
+        }
+        return String.join("", parts);
+    }
+}
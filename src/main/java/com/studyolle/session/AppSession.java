@@ -0,0 +1,38 @@
+package com.studyolle.session;
+
+import lombok.Getter;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+/**
+ * CompactJdbcSessionRepository 가 JdbcTemplate 으로 쓰는 테이블의 스키마에 해당하는 Entity (PersistentLogins 처럼 테이블 생성용)
+ * 시간은 모두 epoch 밀리초, 속성은 SessionCodec 으로 묶은 바이트 한 덩어리
+ */
+@Table(name = "app_session", indexes = @Index(name = "app_session_expiry_time_idx", columnList = "expiry_time"))
+@Entity
+@Getter
+public class AppSession {
+
+    @Id
+    @Column(name = "session_id", length = 36)
+    private String sessionId;
+
+    @Column(name = "creation_time", nullable = false)
+    private long creationTime;
+
+    @Column(name = "last_access_time", nullable = false)
+    private long lastAccessTime;
+
+    @Column(name = "max_inactive_interval", nullable = false)
+    private int maxInactiveInterval; // 초, 음수면 만료 없음
+
+    @Column(name = "expiry_time", nullable = false)
+    private long expiryTime;
+
+    @Column(name = "attributes", length = 65536)
+    private byte[] attributes;
+}
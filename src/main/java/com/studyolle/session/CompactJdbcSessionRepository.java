@@ -0,0 +1,137 @@
+package com.studyolle.session;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.session.MapSession;
+import org.springframework.session.SessionRepository;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 세션을 app_session 테이블에 저장 (서버를 여러 대 띄우거나 재시작해도 로그인 유지)
+ * - 새 세션이면 INSERT, 속성이 바뀌었으면 UPDATE, 접근 시간만 바뀌었으면 (대부분의 요청) 메모리에 모아두었다가
+ *   app.session-flush-interval 마다 한번에 UPDATE 한다. 그래서 평소 요청은 SELECT 한번만 한다
+ * - 접근 시간은 최대 flush 간격만큼 늦게 반영되므로 다른 서버에서는 그만큼 일찍 만료될 수 있다 (기본 30분 중 10초)
+ */
+@Slf4j
+public class CompactJdbcSessionRepository implements SessionRepository<CompactSession> {
+
+    private static final String SELECT = "SELECT creation_time, last_access_time, max_inactive_interval, attributes FROM app_session WHERE session_id = ?";
+    private static final String INSERT = "INSERT INTO app_session (session_id, creation_time, last_access_time, max_inactive_interval, expiry_time, attributes) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE = "UPDATE app_session SET session_id = ?, last_access_time = ?, max_inactive_interval = ?, expiry_time = ?, attributes = ? WHERE session_id = ?";
+    private static final String UPDATE_ACCESS = "UPDATE app_session SET last_access_time = ?, expiry_time = CASE WHEN max_inactive_interval < 0 THEN expiry_time ELSE CAST(? AS BIGINT) + CAST(max_inactive_interval AS BIGINT) * 1000 END WHERE session_id = ? AND last_access_time < ?";
+    private static final String DELETE = "DELETE FROM app_session WHERE session_id = ?";
+    private static final String DELETE_EXPIRED = "DELETE FROM app_session WHERE expiry_time < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SessionCodec codec;
+    private final Duration defaultMaxInactiveInterval;
+    private final Map<String, Long> pendingAccessTimes = new ConcurrentHashMap<>(); // 세션 id -> 아직 DB 에 쓰지 않은 마지막 접근 시간
+
+    public CompactJdbcSessionRepository(JdbcTemplate jdbcTemplate, Duration defaultMaxInactiveInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.codec = new SessionCodec(getClass().getClassLoader());
+        this.defaultMaxInactiveInterval = defaultMaxInactiveInterval;
+    }
+
+    @Override
+    public CompactSession createSession() {
+        MapSession session = new MapSession();
+        session.setMaxInactiveInterval(defaultMaxInactiveInterval);
+        return new CompactSession(session, true);
+    }
+
+    @Override
+    public void save(CompactSession session) {
+        if (session.isNew()) {
+            jdbcTemplate.update(INSERT, session.getId(), session.getCreationTime().toEpochMilli(), session.getLastAccessedTime().toEpochMilli(),
+                    (int) session.getMaxInactiveInterval().getSeconds(), session.getExpiryTime(), encode(session));
+        } else if (session.isChanged()) {
+            pendingAccessTimes.remove(session.getSavedId());
+            jdbcTemplate.update(UPDATE, session.getId(), session.getLastAccessedTime().toEpochMilli(),
+                    (int) session.getMaxInactiveInterval().getSeconds(), session.getExpiryTime(), encode(session), session.getSavedId());
+        } else if (session.isAccessed()) {
+            pendingAccessTimes.merge(session.getId(), session.getLastAccessedTime().toEpochMilli(), Math::max);
+        }
+        session.saved();
+    }
+
+    @Override
+    public CompactSession findById(String id) {
+        List<CompactSession> found = jdbcTemplate.query(SELECT, (rs, rowNum) -> {
+            MapSession mapSession = new MapSession(id);
+            mapSession.setCreationTime(Instant.ofEpochMilli(rs.getLong("creation_time")));
+            long lastAccessTime = Math.max(rs.getLong("last_access_time"), pendingAccessTimes.getOrDefault(id, 0L));
+            mapSession.setLastAccessedTime(Instant.ofEpochMilli(lastAccessTime));
+            mapSession.setMaxInactiveInterval(Duration.ofSeconds(rs.getInt("max_inactive_interval")));
+
+            CompactSession session = new CompactSession(mapSession, false);
+            codec.decode(rs.getBytes("attributes")).forEach(session::load);
+            return session;
+        }, id);
+
+        if (found.isEmpty()) {
+            return null;
+        }
+        CompactSession session = found.get(0);
+        if (session.isExpired()) {
+            deleteById(id);
+            return null;
+        }
+        return session;
+    }
+
+    @Override
+    public void deleteById(String id) {
+        pendingAccessTimes.remove(id);
+        jdbcTemplate.update(DELETE, id);
+    }
+
+    /** 모아둔 접근 시간을 한번의 배치 UPDATE 로 쓴다 **/
+    @Scheduled(fixedDelayString = "${app.session-flush-interval:10000}")
+    public void flushAccessTimes() {
+        if (pendingAccessTimes.isEmpty()) {
+            return;
+        }
+        Map<String, Long> flushing = new LinkedHashMap<>(pendingAccessTimes);
+        List<Object[]> batchArgs = new ArrayList<>(flushing.size());
+        flushing.forEach((id, accessTime) -> batchArgs.add(new Object[]{accessTime, accessTime, id, accessTime}));
+        jdbcTemplate.batchUpdate(UPDATE_ACCESS, batchArgs);
+        flushing.forEach(pendingAccessTimes::remove); // 그 사이 다시 접근한 세션은 남겨둠
+        log.debug("flushed last access time of {} sessions", flushing.size());
+    }
+
+    @Scheduled(fixedDelayString = "${app.session-cleanup-interval:60000}")
+    public void cleanUpExpiredSessions() {
+        flushAccessTimes();
+        int deleted = jdbcTemplate.update(DELETE_EXPIRED, System.currentTimeMillis());
+        if (deleted > 0) {
+            log.debug("deleted {} expired sessions", deleted);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushAccessTimes();
+    }
+
+    int pendingAccessTimes() {
+        return pendingAccessTimes.size();
+    }
+
+    private byte[] encode(CompactSession session) {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        for (String name : session.getAttributeNames()) {
+            attributes.put(name, session.getAttribute(name));
+        }
+        return codec.encode(attributes);
+    }
+}
@@ -0,0 +1,125 @@
+package com.studyolle.session;
+
+import org.springframework.session.MapSession;
+import org.springframework.session.Session;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * 무엇이 바뀌었는지 기억하는 세션, 저장할 때 바뀐 만큼만 쓴다 (CompactJdbcSessionRepository.save)
+ */
+public final class CompactSession implements Session {
+
+    private final MapSession delegate;
+    private boolean isNew;
+    private String savedId; // DB 에 저장된 id, changeSessionId 뒤에는 getId() 와 다름
+    private boolean changed; // 속성, 만료 시간, id 가 바뀜 -> 행 전체 UPDATE
+    private boolean accessed; // 마지막 접근 시간만 바뀜 -> 모아서 UPDATE
+
+    CompactSession(MapSession delegate, boolean isNew) {
+        this.delegate = delegate;
+        this.isNew = isNew;
+        this.savedId = delegate.getId();
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public String changeSessionId() {
+        changed = true;
+        return delegate.changeSessionId();
+    }
+
+    @Override
+    public <T> T getAttribute(String attributeName) {
+        return delegate.getAttribute(attributeName);
+    }
+
+    @Override
+    public Set<String> getAttributeNames() {
+        return delegate.getAttributeNames();
+    }
+
+    @Override
+    public void setAttribute(String attributeName, Object attributeValue) {
+        changed = true;
+        delegate.setAttribute(attributeName, attributeValue);
+    }
+
+    @Override
+    public void removeAttribute(String attributeName) {
+        changed |= delegate.getAttribute(attributeName) != null;
+        delegate.removeAttribute(attributeName);
+    }
+
+    @Override
+    public Instant getCreationTime() {
+        return delegate.getCreationTime();
+    }
+
+    @Override
+    public void setLastAccessedTime(Instant lastAccessedTime) {
+        accessed = true;
+        delegate.setLastAccessedTime(lastAccessedTime);
+    }
+
+    @Override
+    public Instant getLastAccessedTime() {
+        return delegate.getLastAccessedTime();
+    }
+
+    @Override
+    public void setMaxInactiveInterval(Duration interval) {
+        changed |= !interval.equals(delegate.getMaxInactiveInterval());
+        delegate.setMaxInactiveInterval(interval);
+    }
+
+    @Override
+    public Duration getMaxInactiveInterval() {
+        return delegate.getMaxInactiveInterval();
+    }
+
+    @Override
+    public boolean isExpired() {
+        return delegate.isExpired();
+    }
+
+    boolean isNew() {
+        return isNew;
+    }
+
+    boolean isChanged() {
+        return changed;
+    }
+
+    boolean isAccessed() {
+        return accessed;
+    }
+
+    String getSavedId() {
+        return savedId;
+    }
+
+    long getExpiryTime() {
+        Duration interval = getMaxInactiveInterval();
+        return interval.isNegative() ? Long.MAX_VALUE : getLastAccessedTime().plus(interval).toEpochMilli();
+    }
+
+    /** 저장한 뒤 호출 **/
+    void saved() {
+        isNew = false;
+        changed = false;
+        accessed = false;
+        savedId = getId();
+    }
+
+    /** DB 에서 읽은 속성을 넣을 때는 바뀐 것으로 치지 않는다 **/
+    void load(String attributeName, Object attributeValue) {
+        delegate.setAttribute(attributeName, attributeValue);
+    }
+}
@@ -0,0 +1,158 @@
+package com.studyolle.session;
+
+import com.studyolle.account.UserAccount;
+import org.springframework.core.ConfigurableObjectInputStream;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.csrf.DefaultCsrfToken;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 세션 속성을 바이트로 묶는다
+ * 매 요청 읽는 로그인 정보(SecurityContext)와 CSRF 토큰은 필요한 값만 직접 쓰고 나머지는 자바 직렬화로 쓴다
+ * 자바 직렬화로 쓰면 SecurityContext 하나가 1KB 가 넘지만 직접 쓰면 100 바이트 정도
+ * (로그인 요청의 IP, 세션 id 를 담은 WebAuthenticationDetails 는 저장하지 않음)
+ */
+class SessionCodec {
+
+    private static final byte VERSION = 1;
+
+    private static final byte STRING = 1;
+    private static final byte SECURITY_CONTEXT = 2;
+    private static final byte CSRF_TOKEN = 3;
+    private static final byte SERIALIZED = 9;
+
+    private static final int MAX_STRING_LENGTH = 20_000; // writeUTF 는 64KB 까지
+
+    private final ClassLoader classLoader;
+
+    SessionCodec(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    byte[] encode(Map<String, Object> attributes) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeShort(attributes.size());
+            for (Map.Entry<String, Object> attribute : attributes.entrySet()) {
+                out.writeUTF(attribute.getKey());
+                write(out, attribute.getValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    Map<String, Object> decode(byte[] encoded) {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        if (encoded == null || encoded.length == 0) {
+            return attributes;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded))) {
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("지원하지 않는 세션 형식입니다: " + version);
+            }
+            int size = in.readUnsignedShort();
+            for (int i = 0; i < size; i++) {
+                String name = in.readUTF();
+                attributes.put(name, read(in));
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalArgumentException("세션 속성을 읽을 수 없습니다.", e);
+        }
+        return attributes;
+    }
+
+    private void write(DataOutputStream out, Object value) throws IOException {
+        if (value instanceof String && ((String) value).length() <= MAX_STRING_LENGTH) {
+            out.writeByte(STRING);
+            out.writeUTF((String) value);
+        } else if (isCompactSecurityContext(value)) {
+            Authentication authentication = ((SecurityContextImpl) value).getAuthentication();
+            UserAccount userAccount = (UserAccount) authentication.getPrincipal();
+            out.writeByte(SECURITY_CONTEXT);
+            out.writeLong(userAccount.getId());
+            out.writeUTF(userAccount.getNickname());
+            out.writeUTF(userAccount.getEmail());
+            out.writeBoolean(userAccount.isEmailVerified());
+            out.writeByte(authentication.getAuthorities().size());
+            for (GrantedAuthority authority : authentication.getAuthorities()) {
+                out.writeUTF(authority.getAuthority());
+            }
+        } else if (value instanceof DefaultCsrfToken) {
+            DefaultCsrfToken csrfToken = (DefaultCsrfToken) value;
+            out.writeByte(CSRF_TOKEN);
+            out.writeUTF(csrfToken.getHeaderName());
+            out.writeUTF(csrfToken.getParameterName());
+            out.writeUTF(csrfToken.getToken());
+        } else {
+            ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+            try (ObjectOutputStream objectOut = new ObjectOutputStream(serialized)) {
+                objectOut.writeObject(value);
+            }
+            out.writeByte(SERIALIZED);
+            out.writeInt(serialized.size());
+            serialized.writeTo(out);
+        }
+    }
+
+    private Object read(DataInputStream in) throws IOException, ClassNotFoundException {
+        byte type = in.readByte();
+        switch (type) {
+            case STRING:
+                return in.readUTF();
+            case SECURITY_CONTEXT:
+                long id = in.readLong();
+                String nickname = in.readUTF();
+                String email = in.readUTF();
+                boolean emailVerified = in.readBoolean();
+                int authorityCount = in.readUnsignedByte();
+                List<GrantedAuthority> authorities = new ArrayList<>(authorityCount);
+                for (int i = 0; i < authorityCount; i++) {
+                    authorities.add(new SimpleGrantedAuthority(in.readUTF()));
+                }
+                UserAccount userAccount = UserAccount.restore(id, nickname, email, emailVerified, authorities);
+                return new SecurityContextImpl(new UsernamePasswordAuthenticationToken(userAccount, null, authorities));
+            case CSRF_TOKEN:
+                return new DefaultCsrfToken(in.readUTF(), in.readUTF(), in.readUTF());
+            case SERIALIZED:
+                byte[] serialized = in.readNBytes(in.readInt());
+                try (ObjectInputStream objectIn = new ConfigurableObjectInputStream(new ByteArrayInputStream(serialized), classLoader)) {
+                    return objectIn.readObject();
+                }
+            default:
+                throw new IllegalArgumentException("알 수 없는 세션 속성 형식입니다: " + type);
+        }
+    }
+
+    /** 폼 로그인, AccountService.login() 으로 만든 인증만 (remember-me 인증 등은 자바 직렬화) **/
+    private static boolean isCompactSecurityContext(Object value) {
+        if (value == null || value.getClass() != SecurityContextImpl.class) {
+            return false;
+        }
+        Authentication authentication = ((SecurityContextImpl) value).getAuthentication();
+        return authentication != null && authentication.getClass() == UsernamePasswordAuthenticationToken.class
+                && authentication.isAuthenticated() && authentication.getCredentials() == null
+                && authentication.getPrincipal() instanceof UserAccount
+                && ((UserAccount) authentication.getPrincipal()).getEmail() != null
+                && authentication.getAuthorities().size() <= 255;
+    }
+}
@@ -1,10 +1,10 @@
 package com.studyolle.settings;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.studyolle.account.AccountService;
 import com.studyolle.account.CurrentAccount;
+import com.studyolle.account.PasswordHashBusyException;
 import com.studyolle.domain.Account;
+import com.studyolle.image.InvalidImageException;
 import com.studyolle.tag.Tag;
 import com.studyolle.domain.Zone;
 import com.studyolle.settings.form.*;
@@ -12,7 +12,8 @@ import com.studyolle.settings.validator.NicknameValidator;
 import com.studyolle.settings.validator.PasswordFormValidator;
 import com.studyolle.tag.TagForm;
 import com.studyolle.tag.TagRepository;
-import com.studyolle.zone.ZoneRepository;
+import com.studyolle.tag.TagService;
+import com.studyolle.zone.ZoneRegistry;
 import lombok.RequiredArgsConstructor;
 import org.modelmapper.ModelMapper;
 import org.springframework.http.ResponseEntity;
@@ -24,7 +25,6 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import javax.validation.Valid;
-import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -49,8 +49,8 @@ public class SettingsController {
     private final ModelMapper modelMapper;
     private final NicknameValidator nicknameValidator;
     private final TagRepository tagRepository;
-    private final ZoneRepository zoneRepository;
-    private final ObjectMapper objectMapper; // List를 Json 문자열로 변환할때 사용
+    private final TagService tagService;
+    private final ZoneRegistry zoneRegistry;
 
     /** 백엔드 커스텀 유효성 검사 (PasswordFormValidator.java) 사용**/
     @InitBinder("passwordForm") // signUpSubmit() 메소드 파라미터 같은 상황에서 SignUpForm을 받을 때 호출!, SignUpForm의 카멜케이스로 들어감
@@ -79,7 +79,14 @@ public class SettingsController {
                                             Model에 자동으로 들어가기 때문에 GET 요청 때 처럼 다시 account 정보만 넣어주면 된다 */
             return SETTINGS + PROFILE;
         }
-        accountService.updateProfile(account, profile); // account 정보를 profile에 받아온 값으로 변경 하기 위한 메서드
+        try {
+            accountService.updateProfile(account, profile); // account 정보를 profile에 받아온 값으로 변경 하기 위한 메서드
+        } catch (InvalidImageException e) {
+            errors.rejectValue("profileImage", "invalid.image", e.getMessage());
+            profile.setProfileImage(account.getProfileImage()); // 읽지 못한 이미지 대신 지금 이미지를 보여줌
+            model.addAttribute(account);
+            return SETTINGS + PROFILE;
+        }
         attributes.addFlashAttribute("message", "프로필을 수정했습니다."); /* 리다이렉트 시키고 한번쓰고 말 데이터를 보내는 용도
                                                                                      @GetMapping(SETTINGS_PROFILE_URL) 여기로 리다이렉트 시켜주고
                                                                                      Model 객체로 자동으로 들어간다 */
@@ -102,7 +109,13 @@ public class SettingsController {
 
             return SETTINGS + PASSWORD;
         }
-        accountService.updatePassword(account, passwordForm.getNewPassword());
+        try {
+            accountService.updatePassword(account, passwordForm.getNewPassword());
+        } catch (PasswordHashBusyException e) {
+            errors.rejectValue("newPassword", "busy", e.getMessage());
+            model.addAttribute(account);
+            return SETTINGS + PASSWORD;
+        }
         attributes.addFlashAttribute("message", "패스워드를 변경했습니다.");
 
         return "redirect:/" + SETTINGS + PASSWORD;
@@ -133,17 +146,12 @@ public class SettingsController {
     }
 
     @GetMapping(TAGS)
-    public String updateTags(@CurrentAccount Account account, Model model) throws JsonProcessingException {
+    public String updateTags(@CurrentAccount Account account, Model model) {
         model.addAttribute(account);
 
         Set<Tag> tags = accountService.getTags(account);
         model.addAttribute("tags", tags.stream().map(Tag::getTitle).collect(Collectors.toList()));
-
-        List<String> allTags = tagRepository.findAll().stream().map(Tag::getTitle).collect(Collectors.toList());
-        model.addAttribute("whitelist", objectMapper.writeValueAsString(allTags)); // List<String> =>>> JSON String 변환
-
-        System.out.println("allTags =>>> " + allTags); // allTags = [tesateas, tete]
-        System.out.println("whitelist  =>>> " + objectMapper.writeValueAsString(allTags)); // objectMapper ===> ["tesateas","tete"]
+        // 입력창 자동완성은 화면에서 /tags/autocomplete 로 받아감 (TagController)
 
         return SETTINGS + TAGS;
     }
@@ -158,12 +166,8 @@ public class SettingsController {
 //                            .title(tagForm.getTagTitle())
 //                            .build()));
 
-        // Optional 을 사용 안한 경우의 로직
-        Tag tag = tagRepository.findByTitle(title); // select id, title from tag where title = ?
-
-        if (tag == null) {
-            tag = tagRepository.save(Tag.builder().title(title).build()); // insert into tag (title, id) values (?, ?)
-        }
+        // Optional 을 사용 안한 경우의 로직, 새 태그면 자동완성에도 넣도록 TagService 사용
+        Tag tag = tagService.findOrCreateNew(title);
         accountService.addTag(account, tag);
 
         return ResponseEntity.ok().build(); // 성공 응답 보내기
@@ -183,14 +187,12 @@ public class SettingsController {
     }
 
     @GetMapping(ZONES)
-    public String updateZonesForm(@CurrentAccount Account account, Model model) throws JsonProcessingException {
+    public String updateZonesForm(@CurrentAccount Account account, Model model) {
         model.addAttribute(account);
 
         Set<Zone> zones = accountService.getZones(account);
         model.addAttribute("zones", zones.stream().map(Zone::toString).collect(Collectors.toList()));
-
-        List<String> allZones = zoneRepository.findAll().stream().map(Zone::toString).collect(Collectors.toList());
-        model.addAttribute("whitelist", objectMapper.writeValueAsString(allZones));
+        // whitelist(전체 지역 목록)는 화면에서 /whitelist/zones 로 받아감 (WhitelistController)
 
         return SETTINGS + ZONES;
     }
@@ -198,7 +200,7 @@ public class SettingsController {
     @PostMapping(ZONES + "/add")
     @ResponseBody
     public ResponseEntity addZone(@CurrentAccount Account account, @RequestBody ZoneForm zoneForm) {
-        Zone zone = zoneRepository.findByCityAndProvince(zoneForm.getCityName(), zoneForm.getProvinceName());
+        Zone zone = zoneRegistry.parse(zoneForm.getZoneName()).orElse(null); // DB 조회 없이 메모리에서 찾음
         if (zone == null) {
             return ResponseEntity.badRequest().build();
         }
@@ -210,7 +212,7 @@ public class SettingsController {
     @PostMapping(ZONES + "/remove")
     @ResponseBody
     public ResponseEntity removeZone(@CurrentAccount Account account, @RequestBody ZoneForm zoneForm) {
-        Zone zone = zoneRepository.findByCityAndProvince(zoneForm.getCityName(), zoneForm.getProvinceName());
+        Zone zone = zoneRegistry.parse(zoneForm.getZoneName()).orElse(null);
         if (zone == null) {
             return ResponseEntity.badRequest().build();
         }
@@ -0,0 +1,119 @@
+package com.studyolle.sse;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 브라우저 하나와 연결된 SSE 응답, 보낼 이벤트는 큐에 넣고 SseConnections 의 보내는 스레드가 꺼내서 쓴다
+ * 이벤트를 만든 스레드(요청, 알림 스레드)는 느린 브라우저 때문에 기다리지 않는다
+ */
+class SseConnection {
+
+    /** 이벤트 이름과 JSON, 연결마다 SseEventBuilder 를 새로 만든다 (빌더는 한번만 build 할 수 있음) **/
+    static class Event {
+
+        private final String name; // null 이면 heartbeat 주석
+        private final String data;
+
+        Event(String name, String data) {
+            this.name = name;
+            this.data = data;
+        }
+
+        SseEmitter.SseEventBuilder toBuilder() {
+            return name == null ? SseEmitter.event().comment("heartbeat") : SseEmitter.event().name(name).data(data);
+        }
+    }
+
+    static final Event HEARTBEAT = new Event(null, null);
+
+    private final String topic;
+    private final SseEmitter emitter;
+    private final Queue<Event> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicBoolean draining = new AtomicBoolean(); // 보내는 스레드가 이미 이 연결을 맡았으면 또 넣지 않음
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile long writeStartedAt; // System.nanoTime, 0 이면 쓰고 있지 않음
+
+    SseConnection(String topic, SseEmitter emitter) {
+        this.topic = topic;
+        this.emitter = emitter;
+    }
+
+    String getTopic() {
+        return topic;
+    }
+
+    SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    boolean isClosed() {
+        return closed.get();
+    }
+
+    boolean isIdle() {
+        return queued.get() == 0;
+    }
+
+    /** capacity 만큼 쌓여 있으면 (브라우저가 못 받고 있으면) false **/
+    boolean offer(Event event, int capacity) {
+        if (closed.get()) {
+            return false;
+        }
+        if (queued.incrementAndGet() > capacity) {
+            queued.decrementAndGet();
+            return false;
+        }
+        queue.add(event);
+        return true;
+    }
+
+    /** 보내는 스레드에 맡겨야 하면 true **/
+    boolean startDraining() {
+        return draining.compareAndSet(false, true);
+    }
+
+    /** 큐가 빌 때까지 보낸다, 보내다 실패하면 (브라우저가 끊겼으면) false **/
+    boolean drain() {
+        try {
+            Event event;
+            while (!closed.get() && (event = queue.poll()) != null) {
+                queued.decrementAndGet();
+                writeStartedAt = System.nanoTime();
+                emitter.send(event.toBuilder());
+                writeStartedAt = 0;
+            }
+            return !closed.get();
+        } catch (IOException | IllegalStateException e) {
+            return false;
+        } finally {
+            writeStartedAt = 0;
+            draining.set(false);
+        }
+    }
+
+    /** 이벤트 하나를 writeTimeout(ns) 보다 오래 쓰고 있으면 true **/
+    boolean isStalled(long now, long writeTimeout) {
+        long startedAt = writeStartedAt;
+        return startedAt != 0 && now - startedAt > writeTimeout;
+    }
+
+    boolean hasPending() {
+        return !queue.isEmpty();
+    }
+
+    /** 한번만 닫는다 **/
+    boolean close() {
+        if (!closed.compareAndSet(false, true)) {
+            return false;
+        }
+        queue.clear();
+        return true;
+    }
+}
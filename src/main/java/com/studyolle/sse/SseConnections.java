@@ -0,0 +1,241 @@
+package com.studyolle.sse;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.studyolle.config.AppProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 이 서버에 연결된 SSE 응답 목록, 토픽(계정, 스터디 화면)별로 들고 있다
+ * 응답은 비동기 서블릿(SseEmitter)이라 연결마다 스레드를 잡지 않고, 보낼 때만 app.sse-sender-threads 개의 스레드가 나눠서 쓴다
+ * 브라우저가 못 받아서 한 연결에 app.sse-queue-capacity 개가 쌓이면 그 연결은 끊는다 (EventSource 가 다시 연결함)
+ * emitter.send 는 소켓에 다 쓸 때까지 보내는 스레드를 잡는다. 톰캣이 app.sse-write-timeout (SseWriteTimeoutCustomizer) 이 지나면
+ * 그 쓰기를 실패시키고, 그동안 그 연결은 목록에서 빼서 이벤트를 더 쌓지 않는다 (closeStalled)
+ * 그래서 보내는 스레드 하나가 막히는 시간은 최대 app.sse-write-timeout, 스레드 수는 그 사이에 동시에 막힐 브라우저 수보다 많게 둔다
+ * 서버가 여러 대면 각자 자기에게 연결된 브라우저에만 보낸다
+ * heartbeat 와 closeStalled 는 스프링의 @Scheduled 스레드(스터디 정리, 알림 수 flush 등이 같이 씀) 대신 전용 스레드에서 돌려서
+ * 다른 작업이 오래 걸려도 막힌 쓰기를 찾는 것이 늦어지지 않게 한다
+ */
+@Slf4j
+@Component
+public class SseConnections {
+
+    private final Map<String, Set<SseConnection>> topics = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolTaskExecutor sender;
+    private final ScheduledExecutorService watchdog;
+    private final long heartbeatInterval;
+    private final long writeCheckInterval;
+    private final int maxConnections;
+    private final int queueCapacity;
+    private final long timeout;
+    private final long writeTimeout;
+    private final Counter rejected;
+    private final Counter dropped;
+    private final Counter stalled;
+
+    public SseConnections(AppProperties appProperties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.maxConnections = appProperties.getSseMaxConnections();
+        this.queueCapacity = appProperties.getSseQueueCapacity();
+        this.timeout = appProperties.getSseTimeout().toMillis();
+        this.writeTimeout = appProperties.getSseWriteTimeout().toNanos();
+        this.sender = new ThreadPoolTaskExecutor();
+        this.sender.setCorePoolSize(appProperties.getSseSenderThreads());
+        this.sender.setMaxPoolSize(appProperties.getSseSenderThreads());
+        this.sender.setThreadNamePrefix("sse-sender-");
+        this.sender.initialize();
+        this.heartbeatInterval = appProperties.getSseHeartbeatInterval().toMillis();
+        this.writeCheckInterval = appProperties.getSseWriteCheckInterval().toMillis();
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sse-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.rejected = meterRegistry.counter("studyolle.sse.rejected"); // 연결 수를 넘어서 거절
+        this.dropped = meterRegistry.counter("studyolle.sse.dropped"); // 못 받아서 끊음
+        this.stalled = meterRegistry.counter("studyolle.sse.stalled"); // 쓰는 데 app.sse-write-timeout 보다 오래 걸려서 끊음
+        Gauge.builder("studyolle.sse.connections", size, AtomicInteger::get).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        watchdog.scheduleWithFixedDelay(() -> runQuietly(this::heartbeat), heartbeatInterval, heartbeatInterval, TimeUnit.MILLISECONDS);
+        watchdog.scheduleWithFixedDelay(() -> runQuietly(this::closeStalled), writeCheckInterval, writeCheckInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /** 예외가 나가면 ScheduledExecutorService 가 다음 실행을 멈추므로 로그만 남긴다 **/
+    private void runQuietly(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            log.error("sse watchdog task failed", e);
+        }
+    }
+
+    public static String accountTopic(Long accountId) {
+        return "account:" + accountId;
+    }
+
+    public static String studyTopic(String path) {
+        return "study:" + path;
+    }
+
+    /** 연결 수가 app.sse-max-connections 를 넘으면 빈 값 **/
+    public Optional<SseEmitter> connect(String topic) {
+        return connect(topic, () -> new SseEmitter(timeout));
+    }
+
+    Optional<SseEmitter> connect(String topic, Supplier<SseEmitter> emitterFactory) {
+        if (size.incrementAndGet() > maxConnections) {
+            size.decrementAndGet();
+            rejected.increment();
+            return Optional.empty();
+        }
+
+        SseEmitter emitter = emitterFactory.get();
+        SseConnection connection = new SseConnection(topic, emitter);
+        topics.compute(topic, (key, connections) -> {
+            Set<SseConnection> set = connections == null ? ConcurrentHashMap.newKeySet() : connections;
+            set.add(connection);
+            return set;
+        });
+        emitter.onCompletion(() -> disconnect(connection));
+        emitter.onError(e -> disconnect(connection));
+        emitter.onTimeout(() -> close(connection)); // 브라우저는 다시 연결한다
+        enqueue(connection, SseConnection.HEARTBEAT); // 응답 헤더를 바로 보내서 연결됐다는 걸 알린다
+        return Optional.of(emitter);
+    }
+
+    /** topic 에 연결된 브라우저마다 보낼 큐에 넣기만 한다, data 는 JSON 으로 한번만 바꾼다 **/
+    public void send(String topic, String name, Object data) {
+        Set<SseConnection> connections = topics.get(topic);
+        if (connections == null || connections.isEmpty()) {
+            return;
+        }
+
+        SseConnection.Event event = new SseConnection.Event(name, toJson(data));
+        connections.forEach(connection -> enqueue(connection, event));
+    }
+
+    public boolean isConnected(String topic) {
+        Set<SseConnection> connections = topics.get(topic);
+        return connections != null && !connections.isEmpty();
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * 보낼 게 없는 연결에 주석 한줄, 중간 프록시가 연결을 끊지 않게 하고 끊긴 브라우저를 찾아낸다
+     * 이미 보낼 이벤트가 쌓여 있는 연결은 건너뛴다
+     */
+    public void heartbeat() {
+        topics.values().forEach(connections -> connections.stream()
+                .filter(SseConnection::isIdle)
+                .forEach(connection -> enqueue(connection, SseConnection.HEARTBEAT)));
+    }
+
+    /**
+     * 이벤트 하나를 app.sse-write-timeout 보다 오래 쓰고 있는 연결을 목록에서 뺀다
+     * emitter.complete 는 쓰고 있는 send 가 끝나야 들어가므로 부르지 않고, 막힌 쓰기는 톰캣의 쓰기 타임아웃으로 실패한 뒤 보내는 스레드가 닫는다
+     */
+    public void closeStalled() {
+        long now = System.nanoTime();
+        topics.values().forEach(connections -> connections.stream()
+                .filter(connection -> connection.isStalled(now, writeTimeout))
+                .forEach(connection -> {
+                    log.debug("sse connection {} write is stalled, closing", connection.getTopic());
+                    stalled.increment();
+                    disconnect(connection);
+                }));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        List<SseConnection> connections = topics.values().stream().flatMap(Set::stream).collect(Collectors.toList());
+        watchdog.shutdownNow();
+        connections.forEach(this::close);
+        sender.shutdown();
+    }
+
+    private void enqueue(SseConnection connection, SseConnection.Event event) {
+        if (!connection.offer(event, queueCapacity)) {
+            if (!connection.isClosed()) {
+                log.debug("sse connection {} is too slow, closing", connection.getTopic());
+                dropped.increment();
+                close(connection);
+            }
+            return;
+        }
+        schedule(connection);
+    }
+
+    private void schedule(SseConnection connection) {
+        if (!connection.startDraining()) {
+            return;
+        }
+        try {
+            sender.execute(() -> {
+                if (!connection.drain()) {
+                    close(connection);
+                } else if (connection.hasPending()) { // 다 보낸 뒤에 들어온 이벤트
+                    schedule(connection);
+                }
+            });
+        } catch (TaskRejectedException e) { // 종료 중
+            close(connection);
+        }
+    }
+
+    private void close(SseConnection connection) {
+        disconnect(connection);
+        try {
+            connection.getEmitter().complete();
+        } catch (IllegalStateException e) {
+            // 이미 끝난 응답
+        }
+    }
+
+    private void disconnect(SseConnection connection) {
+        if (!connection.close()) {
+            return;
+        }
+        size.decrementAndGet();
+        topics.computeIfPresent(connection.getTopic(), (key, connections) -> {
+            connections.remove(connection);
+            return connections.isEmpty() ? null : connections;
+        });
+    }
+
+    private String toJson(Object data) {
+        try {
+            return objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
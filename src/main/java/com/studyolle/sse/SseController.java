@@ -0,0 +1,44 @@
+package com.studyolle.sse;
+
+import com.studyolle.account.UserAccount;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * 브라우저가 EventSource 로 연결해두는 곳 (fragments.html)
+ * 연결이 끝날 때까지 OSIV 의 EntityManager 가 열려 있으므로 여기서는 DB 를 읽지 않는다 (읽으면 DB 커넥션을 계속 잡고 있게 됨)
+ * 그래서 계정은 @CurrentAccount 대신 세션의 UserAccount 로, 스터디는 id 대신 path 로 찾는다
+ */
+@Controller
+@RequiredArgsConstructor
+public class SseController {
+
+    private final SseConnections sseConnections;
+
+    /** 내 알림 **/
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> accountEvents(@AuthenticationPrincipal UserAccount userAccount) {
+        return connect(SseConnections.accountTopic(userAccount.getId()));
+    }
+
+    /** 보고 있는 스터디의 상태 변경 (공개, 종료, 인원 모집) **/
+    @GetMapping(value = "/study/{path}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> studyEvents(@PathVariable String path) {
+        return connect(SseConnections.studyTopic(path));
+    }
+
+    private ResponseEntity<SseEmitter> connect(String topic) {
+        return sseConnections.connect(topic)
+                .map(emitter -> ResponseEntity.ok()
+                        .header("X-Accel-Buffering", "no") // nginx 가 모아서 보내지 않게
+                        .body(emitter))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+    }
+}
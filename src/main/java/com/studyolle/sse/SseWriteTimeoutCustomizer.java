@@ -0,0 +1,44 @@
+package com.studyolle.sse;
+
+import com.studyolle.config.AppProperties;
+import org.apache.coyote.ProtocolHandler;
+import org.apache.coyote.http11.AbstractHttp11Protocol;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.stereotype.Component;
+
+/**
+ * SSE 이벤트 하나를 쓰는 시간의 상한 (app.sse-write-timeout)
+ * emitter.send 는 소켓에 다 쓸 때까지 보내는 스레드를 잡는데, 톰캣(NIO)은 막힌 쓰기를 connectionTimeout 이 지나면 실패시킨다
+ * 톰캣에는 쓰기 타임아웃만 따로 정하는 설정이 없어서 connectionTimeout 을 이 값으로 두고,
+ * 같은 값을 쓰던 나머지는 원래 값(server.tomcat.connection-timeout, 없으면 톰캣 기본 60초)으로 되돌린다
+ * - keep-alive 로 다음 요청을 기다리는 시간 : keepAliveTimeout
+ * - 요청 본문을 읽는 시간 : connectionUploadTimeout (disableUploadTimeout=false)
+ * 요청 헤더를 읽는 시간만 이 값을 같이 쓴다
+ * @Order 를 붙이지 않아서 스프링 부트가 server.tomcat.* 을 적용한 뒤에 돈다
+ */
+@Component
+public class SseWriteTimeoutCustomizer implements WebServerFactoryCustomizer<TomcatServletWebServerFactory> {
+
+    private final int writeTimeout;
+
+    public SseWriteTimeoutCustomizer(AppProperties appProperties) {
+        this.writeTimeout = (int) appProperties.getSseWriteTimeout().toMillis();
+    }
+
+    @Override
+    public void customize(TomcatServletWebServerFactory factory) {
+        factory.addConnectorCustomizers(connector -> {
+            ProtocolHandler handler = connector.getProtocolHandler();
+            if (!(handler instanceof AbstractHttp11Protocol)) {
+                return;
+            }
+            AbstractHttp11Protocol<?> protocol = (AbstractHttp11Protocol<?>) handler;
+            int readTimeout = protocol.getConnectionTimeout();
+            protocol.setKeepAliveTimeout(protocol.getKeepAliveTimeout()); // 따로 정하지 않았으면 connectionTimeout 을 따라가므로 지금 값으로 고정
+            protocol.setConnectionUploadTimeout(readTimeout);
+            protocol.setDisableUploadTimeout(false);
+            protocol.setConnectionTimeout(writeTimeout);
+        });
+    }
+}
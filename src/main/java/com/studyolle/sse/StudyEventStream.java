@@ -0,0 +1,38 @@
+package com.studyolle.sse;
+
+import com.studyolle.study.event.StudiesSweptEvent;
+import com.studyolle.study.event.StudyPublishedEvent;
+import com.studyolle.study.event.StudyUpdatedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+
+/**
+ * 스터디가 바뀌면 커밋 뒤에 그 스터디 화면을 보고 있는 브라우저에 "study" 이벤트를 보낸다
+ * 큐에 넣기만 하므로 요청 스레드에서 바로 처리한다
+ */
+@Component
+@RequiredArgsConstructor
+public class StudyEventStream {
+
+    private final SseConnections sseConnections;
+
+    @TransactionalEventListener
+    public void handleStudyPublished(StudyPublishedEvent event) {
+        sseConnections.send(SseConnections.studyTopic(event.getPath()), "study", Map.of("message", "스터디를 공개했습니다."));
+    }
+
+    @TransactionalEventListener
+    public void handleStudyUpdated(StudyUpdatedEvent event) {
+        sseConnections.send(SseConnections.studyTopic(event.getPath()), "study", Map.of("message", event.getMessage()));
+    }
+
+    /** 연결된 브라우저가 없는 스터디는 send 에서 바로 돌아온다 **/
+    @TransactionalEventListener
+    public void handleStudiesSwept(StudiesSweptEvent event) {
+        Map<String, String> data = Map.of("message", event.getMessage());
+        event.getPaths().forEach(path -> sseConnections.send(SseConnections.studyTopic(path), "study", data));
+    }
+}
@@ -5,6 +5,9 @@ import com.studyolle.domain.Account;
 import com.studyolle.domain.Study;
 import com.studyolle.study.form.StudyForm;
 import com.studyolle.study.validator.StudyFormValidator;
+import com.studyolle.study.view.MemberPage;
+import com.studyolle.study.view.StudyView;
+import com.studyolle.study.view.StudyViewService;
 import lombok.RequiredArgsConstructor;
 import org.modelmapper.ModelMapper;
 import org.springframework.validation.Errors;
@@ -15,6 +18,8 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.InitBinder;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 
 import javax.validation.Valid;
 import java.net.URLEncoder;
@@ -24,8 +29,8 @@ import java.nio.charset.StandardCharsets;
 @RequiredArgsConstructor
 public class StudyController {
 
-    private final StudyRepository studyRepository;
     private final StudyService studyService;
+    private final StudyViewService studyViewService;
     private final ModelMapper modelMapper;
     private final StudyFormValidator studyFormValidator;
 
@@ -54,30 +59,45 @@ public class StudyController {
 
     @GetMapping("/study/{path}")
     public String viewStudy(@CurrentAccount Account account, @PathVariable String path, Model model) {
-        Study study = studyService.getStudy(path);
-        model.addAttribute(account);
-        model.addAttribute(study);
+        addStudyView(account, studyViewService.getStudyView(path), model); // 엔티티 대신 캐시된 읽기 모델
         return "study/view";
     }
 
     @GetMapping("/study/{path}/members")
-    public String viewStudyMembers(@CurrentAccount Account account, @PathVariable String path, Model model) {
-        Study study = studyService.getStudy(path);
-        model.addAttribute(account);
-        model.addAttribute(study);
+    public String viewStudyMembers(@CurrentAccount Account account, @PathVariable String path,
+                                   @RequestParam(required = false) String after, Model model) {
+        StudyView study = studyViewService.getStudyView(path);
+        addStudyView(account, study, model);
+        model.addAttribute("memberPage", studyViewService.getMembers(study, after)); // 멤버 전체 대신 한 페이지씩
         return "study/members";
     }
 
+    /** 구성원 화면과 같은 페이지를 JSON 으로, 다음 페이지는 ?after={next} **/
+    @GetMapping("/study/{path}/members/page")
+    @ResponseBody
+    public MemberPage studyMembersPage(@PathVariable String path, @RequestParam(required = false) String after) {
+        return studyViewService.getMembers(studyViewService.getStudyView(path), after);
+    }
+
+    /** 캐시된 StudyView 에는 가입 여부가 없어서 로그인한 사용자 것만 따로 확인한다 (fragments.html 의 study-info) **/
+    private void addStudyView(Account account, StudyView study, Model model) {
+        boolean member = studyViewService.isMember(study, account);
+        model.addAttribute(account);
+        model.addAttribute("study", study);
+        model.addAttribute("isMember", member);
+        model.addAttribute("isJoinable", account != null && study.isJoinable(account.getId(), member));
+    }
+
     @GetMapping("/study/{path}/join")
     public String joinStudy(@CurrentAccount Account account, @PathVariable String path) {
-        Study study = studyRepository.findStudyWithMembersByPath(path);
+        Study study = studyService.getStudyToJoin(path);
         studyService.addMember(study, account);
         return "redirect:/study/" + study.getEncodedPath() + "/members";
     }
 
     @GetMapping("/study/{path}/leave")
     public String leaveStudy(@CurrentAccount Account account, @PathVariable String path) {
-        Study study = studyRepository.findStudyWithMembersByPath(path);
+        Study study = studyService.getStudyToJoin(path);
         studyService.removeMember(study, account);
         return "redirect:/study/" + study.getEncodedPath() + "/members";
     }
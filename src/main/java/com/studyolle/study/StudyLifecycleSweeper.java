@@ -0,0 +1,141 @@
+package com.studyolle.study;
+
+import com.studyolle.config.AppProperties;
+import com.studyolle.main.LandingPage;
+import com.studyolle.search.StudySearchIndex;
+import com.studyolle.study.event.StudiesSweptEvent;
+import com.studyolle.study.view.StudyViewService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 시간이 지나면 저절로 바뀌는 스터디 상태, 스터디를 엔티티로 읽지 않고 UPDATE 로 바꾼다
+ * - 팀원 모집을 시작하고 app.study-recruiting-period 가 지나면 모집 마감 (RECRUITING -> PUBLISHED)
+ * - 모집 없이 app.study-stale-period 가 지난 스터디는 종료 (PUBLISHED -> CLOSED)
+ * 스터디 id 순으로 app.study-sweep-batch-size 개씩 SELECT ... FOR UPDATE 로 잠그고 UPDATE 한번, 묶음마다 커밋한다
+ * version 을 올려서 그 사이 화면에서 상태를 바꾸던 매니저는 다시 읽는다 (StudyStatusUpdater)
+ * 멤버 알림은 보내지 않는다, 한번에 수만 개가 바뀌면 알림 큐(NotificationFanOut)를 다 채우기 때문
+ * 스터디 화면을 보고 있는 브라우저에는 묶음마다 StudiesSweptEvent 로 알린다 (StudyEventStream)
+ */
+@Slf4j
+@Component
+public class StudyLifecycleSweeper {
+
+    /** 모집 기간이 지난 스터디 **/
+    static final String RECRUITING_EXPIRED = "recruiting = TRUE AND closed = FALSE AND recruiting_updated_date_time < ?";
+
+    /** 모집하지 않은 채로 오래 지난 스터디 **/
+    static final String STALE = "published = TRUE AND closed = FALSE AND recruiting = FALSE " +
+            "AND COALESCE(recruiting_updated_date_time, published_date_time) < ?";
+
+    private static class SweptStudy {
+
+        private final Long id;
+        private final String path;
+
+        SweptStudy(Long id, String path) {
+            this.id = id;
+            this.path = path;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StudySearchIndex studySearchIndex;
+    private final StudyViewService studyViewService;
+    private final LandingPage landingPage;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AppProperties appProperties;
+    private final Clock clock;
+
+    public StudyLifecycleSweeper(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                 StudySearchIndex studySearchIndex, StudyViewService studyViewService,
+                                 LandingPage landingPage, ApplicationEventPublisher eventPublisher,
+                                 AppProperties appProperties, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.studySearchIndex = studySearchIndex;
+        this.studyViewService = studyViewService;
+        this.landingPage = landingPage;
+        this.eventPublisher = eventPublisher;
+        this.appProperties = appProperties;
+        this.clock = clock;
+    }
+
+    @Scheduled(fixedDelayString = "${app.study-sweep-interval:600000}")
+    public void sweep() {
+        sweep(LocalDateTime.now(clock));
+    }
+
+    /** @return 상태를 바꾼 스터디 수 **/
+    public int sweep(LocalDateTime now) {
+        long start = System.nanoTime();
+        int stopped = sweep(RECRUITING_EXPIRED, now.minus(appProperties.getStudyRecruitingPeriod()),
+                "recruiting = FALSE, recruiting_updated_date_time = ?", now, false, "팀원 모집을 마감했습니다.");
+        int closed = sweep(STALE, now.minus(appProperties.getStudyStalePeriod()),
+                "closed = TRUE, closed_date_time = ?", now, true, "스터디를 종료했습니다.");
+
+        if (stopped + closed > 0) {
+            landingPage.refresh(); // 첫 화면의 모집중 표시와 종료된 스터디
+            log.info("study sweep stopped recruiting of {} studies and closed {} studies in {} ms", stopped, closed,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        return stopped + closed;
+    }
+
+    /** condition 에 맞는 스터디를 묶음마다 잠그고 assignments 로 바꾼다, 바뀐 뒤의 모집중 여부는 항상 false **/
+    private int sweep(String condition, LocalDateTime before, String assignments, LocalDateTime now, boolean closed,
+                      String message) {
+        String select = "SELECT id, path FROM study WHERE id > ? AND " + condition + " ORDER BY id LIMIT ? FOR UPDATE";
+        int batchSize = appProperties.getStudySweepBatchSize();
+
+        int swept = 0;
+        long lastId = 0;
+        List<SweptStudy> chunk;
+        do {
+            long after = lastId;
+            chunk = transactionTemplate.execute(status -> {
+                List<SweptStudy> studies = jdbcTemplate.query(select,
+                        (rs, rowNum) -> new SweptStudy(rs.getLong("id"), rs.getString("path")),
+                        after, Timestamp.valueOf(before), batchSize);
+                if (studies.isEmpty()) {
+                    return studies;
+                }
+
+                List<Object> args = new ArrayList<>();
+                args.add(Timestamp.valueOf(now));
+                studies.forEach(study -> args.add(study.id));
+                jdbcTemplate.update("UPDATE study SET " + assignments + ", version = version + 1 WHERE id IN (" +
+                        String.join(", ", Collections.nCopies(studies.size(), "?")) + ")", args.toArray());
+
+                List<String> paths = studies.stream().map(study -> study.path).collect(Collectors.toList());
+                studySearchIndex.statusChanged(studies.stream().map(study -> study.id).collect(Collectors.toList()),
+                        false, closed); // 커밋된 뒤에 반영된다
+                studyViewService.evict(paths);
+                eventPublisher.publishEvent(new StudiesSweptEvent(paths, message));
+                return studies;
+            });
+            if (chunk.isEmpty()) {
+                break;
+            }
+
+            swept += chunk.size();
+            lastId = chunk.get(chunk.size() - 1).id;
+        } while (chunk.size() == batchSize);
+        return swept;
+    }
+}
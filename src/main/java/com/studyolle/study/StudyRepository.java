@@ -1,10 +1,21 @@
 package com.studyolle.study;
 
 import com.studyolle.domain.Study;
+import com.studyolle.domain.Zone;
+import com.studyolle.main.LandingStudy;
+import com.studyolle.main.ZoneCount;
+import com.studyolle.study.view.MemberView;
+import com.studyolle.tag.Tag;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 @Transactional(readOnly = true)
 public interface StudyRepository extends JpaRepository<Study, Long> {
 
@@ -35,4 +46,67 @@ public interface StudyRepository extends JpaRepository<Study, Long> {
 
     @EntityGraph(value = "Study.withMembers", type = EntityGraph.EntityGraphType.FETCH)
     Study findStudyWithMembersByPath(String path);
+
+    // 가입/탈퇴용, 멤버 목록을 읽지 않는다
+    Study findStudyOnlyByPath(String path);
+
+    /* 스터디 화면(StudyViewService)용, 컬렉션마다 따로 읽어서 카테시안 곱이 생기지 않게 한다 */
+
+    @Query("select t from Study s join s.tags t where s.id = :studyId order by t.title")
+    List<Tag> findTagsById(@Param("studyId") Long studyId);
+
+    @Query("select z from Study s join s.zones z where s.id = :studyId order by z.city")
+    List<Zone> findZonesById(@Param("studyId") Long studyId);
+
+    @Query("select new com.studyolle.study.view.MemberView(a.id, a.nickname, a.profileImage, a.bio) " +
+            "from Study s join s.managers a where s.id = :studyId order by a.id")
+    List<MemberView> findManagersById(@Param("studyId") Long studyId);
+
+    // 로그인한 사용자 한명의 가입 여부, 멤버 id 를 모두 읽지 않는다 (study_members 기본키로 찾음)
+    @Query("select count(a) > 0 from Study s join s.members a where s.id = :studyId and a.id = :accountId")
+    boolean existsMemberById(@Param("studyId") Long studyId, @Param("accountId") Long accountId);
+
+    // 구성원 화면, nickname 순 keyset 페이징 (after 보다 뒤에 있는 멤버부터 pageable 의 size 만큼, OFFSET 없이)
+    @Query("select new com.studyolle.study.view.MemberView(a.id, a.nickname, a.profileImage, a.bio) " +
+            "from Study s join s.members a where s.id = :studyId and a.nickname > :after order by a.nickname")
+    List<MemberView> findMembersAfter(@Param("studyId") Long studyId, @Param("after") String after, Pageable pageable);
+
+    /* 첫 화면(LandingPage)용, 공개됐고 종료하지 않은 스터디 */
+
+    @Query("select new com.studyolle.main.LandingStudy(s.path, s.title, s.shortDescription, s.memberCount, s.recruiting, s.publishedDateTime) " +
+            "from Study s where s.published = true and s.closed = false order by s.publishedDateTime desc")
+    List<LandingStudy> findRecentStudies(Pageable pageable);
+
+    @Query("select new com.studyolle.main.LandingStudy(s.path, s.title, s.shortDescription, s.memberCount, s.recruiting, s.publishedDateTime) " +
+            "from Study s where s.published = true and s.closed = false order by s.memberCount desc, s.publishedDateTime desc")
+    List<LandingStudy> findPopularStudies(Pageable pageable);
+
+    @Query("select new com.studyolle.main.ZoneCount(z.id, z.localNameOfCity, count(s)) " +
+            "from Study s join s.zones z where s.published = true and s.closed = false " +
+            "group by z.id, z.localNameOfCity order by count(s) desc, z.localNameOfCity")
+    List<ZoneCount> countStudiesByZone(Pageable pageable);
+
+    /* 가입/탈퇴는 members 컬렉션을 읽지 않고 조인 테이블(study_members)에 바로 쓴다
+       같은 스터디의 가입/탈퇴는 스터디 row 락(lockStudy)으로 줄을 세워서
+       NOT EXISTS 확인과 INSERT 사이에 다른 요청이 끼어들지 못하게 한다 */
+
+    @Query(value = "SELECT id FROM study WHERE id = :studyId FOR UPDATE", nativeQuery = true)
+    Long lockStudy(@Param("studyId") Long studyId);
+
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO study_members (study_id, members_id) SELECT :studyId, :accountId " +
+            "WHERE NOT EXISTS (SELECT 1 FROM study_members WHERE study_id = :studyId AND members_id = :accountId)",
+            nativeQuery = true)
+    int insertMember(@Param("studyId") Long studyId, @Param("accountId") Long accountId);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM study_members WHERE study_id = :studyId AND members_id = :accountId", nativeQuery = true)
+    int deleteMember(@Param("studyId") Long studyId, @Param("accountId") Long accountId);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE study SET member_count = member_count + :delta WHERE id = :studyId", nativeQuery = true)
+    int addMemberCount(@Param("studyId") Long studyId, @Param("delta") int delta);
 }
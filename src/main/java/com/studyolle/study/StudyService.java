@@ -3,15 +3,28 @@ package com.studyolle.study;
 import com.studyolle.domain.Account;
 import com.studyolle.domain.Study;
 import com.studyolle.domain.Zone;
+import com.studyolle.image.ImageService;
+import com.studyolle.main.LandingPage;
+import com.studyolle.search.StudySearchIndex;
+import com.studyolle.study.event.StudyMemberJoinedEvent;
+import com.studyolle.study.event.StudyPublishedEvent;
+import com.studyolle.study.event.StudyUpdatedEvent;
 import com.studyolle.study.form.StudyDescriptionForm;
+import com.studyolle.study.view.StudyViewService;
 import com.studyolle.tag.Tag;
+import com.studyolle.tag.TagAutocomplete;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.Set;
+
 import static com.studyolle.study.form.StudyForm.VALID_PATH_PATTERN;
 
 @Slf4j
@@ -22,11 +35,19 @@ public class StudyService {
 
     private final StudyRepository repository;
     private final ModelMapper modelMapper;
+    private final StudySearchIndex studySearchIndex;
+    private final StudyViewService studyViewService; // 스터디를 바꾸면 스터디 화면 캐시를 커밋 뒤에 비운다
+    private final ImageService imageService;
+    private final TagAutocomplete tagAutocomplete;
+    private final LandingPage landingPage;
+    private final ApplicationEventPublisher eventPublisher; // 알림은 커밋 뒤에 StudyEventListener 가 보낸다
+    private final Clock clock;
 
     /** 스터디 생성 **/
     public Study createNewStudy(Study study, Account account) {
         Study newStudy = repository.save(study);
         newStudy.addManger(account);
+        studySearchIndex.index(newStudy);
         return newStudy;
 
     }
@@ -47,40 +68,60 @@ public class StudyService {
         return study;
     }
 
-    /** 스터디 정보 업데이트 **/
-    public void updateStudyDescription(Study study, StudyDescriptionForm studyDescriptionForm) {
+    /** 스터디 정보 업데이트, 공개된 스터디면 수정한 매니저를 뺀 멤버와 매니저에게 알린다 **/
+    public void updateStudyDescription(Study study, StudyDescriptionForm studyDescriptionForm, Account account) {
         modelMapper.map(studyDescriptionForm, study); //
+        studySearchIndex.index(study);
+        studyViewService.evict(study.getPath());
+        if (study.isPublished()) {
+            eventPublisher.publishEvent(new StudyUpdatedEvent(study.getId(), study.getPath(), "스터디 소개를 수정했습니다.", account.getId()));
+        }
     }
 
-    /** 배너 이미지 업데이트 **/
+    /** 배너 이미지 업데이트, 이미지는 ImageStore 에 저장하고 스터디에는 해시만 남긴다 **/
     public void updateStudyImage(Study study, String image) {
-        study.setImage(image);
+        study.setImage(imageService.toImageHash(image, study.getImage()));
+        studyViewService.evict(study.getPath());
     }
 
     /** 배너 사용 O **/
     public void enableStudyBanner(Study study) {
         study.setUseBanner(true);
+        studyViewService.evict(study.getPath());
     }
 
     /** 배너 사용 X **/
     public void disableStudyBanner(Study study) {
         study.setUseBanner(false);
+        studyViewService.evict(study.getPath());
     }
 
     public void addTag(Study study, Tag tag) {
-        study.getTags().add(tag);
+        if (study.getTags().add(tag)) {
+            tagAutocomplete.tagUsed(tag); // 자동완성 사용 횟수
+        }
+        studySearchIndex.index(study);
+        studyViewService.evict(study.getPath());
     }
 
     public void removeTag(Study study, Tag tag) {
-        study.getTags().remove(tag);
+        if (study.getTags().remove(tag)) {
+            tagAutocomplete.tagUnused(tag);
+        }
+        studySearchIndex.index(study);
+        studyViewService.evict(study.getPath());
     }
 
     public void addZone(Study study, Zone zone) {
         study.getZones().add(zone);
+        studySearchIndex.index(study);
+        studyViewService.evict(study.getPath());
     }
 
     public void removeZone(Study study, Zone zone) {
         study.getZones().remove(zone);
+        studySearchIndex.index(study);
+        studyViewService.evict(study.getPath());
     }
 
     public Study getStudyToUpdateTag(Account account, String path) {
@@ -119,20 +160,36 @@ public class StudyService {
         }
     }
 
+    /* 상태 변경은 Study 가 지금 상태에서 할 수 있는지 확인하고, 안되면 StudyTransitionException */
+
     public void publish(Study study) {
-        study.publish();
+        study.publish(LocalDateTime.now(clock));
+        studySearchIndex.index(study); // 공개된 스터디만 검색 결과에 나온다
+        studyViewService.evict(study.getPath());
+        landingPage.refreshAfterCommit(); // 첫 화면의 최근 스터디 목록
+        eventPublisher.publishEvent(new StudyPublishedEvent(study.getId(), study.getPath()));
     }
 
-    public void close(Study study) {
-        study.close();
+    public void close(Study study, Account account) {
+        study.close(LocalDateTime.now(clock));
+        studySearchIndex.index(study);
+        studyViewService.evict(study.getPath());
+        landingPage.refreshAfterCommit();
+        eventPublisher.publishEvent(new StudyUpdatedEvent(study.getId(), study.getPath(), "스터디를 종료했습니다.", account.getId()));
     }
 
-    public void startRecruit(Study study) {
-        study.startRecruit();
+    public void startRecruit(Study study, Account account) {
+        study.startRecruit(LocalDateTime.now(clock));
+        studySearchIndex.index(study);
+        studyViewService.evict(study.getPath());
+        eventPublisher.publishEvent(new StudyUpdatedEvent(study.getId(), study.getPath(), "팀원 모집을 시작합니다.", account.getId()));
     }
 
-    public void stopRecruit(Study study) {
-        study.stopRecruit();
+    public void stopRecruit(Study study, Account account) {
+        study.stopRecruit(LocalDateTime.now(clock));
+        studySearchIndex.index(study);
+        studyViewService.evict(study.getPath());
+        eventPublisher.publishEvent(new StudyUpdatedEvent(study.getId(), study.getPath(), "팀원 모집을 중단했습니다.", account.getId()));
     }
 
     /** 스터디 path 유효성 검증 **/
@@ -146,7 +203,10 @@ public class StudyService {
 
     /** 스터디 path 업데이트 **/
     public void updateStudyPath(Study study, String newPath) {
+        studyViewService.evict(study.getPath()); // 이전 path 와 새 path 둘 다
         study.setPath(newPath);
+        studySearchIndex.index(study);
+        studyViewService.evict(newPath);
     }
 
     /** 스터디 타이틀 유효성 검증 **/
@@ -157,25 +217,55 @@ public class StudyService {
     /** 스터디 타이틀 업데이트 **/
     public void updateStudyTitle(Study study, String newTitle) {
         study.setTitle(newTitle);
+        studySearchIndex.index(study);
+        studyViewService.evict(study.getPath());
     }
 
     /** 스터디 삭제 **/
     public void remove(Study study) {
         if (study.isRemovable()) {
+            Set<Tag> tags = Set.copyOf(study.getTags()); // 삭제 전에 읽어둠
             repository.delete(study);
+            studySearchIndex.remove(study.getId());
+            studyViewService.evict(study.getPath());
+            tags.forEach(tagAutocomplete::tagUnused);
         } else {
             throw new IllegalArgumentException("스터디를 삭제할 수 없습니다.");
         }
     }
 
-    /** 스터디 멤버 추가 (스터디 가입 버튼) **/
+    /** 가입/탈퇴할 스터디, 멤버 목록은 읽지 않는다 **/
+    public Study getStudyToJoin(String path) {
+        Study study = repository.findStudyOnlyByPath(path);
+        checkIfExistingStudy(path, study);
+        return study;
+    }
+
+    /** 스터디 멤버 추가 (스터디 가입 버튼), 이미 멤버면 아무것도 하지 않는다 (두번 눌러도 멤버 수가 한번만 늘어남) **/
     public void addMember(Study study, Account account) {
-        study.addMember(account);
+        repository.lockStudy(study.getId());
+        if (repository.insertMember(study.getId(), account.getId()) > 0) {
+            changeMemberCount(study, 1);
+            eventPublisher.publishEvent(new StudyMemberJoinedEvent(study.getId(), account.getId()));
+        }
     }
 
-    /** 스터디 멤버 탈퇴 (스터디 가입 버튼) **/
+    /** 스터디 멤버 탈퇴 (스터디 가입 버튼), 멤버가 아니면 아무것도 하지 않는다 **/
     public void removeMember(Study study, Account account) {
-        study.removeMember(account);
+        repository.lockStudy(study.getId());
+        if (repository.deleteMember(study.getId(), account.getId()) > 0) {
+            changeMemberCount(study, -1);
+        }
+    }
+
+    /**
+     * member_count 는 읽어서 더하지 않고 UPDATE 한번으로 더한다
+     * 엔티티의 memberCount 를 바꾸면 dirty checking 으로 읽었던 값 기준으로 덮어쓰기 때문에 건드리지 않는다
+     */
+    private void changeMemberCount(Study study, int delta) {
+        repository.addMemberCount(study.getId(), delta);
+        studySearchIndex.memberCountChanged(study.getId(), delta);
+        studyViewService.evict(study.getPath());
     }
 
 }
@@ -1,18 +1,18 @@
 package com.studyolle.study;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.studyolle.account.CurrentAccount;
 import com.studyolle.domain.Account;
 import com.studyolle.domain.Study;
+import com.studyolle.domain.StudyTransitionException;
 import com.studyolle.domain.Zone;
+import com.studyolle.image.InvalidImageException;
 import com.studyolle.settings.form.ZoneForm;
 import com.studyolle.tag.Tag;
 import com.studyolle.study.form.StudyDescriptionForm;
 import com.studyolle.tag.TagForm;
 import com.studyolle.tag.TagRepository;
 import com.studyolle.tag.TagService;
-import com.studyolle.zone.ZoneRepository;
+import com.studyolle.zone.ZoneRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
@@ -26,7 +26,7 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import javax.validation.Valid;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
-import java.util.List;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -36,11 +36,11 @@ import java.util.stream.Collectors;
 public class StudySettingsController {
 
     private final StudyService studyService;
+    private final StudyStatusUpdater studyStatusUpdater;
     private final ModelMapper modelMapper;
     private final TagService tagService;
     private final TagRepository tagRepository;
-    private final ZoneRepository zoneRepository;
-    private final ObjectMapper objectMapper;
+    private final ZoneRegistry zoneRegistry;
 
     @GetMapping("/description")
     public String viewStudySetting(@CurrentAccount Account account, @PathVariable String path, Model model) {
@@ -63,7 +63,7 @@ public class StudySettingsController {
             return "study/settings/description";
         }
 
-        studyService.updateStudyDescription(study, studyDescriptionForm); // study는 persist 상태이고 이 메서드에서 변경감지를 하여 업데이트 됨!
+        studyService.updateStudyDescription(study, studyDescriptionForm, account); // study는 persist 상태이고 이 메서드에서 변경감지를 하여 업데이트 됨!
         attributes.addFlashAttribute("message", "스터디 소개를 수정했습니다.");
         return "redirect:/study/" + getPath(path) + "/settings/description";
     }
@@ -80,7 +80,12 @@ public class StudySettingsController {
     public String studyImageSubmit(@CurrentAccount Account account, @PathVariable String path,
                                    String image, RedirectAttributes attributes) {
         Study study = studyService.getStudyToUpdate(account, path);
-        studyService.updateStudyImage(study, image);
+        try {
+            studyService.updateStudyImage(study, image);
+        } catch (InvalidImageException e) {
+            attributes.addFlashAttribute("message", e.getMessage());
+            return "redirect:/study/" + getPath(path) + "/settings/banner";
+        }
         attributes.addFlashAttribute("message", "스터디 이미지를 수정했습니다.");
         return "redirect:/study/" + getPath(path) + "/settings/banner";
     }
@@ -104,8 +109,7 @@ public class StudySettingsController {
     }
 
     @GetMapping("/tags")
-    public String studyTagsForm(@CurrentAccount Account account, @PathVariable String path, Model model)
-            throws JsonProcessingException {
+    public String studyTagsForm(@CurrentAccount Account account, @PathVariable String path, Model model) {
         Study study = studyService.getStudyToUpdate(account, path);
         model.addAttribute(account);
         model.addAttribute(study);
@@ -113,11 +117,8 @@ public class StudySettingsController {
         // tags는 현재 스터디가 가지고 있는 태그들
         model.addAttribute("tags", study.getTags().stream()
                 .map(Tag::getTitle).collect(Collectors.toList()));
-        List<String> allTagTitles = tagRepository.findAll().stream()
-                .map(Tag::getTitle).collect(Collectors.toList());
 
-        // whitelist는 지금까지 DB에 있는 모드 태그들
-        model.addAttribute("whitelist", objectMapper.writeValueAsString(allTagTitles));
+        // 입력창 자동완성은 화면에서 /tags/autocomplete 로 받아감
         return "study/settings/tags";
     }
 
@@ -146,15 +147,13 @@ public class StudySettingsController {
     }
 
     @GetMapping("/zones")
-    public String studyZonesForm(@CurrentAccount Account account, @PathVariable String path, Model model)
-            throws JsonProcessingException {
+    public String studyZonesForm(@CurrentAccount Account account, @PathVariable String path, Model model) {
         Study study = studyService.getStudyToUpdate(account, path);
         model.addAttribute(account);
         model.addAttribute(study);
         model.addAttribute("zones", study.getZones().stream()
                 .map(Zone::toString).collect(Collectors.toList()));
-        List<String> allZones = zoneRepository.findAll().stream().map(Zone::toString).collect(Collectors.toList());
-        model.addAttribute("whitelist", objectMapper.writeValueAsString(allZones));
+        // whitelist(전체 지역 목록)는 화면에서 /whitelist/zones 로 받아감
         return "study/settings/zones";
     }
 
@@ -163,7 +162,7 @@ public class StudySettingsController {
     public ResponseEntity addZone(@CurrentAccount Account account, @PathVariable String path,
                                   @RequestBody ZoneForm zoneForm) {
         Study study = studyService.getStudyToUpdateZone(account, path);
-        Zone zone = zoneRepository.findByCityAndProvince(zoneForm.getCityName(), zoneForm.getProvinceName());
+        Zone zone = zoneRegistry.parse(zoneForm.getZoneName()).orElse(null); // DB 조회 없이 메모리에서 찾음
         if (zone == null) {
             return ResponseEntity.badRequest().build();
         }
@@ -177,7 +176,7 @@ public class StudySettingsController {
     public ResponseEntity removeZone(@CurrentAccount Account account, @PathVariable String path,
                                      @RequestBody ZoneForm zoneForm) {
         Study study = studyService.getStudyToUpdateZone(account, path);
-        Zone zone = zoneRepository.findByCityAndProvince(zoneForm.getCityName(), zoneForm.getProvinceName());
+        Zone zone = zoneRegistry.parse(zoneForm.getZoneName()).orElse(null);
         if (zone == null) {
             return ResponseEntity.badRequest().build();
         }
@@ -197,46 +196,36 @@ public class StudySettingsController {
     @PostMapping("/study/publish")
     public String publishStudy(@CurrentAccount Account account, @PathVariable String path,
                                RedirectAttributes attributes) {
-        Study study = studyService.getStudyToUpdateStatus(account, path);
-        studyService.publish(study);
-        attributes.addFlashAttribute("message", "스터디를 공개했습니다.");
-        return "redirect:/study/" + getPath(path) + "/settings/study";
+        return updateStatus(account, path, (study, manager) -> studyService.publish(study), "스터디를 공개했습니다.", attributes);
     }
 
     @PostMapping("/study/close")
     public String closeStudy(@CurrentAccount Account account, @PathVariable String path,
                              RedirectAttributes attributes) {
-        Study study = studyService.getStudyToUpdateStatus(account, path);
-        studyService.close(study);
-        attributes.addFlashAttribute("message", "스터디를 종료했습니다.");
-        return "redirect:/study/" + getPath(path) + "/settings/study";
+        return updateStatus(account, path, studyService::close, "스터디를 종료했습니다.", attributes);
     }
 
     @PostMapping("/recruit/start")
     public String startRecruit(@CurrentAccount Account account, @PathVariable String path, Model model,
                                RedirectAttributes attributes) {
-        Study study = studyService.getStudyToUpdateStatus(account, path);
-        if (!study.canUpdateRecruiting()) {
-            attributes.addFlashAttribute("message", "1시간 안에 인원 모집 설정을 여러번 변경할 수 없습니다.");
-            return "redirect:/study/" + getPath(path) + "/settings/study";
-        }
-
-        studyService.startRecruit(study);
-        attributes.addFlashAttribute("message", "인원 모집을 시작합니다.");
-        return "redirect:/study/" + getPath(path) + "/settings/study";
+        return updateStatus(account, path, studyService::startRecruit, "인원 모집을 시작합니다.", attributes);
     }
 
     @PostMapping("/recruit/stop")
     public String stopRecruit(@CurrentAccount Account account, @PathVariable String path, Model model,
                               RedirectAttributes attributes) {
-        Study study = studyService.getStudyToUpdate(account, path);
-        if (!study.canUpdateRecruiting()) {
-            attributes.addFlashAttribute("message", "1시간 안에 인원 모집 설정을 여러번 변경할 수 없습니다.");
-            return "redirect:/study/" + getPath(path) + "/settings/study";
-        }
+        return updateStatus(account, path, studyService::stopRecruit, "인원 모집을 종료합니다.", attributes);
+    }
 
-        studyService.stopRecruit(study);
-        attributes.addFlashAttribute("message", "인원 모집을 종료합니다.");
+    /** 상태를 바꾸고, 지금 상태에서 할 수 없으면 (1시간 안에 다시 바꾸는 것 포함) 그 이유를 보여준다 **/
+    private String updateStatus(Account account, String path, BiConsumer<Study, Account> transition, String message,
+                                RedirectAttributes attributes) {
+        try {
+            studyStatusUpdater.update(account, path, transition);
+            attributes.addFlashAttribute("message", message);
+        } catch (StudyTransitionException e) {
+            attributes.addFlashAttribute("message", e.getMessage());
+        }
         return "redirect:/study/" + getPath(path) + "/settings/study";
     }
 
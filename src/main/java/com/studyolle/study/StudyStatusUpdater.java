@@ -0,0 +1,52 @@
+package com.studyolle.study;
+
+import com.studyolle.domain.Account;
+import com.studyolle.domain.Study;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * 스터디 상태 변경 (공개, 종료, 인원 모집 시작/중단) 을 낙관적 락(Study.version) 충돌이 나면 다시 시도한다
+ * 충돌이 나면 트랜잭션이 롤백되면서 영속성 컨텍스트가 비워지기 때문에 다음 시도에서는 최신 스터디를 다시 읽는다
+ * 그래서 트랜잭션 경계를 StudyService(@Transactional) 밖인 여기서 시도마다 새로 연다
+ */
+@Slf4j
+@Component
+public class StudyStatusUpdater {
+
+    static final int MAX_ATTEMPTS = 3;
+
+    private final StudyService studyService;
+    private final TransactionTemplate transactionTemplate;
+
+    public StudyStatusUpdater(StudyService studyService, PlatformTransactionManager transactionManager) {
+        this.studyService = studyService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public void update(Account account, String path, Consumer<Study> transition) {
+        update(account, path, (study, manager) -> transition.accept(study));
+    }
+
+    /** 매니저인지 확인하고 transition 을 적용, 다른 매니저가 먼저 바꿨으면 다시 읽어서 최대 MAX_ATTEMPTS 번 시도 **/
+    public void update(Account account, String path, BiConsumer<Study, Account> transition) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        transition.accept(studyService.getStudyToUpdateStatus(account, path), account));
+                return;
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                log.info("study {} was updated concurrently, retrying ({}/{})", path, attempt, MAX_ATTEMPTS);
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.studyolle.study.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+/**
+ * StudyLifecycleSweeper 가 한 묶음의 스터디 상태를 바꿨을 때, 스터디 화면을 보고 있는 브라우저에만 알린다 (StudyEventStream)
+ * 한번에 수만 개가 바뀔 수 있어서 멤버 알림(StudyEventListener)은 보내지 않는다
+ */
+@Getter
+@RequiredArgsConstructor
+public class StudiesSweptEvent {
+
+    private final List<String> paths;
+
+    private final String message; // 무엇이 바뀌었는지
+}
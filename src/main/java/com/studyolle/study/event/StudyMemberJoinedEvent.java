@@ -0,0 +1,14 @@
+package com.studyolle.study.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/** 스터디에 가입했을 때, 가입한 사용자에게 결과를 알린다 **/
+@Getter
+@RequiredArgsConstructor
+public class StudyMemberJoinedEvent {
+
+    private final Long studyId;
+
+    private final Long accountId;
+}
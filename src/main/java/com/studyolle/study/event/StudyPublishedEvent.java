@@ -0,0 +1,14 @@
+package com.studyolle.study.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/** 스터디를 공개했을 때, 관심 주제나 지역이 맞는 사용자에게 알린다 **/
+@Getter
+@RequiredArgsConstructor
+public class StudyPublishedEvent {
+
+    private final Long studyId;
+
+    private final String path; // 스터디 화면을 보고 있는 브라우저에 보낼 때 (StudyEventStream)
+}
@@ -0,0 +1,18 @@
+package com.studyolle.study.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/** 공개된 스터디의 소개나 상태(종료, 인원 모집)가 바뀌었을 때, 스터디 멤버와 매니저에게 알린다 **/
+@Getter
+@RequiredArgsConstructor
+public class StudyUpdatedEvent {
+
+    private final Long studyId;
+
+    private final String path; // 스터디 화면을 보고 있는 브라우저에 보낼 때 (StudyEventStream)
+
+    private final String message; // 무엇이 바뀌었는지
+
+    private final Long accountId; // 바꾼 매니저, 본인에게는 알리지 않는다
+}
@@ -0,0 +1,27 @@
+package com.studyolle.study.view;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 구성원 화면의 멤버 한 페이지 (nickname 순)
+ * 다음 페이지는 OFFSET 대신 이 페이지의 마지막 nickname(next) 뒤부터 읽는다
+ */
+@Getter
+public class MemberPage {
+
+    private final List<MemberView> members;
+    private final String next; // 다음 페이지가 없으면 null
+    private final int total; // COUNT(*) 대신 Study.memberCount
+
+    MemberPage(List<MemberView> members, String next, int total) {
+        this.members = members;
+        this.next = next;
+        this.total = total;
+    }
+
+    public boolean hasNext() {
+        return next != null;
+    }
+}
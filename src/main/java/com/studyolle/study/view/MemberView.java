@@ -0,0 +1,24 @@
+package com.studyolle.study.view;
+
+import lombok.Getter;
+
+/** 스터디 화면의 매니저/멤버 한명, Account 엔티티 대신 화면에 보이는 값만 읽는다 (StudyRepository.findMembersById) **/
+@Getter
+public class MemberView {
+
+    private final Long id;
+    private final String nickname;
+    private final String profileImage; // ImageStore 에 저장한 이미지의 해시
+    private final String bio;
+
+    public MemberView(Long id, String nickname, String profileImage, String bio) {
+        this.id = id;
+        this.nickname = nickname;
+        this.profileImage = profileImage;
+        this.bio = bio;
+    }
+
+    long getWeight() {
+        return 96 + 2L * (StudyView.length(nickname) + StudyView.length(profileImage) + StudyView.length(bio));
+    }
+}
@@ -0,0 +1,82 @@
+package com.studyolle.study.view;
+
+import com.studyolle.account.UserAccount;
+import com.studyolle.domain.Study;
+import com.studyolle.domain.Zone;
+import com.studyolle.tag.Tag;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * study/view, study/members 화면에서 쓰는 스터디 (읽기 전용)
+ * fragments.html 의 study-info, study-banner, study-menu, member-list 가 Study 엔티티 대신 그대로 쓸 수 있게 같은 이름의 getter 를 둔다
+ * 요청마다 바뀌는 값(로그인한 사용자, 가입 여부)은 들고 있지 않아서 StudyViewService 에서 스터디 path 별로 캐시한다
+ */
+@Getter
+public class StudyView {
+
+    private final Long id;
+    private final String path;
+    private final String title;
+    private final String shortDescription;
+    private final String fullDescription;
+    private final String image;
+    private final boolean useBanner;
+    private final boolean published;
+    private final boolean closed;
+    private final boolean recruiting;
+    private final LocalDateTime publishedDateTime;
+    private final int memberCount;
+    private final List<Tag> tags;
+    private final List<Zone> zones;
+    private final List<MemberView> managers;
+    private final Set<Long> managerIds;
+    private final long weight; // 캐시에서 차지하는 대략적인 바이트 수 (StudyViewCache)
+
+    StudyView(Study study, List<Tag> tags, List<Zone> zones, List<MemberView> managers) {
+        this.id = study.getId();
+        this.path = study.getPath();
+        this.title = study.getTitle();
+        this.shortDescription = study.getShortDescription();
+        this.fullDescription = study.getFullDescription();
+        this.image = study.getImage();
+        this.useBanner = study.isUseBanner();
+        this.published = study.isPublished();
+        this.closed = study.isClosed();
+        this.recruiting = study.isRecruiting();
+        this.publishedDateTime = study.getPublishedDateTime();
+        this.memberCount = study.getMemberCount();
+        this.tags = List.copyOf(tags);
+        this.zones = List.copyOf(zones);
+        this.managers = List.copyOf(managers);
+        this.managerIds = managers.stream().map(MemberView::getId).collect(Collectors.toUnmodifiableSet());
+        this.weight = estimateWeight();
+    }
+
+    /** Study.isJoinable 과 같음, 가입 여부(member)는 캐시하지 않고 요청마다 StudyViewService.isMember 로 확인한다 **/
+    public boolean isJoinable(Long accountId, boolean member) {
+        return this.published && this.recruiting && !member && !this.managerIds.contains(accountId);
+    }
+
+    public boolean isManager(UserAccount userAccount) {
+        return this.managerIds.contains(userAccount.getId());
+    }
+
+    /** 문자열은 글자당 2바이트, 객체와 컬렉션 항목은 고정 크기로 어림잡는다 **/
+    private long estimateWeight() {
+        long weight = 256 + 2L * (length(title) + length(shortDescription) + length(fullDescription));
+        weight += 64L * (tags.size() + zones.size());
+        for (MemberView member : managers) {
+            weight += member.getWeight();
+        }
+        return weight;
+    }
+
+    static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
@@ -0,0 +1,78 @@
+package com.studyolle.study.view;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * 스터디 path -> StudyView LRU 캐시
+ * 개수(maxEntries)와 무게(StudyView.getWeight 의 합, maxWeight) 둘 중 하나라도 넘으면 가장 오래 안 쓴 것부터 뺀다
+ * 멤버가 아주 많은 스터디 하나가 캐시를 다 비우지 않도록 maxWeight 의 1/8 보다 무거운 스터디는 넣지 않는다
+ */
+class StudyViewCache {
+
+    private final int maxEntries;
+    private final long maxWeight;
+    private final long maxEntryWeight;
+    private final LinkedHashMap<String, StudyView> entries = new LinkedHashMap<>(16, 0.75f, true); // 접근 순서
+    private long currentWeight;
+    private long evictions;
+
+    StudyViewCache(int maxEntries, long maxWeight) {
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.maxEntryWeight = maxWeight / 8;
+    }
+
+    synchronized StudyView get(String path) {
+        return entries.get(path);
+    }
+
+    synchronized void put(String path, StudyView view) {
+        if (view.getWeight() > maxEntryWeight) {
+            return;
+        }
+
+        StudyView previous = entries.put(path, view);
+        currentWeight += view.getWeight() - (previous == null ? 0 : previous.getWeight());
+
+        Iterator<Map.Entry<String, StudyView>> eldest = entries.entrySet().iterator();
+        while ((currentWeight > maxWeight || entries.size() > maxEntries) && eldest.hasNext()) {
+            currentWeight -= eldest.next().getValue().getWeight();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    synchronized void remove(String path) {
+        StudyView removed = entries.remove(path);
+        if (removed != null) {
+            currentWeight -= removed.getWeight();
+        }
+    }
+
+    synchronized void removeIf(Predicate<StudyView> predicate) {
+        Iterator<StudyView> views = entries.values().iterator();
+        while (views.hasNext()) {
+            StudyView view = views.next();
+            if (predicate.test(view)) {
+                currentWeight -= view.getWeight();
+                views.remove();
+            }
+        }
+    }
+
+    synchronized long getCurrentWeight() {
+        return currentWeight;
+    }
+
+    /** 공간이 모자라서 뺀 횟수, 스터디가 바뀌어서 지운 것(remove)은 세지 않음 **/
+    synchronized long getEvictions() {
+        return evictions;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,151 @@
+package com.studyolle.study.view;
+
+import com.studyolle.config.AppProperties;
+import com.studyolle.domain.Account;
+import com.studyolle.domain.Study;
+import com.studyolle.study.StudyRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 스터디 화면용 읽기 모델
+ * Study.withAll 은 tags, zones, managers, members 를 한번에 left join 해서 (tags x zones x managers x members) 만큼 row 가 나오고
+ * 멤버마다 Account 엔티티를 통째로 읽는다
+ * 여기서는 스터디 한 건과 각 컬렉션을 따로 (매니저는 화면에 필요한 값만) 읽어서 row 가 (1 + tags + zones + managers) 로 끝난다
+ * 멤버 목록은 getMembers 로 한 페이지씩 읽고, 로그인한 사용자의 가입 여부는 isMember 로 요청마다 확인한다
+ *
+ * 만든 StudyView 는 path 별로 StudyViewCache (개수, 무게 제한 LRU) 에 넣어두고
+ * StudyService 에서 스터디를 바꾸면 커밋 뒤에 evict 로 지운다, 매니저가 프로필을 바꿔도 (evictManagedBy)
+ * 지표: studyolle.cache.gets (result=hit/miss), studyolle.cache.evictions, studyolle.cache.size, studyolle.cache.weight (cache=study-view)
+ */
+@Service
+@Transactional(readOnly = true)
+public class StudyViewService {
+
+    private static final String CACHE_NAME = "study-view";
+
+    static final int MEMBER_PAGE_SIZE = 20;
+
+    private final StudyRepository studyRepository;
+    private final StudyViewCache cache;
+    private final AtomicLong version = new AtomicLong(); // 읽는 도중에 evict 되면 캐시하지 않기 위함
+    private final Counter hits;
+    private final Counter misses;
+
+    public StudyViewService(StudyRepository studyRepository, AppProperties appProperties, MeterRegistry meterRegistry) {
+        this.studyRepository = studyRepository;
+        this.cache = new StudyViewCache(appProperties.getStudyViewCacheSize(), appProperties.getStudyViewCacheWeight().toBytes());
+        this.hits = meterRegistry.counter("studyolle.cache.gets", "cache", CACHE_NAME, "result", "hit");
+        this.misses = meterRegistry.counter("studyolle.cache.gets", "cache", CACHE_NAME, "result", "miss");
+        FunctionCounter.builder("studyolle.cache.evictions", cache, StudyViewCache::getEvictions)
+                .tag("cache", CACHE_NAME).register(meterRegistry);
+        Gauge.builder("studyolle.cache.size", cache, StudyViewCache::size)
+                .tag("cache", CACHE_NAME).register(meterRegistry);
+        Gauge.builder("studyolle.cache.weight", cache, StudyViewCache::getCurrentWeight)
+                .tag("cache", CACHE_NAME).register(meterRegistry);
+    }
+
+    public StudyView getStudyView(String path) {
+        StudyView view = cache.get(path);
+        if (view != null) {
+            hits.increment();
+            return view;
+        }
+
+        misses.increment();
+        long loadedVersion = version.get();
+        view = load(path);
+        synchronized (this) {
+            if (version.get() == loadedVersion) {
+                cache.put(path, view);
+            }
+        }
+        return view;
+    }
+
+    /** 스터디를 바꾼 트랜잭션이 커밋된 뒤에 지운다, 그 사이에 읽은 값은 캐시에 넣지 않는다 **/
+    public void evict(String path) {
+        version.incrementAndGet();
+        afterCommit(() -> {
+            synchronized (this) {
+                version.incrementAndGet();
+                cache.remove(path);
+            }
+        });
+    }
+
+    /** 한 트랜잭션에서 여러 스터디를 바꿨을 때 (StudyLifecycleSweeper), 커밋 뒤에 한번에 지운다 **/
+    public void evict(Collection<String> paths) {
+        version.incrementAndGet();
+        afterCommit(() -> {
+            synchronized (this) {
+                version.incrementAndGet();
+                paths.forEach(cache::remove);
+            }
+        });
+    }
+
+    /** 매니저의 닉네임, 프로필이 바뀌면 그 계정이 매니저인 스터디를 커밋 뒤에 모두 지운다 (AccountService) **/
+    public void evictManagedBy(Long accountId) {
+        version.incrementAndGet();
+        afterCommit(() -> {
+            synchronized (this) {
+                version.incrementAndGet();
+                cache.removeIf(view -> view.getManagerIds().contains(accountId));
+            }
+        });
+    }
+
+    private StudyView load(String path) {
+        Study study = studyRepository.findStudyOnlyByPath(path);
+        if (study == null) {
+            throw new IllegalArgumentException(path + "에 해당하는 스터디가 없습니다.");
+        }
+
+        Long id = study.getId();
+        return new StudyView(study, studyRepository.findTagsById(id), studyRepository.findZonesById(id),
+                studyRepository.findManagersById(id));
+    }
+
+    /** 멤버 수와 상관없이 로그인한 사용자 한명만 확인한다 **/
+    public boolean isMember(StudyView view, Account account) {
+        return account != null && studyRepository.existsMemberById(view.getId(), account.getId());
+    }
+
+    /** after(nickname) 뒤의 멤버 MEMBER_PAGE_SIZE 명, 다음 페이지가 있는지 보려고 한명 더 읽는다 **/
+    public MemberPage getMembers(StudyView view, String after) {
+        List<MemberView> members = studyRepository.findMembersAfter(view.getId(), after == null ? "" : after,
+                PageRequest.of(0, MEMBER_PAGE_SIZE + 1));
+        if (members.size() <= MEMBER_PAGE_SIZE) {
+            return new MemberPage(members, null, view.getMemberCount());
+        }
+
+        List<MemberView> page = members.subList(0, MEMBER_PAGE_SIZE);
+        return new MemberPage(page, page.get(MEMBER_PAGE_SIZE - 1).getNickname(), view.getMemberCount());
+    }
+
+    private void afterCommit(Runnable runnable) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            runnable.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                runnable.run();
+            }
+        });
+    }
+}
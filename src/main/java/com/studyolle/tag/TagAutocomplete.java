@@ -0,0 +1,73 @@
+package com.studyolle.tag;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 태그 자동완성
+ * 애플리케이션이 뜰 때 태그별 사용 횟수로 TagTrie 를 만들고, 이후에는 태그가 생기거나 회원/스터디에 태그가 추가, 삭제될 때
+ * 해당 태그의 사용 횟수만 바꾼다 (커밋 이후에 반영)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TagAutocomplete {
+
+    private final TagRepository tagRepository;
+
+    private volatile TagTrie trie = new TagTrie();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        TagTrie newTrie = new TagTrie();
+        List<TagUsage> usages = tagRepository.findAllUsages();
+        usages.forEach(usage -> newTrie.add(usage.getTitle(), usage.getUsage()));
+        synchronized (this) {
+            this.trie = newTrie;
+        }
+        log.info("tag autocomplete built: {} tags", newTrie.size());
+    }
+
+    /** 많이 쓰인 순서로 prefix 로 시작하는 태그 제목 **/
+    public synchronized List<String> complete(String prefix, int limit) {
+        return trie.complete(prefix, limit).stream().map(TagTrie.Completion::getTitle).collect(Collectors.toList());
+    }
+
+    public void tagCreated(Tag tag) {
+        afterCommit(tag.getTitle(), 0);
+    }
+
+    public void tagUsed(Tag tag) {
+        afterCommit(tag.getTitle(), 1);
+    }
+
+    public void tagUnused(Tag tag) {
+        afterCommit(tag.getTitle(), -1);
+    }
+
+    private void afterCommit(String title, long delta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(title, delta);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(title, delta);
+            }
+        });
+    }
+
+    private synchronized void apply(String title, long delta) {
+        trie.add(title, delta);
+    }
+}
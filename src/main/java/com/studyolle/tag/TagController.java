@@ -0,0 +1,24 @@
+package com.studyolle.tag;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.util.List;
+
+@Controller
+@RequiredArgsConstructor
+public class TagController {
+
+    private final TagAutocomplete tagAutocomplete;
+
+    /** 태그 입력창(tagify)에서 글자를 입력할 때마다 호출 **/
+    @GetMapping("/tags/autocomplete")
+    @ResponseBody
+    public List<String> autocomplete(@RequestParam(defaultValue = "") String prefix,
+                                     @RequestParam(defaultValue = "10") int limit) {
+        return tagAutocomplete.complete(prefix.trim(), Math.max(0, Math.min(limit, TagTrie.MAX_COMPLETIONS)));
+    }
+}
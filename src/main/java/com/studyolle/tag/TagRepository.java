@@ -1,10 +1,18 @@
 package com.studyolle.tag;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 @Transactional(readOnly = true)
 public interface TagRepository extends JpaRepository<Tag, Long> {
 
     Tag findByTitle(String title);
+
+    @Query(value = "select t.title as title, count(u.tags_id) as usage from tag t " +
+            "left join (select tags_id from account_tags union all select tags_id from study_tags) u on u.tags_id = t.id " +
+            "group by t.id, t.title", nativeQuery = true)
+    List<TagUsage> findAllUsages();
 }
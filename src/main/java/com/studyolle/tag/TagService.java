@@ -10,11 +10,13 @@ import org.springframework.transaction.annotation.Transactional;
 public class TagService {
 
     private final TagRepository tagRepository;
+    private final TagAutocomplete tagAutocomplete;
 
     public Tag findOrCreateNew(String tagTitle) {
         Tag tag = tagRepository.findByTitle(tagTitle);
         if (tag == null) {
             tag = tagRepository.save(Tag.builder().title(tagTitle).build());
+            tagAutocomplete.tagCreated(tag);
         }
         return tag;
     }
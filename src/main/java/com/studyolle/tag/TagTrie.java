@@ -0,0 +1,117 @@
+package com.studyolle.tag;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 태그 제목 prefix 트리, 노드마다 그 아래에서 가장 많이 쓰인 태그 MAX_COMPLETIONS 개를 들고 있다
+ * 대소문자 구분 없이 찾기 위해 소문자로 바꾼 글자로 내려가지만 태그는 제목 그대로 따로 센다 ("Spring" 과 "spring" 은 다른 태그)
+ * 사용 횟수가 바뀌면 그 태그까지 가는 경로의 노드만 다시 계산하도록 표시해두고 다음 조회 때 계산한다
+ * 동기화는 하지 않으므로 TagAutocomplete 에서 감싸서 쓴다
+ */
+class TagTrie {
+
+    static final int MAX_COMPLETIONS = 10;
+
+    /** 많이 쓰인 순, 같으면 제목 순 **/
+    static final Comparator<Completion> BY_USAGE = Comparator.comparingLong(Completion::getUsage).reversed()
+            .thenComparing(Completion::getTitle);
+
+    static class Completion {
+
+        private final String title;
+        private long usage;
+
+        Completion(String title, long usage) {
+            this.title = title;
+            this.usage = usage;
+        }
+
+        String getTitle() {
+            return title;
+        }
+
+        long getUsage() {
+            return usage;
+        }
+    }
+
+    private static class Node {
+
+        private final Map<Character, Node> children = new HashMap<>();
+        private final Map<String, Completion> completions = new HashMap<>(); // 이 노드에서 끝나는 태그들, 제목 -> 사용 횟수
+        private List<Completion> top; // null 이면 다시 계산해야 함
+    }
+
+    private final Node root = new Node();
+    private int size;
+
+    /** 없는 태그면 추가, 있으면 사용 횟수를 delta 만큼 바꾼다 **/
+    void add(String title, long delta) {
+        List<Node> path = pathOf(title, true);
+        Node node = path.get(path.size() - 1);
+        Completion completion = node.completions.get(title);
+        if (completion == null) {
+            completion = new Completion(title, 0);
+            node.completions.put(title, completion);
+            size++;
+        }
+        completion.usage = Math.max(0, completion.usage + delta);
+        path.forEach(pathNode -> pathNode.top = null);
+    }
+
+    List<Completion> complete(String prefix, int limit) {
+        List<Node> path = pathOf(prefix, false);
+        if (path.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Completion> top = top(path.get(path.size() - 1));
+        return top.subList(0, Math.min(limit, top.size()));
+    }
+
+    int size() {
+        return size;
+    }
+
+    /** 루트부터 key 의 마지막 글자 노드까지, 중간에 없는 노드가 있으면 (create 가 아닐 때) 빈 목록 **/
+    private List<Node> pathOf(String key, boolean create) {
+        String normalized = key.toLowerCase(Locale.ROOT); // 대소문자 구분 없이 찾음, 내려가는 데만 쓴다
+        List<Node> path = new ArrayList<>(normalized.length() + 1);
+        Node node = root;
+        path.add(node);
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            Node child = node.children.get(c);
+            if (child == null) {
+                if (!create) {
+                    return Collections.emptyList();
+                }
+                child = new Node();
+                node.children.put(c, child);
+            }
+            node = child;
+            path.add(node);
+        }
+        return path;
+    }
+
+    /** 자식 노드들의 top 과 자기 태그를 합쳐서 상위 MAX_COMPLETIONS 개 **/
+    private List<Completion> top(Node node) {
+        if (node.top != null) {
+            return node.top;
+        }
+
+        List<Completion> candidates = new ArrayList<>(node.completions.values());
+        for (Node child : node.children.values()) {
+            candidates.addAll(top(child));
+        }
+        candidates.sort(BY_USAGE);
+        node.top = List.copyOf(candidates.subList(0, Math.min(MAX_COMPLETIONS, candidates.size())));
+        return node.top;
+    }
+}
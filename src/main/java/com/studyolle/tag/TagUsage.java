@@ -0,0 +1,11 @@
+package com.studyolle.tag;
+
+/**
+ * 태그별 사용 횟수 (회원 관심 태그 + 스터디 태그)
+ */
+public interface TagUsage {
+
+    String getTitle();
+
+    long getUsage();
+}
@@ -0,0 +1,22 @@
+package com.studyolle.whitelist;
+
+import lombok.Getter;
+import org.springframework.util.DigestUtils;
+
+/**
+ * 미리 JSON 으로 만들어 둔 지역 목록
+ * ETag 는 내용의 해시라서 서버를 다시 띄워도 내용이 같으면 브라우저 캐시를 그대로 쓸 수 있다
+ */
+@Getter
+public class Whitelist {
+
+    private final long version;
+    private final byte[] json;
+    private final String etag;
+
+    Whitelist(long version, byte[] json) {
+        this.version = version;
+        this.json = json;
+        this.etag = "\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+    }
+}
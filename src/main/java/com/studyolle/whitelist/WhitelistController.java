@@ -0,0 +1,37 @@
+package com.studyolle.whitelist;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * 지역 입력창에서 받아가는 whitelist (태그 입력창은 /tags/autocomplete 를 쓴다)
+ * 브라우저가 캐시해두고 매번 ETag 로 확인하게 해서(no-cache) 바뀌지 않았으면 304 만 내려간다
+ */
+@Controller
+@RequiredArgsConstructor
+public class WhitelistController {
+
+    private final WhitelistService whitelistService;
+
+    @GetMapping("/whitelist/zones")
+    public ResponseEntity<byte[]> zones(WebRequest webRequest) {
+        return response(whitelistService.getZones(), webRequest);
+    }
+
+    private ResponseEntity<byte[]> response(Whitelist whitelist, WebRequest webRequest) {
+        if (webRequest.checkNotModified(whitelist.getEtag())) {
+            return null; // 304
+        }
+
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(whitelist.getEtag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(whitelist.getJson());
+    }
+}
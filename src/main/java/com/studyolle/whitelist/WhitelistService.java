@@ -0,0 +1,79 @@
+package com.studyolle.whitelist;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.studyolle.zone.ZoneRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * 지역 입력창(tagify)의 whitelist
+ * 설정 화면을 열 때마다 zone 테이블을 전부 읽어서 JSON 으로 만들던 것을 한번만 만들어두고 /whitelist/zones 로 내려준다
+ * 지역을 다시 읽으면(ZoneService.reload) 커밋 후에 버전을 올려서 다음 요청 때 다시 만든다
+ * 태그는 전체 목록 대신 입력한 글자로 찾는다 (TagAutocomplete)
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WhitelistService {
+
+    private final ZoneRegistry zoneRegistry;
+    private final ObjectMapper objectMapper;
+
+    private final AtomicLong zoneVersion = new AtomicLong();
+    private final AtomicReference<Whitelist> zones = new AtomicReference<>();
+
+    public Whitelist getZones() {
+        return get(zones, zoneVersion, zoneRegistry::getZoneNames);
+    }
+
+    /** 트랜잭션 안에서 호출되면 커밋 후에 반영한다 (커밋 전에 다시 읽으면 바뀐 지역이 안 보임) **/
+    public void invalidateZones() {
+        afterCommit(zoneVersion::incrementAndGet);
+    }
+
+    private Whitelist get(AtomicReference<Whitelist> cache, AtomicLong version, Supplier<List<String>> loader) {
+        long current = version.get();
+        Whitelist whitelist = cache.get();
+        if (whitelist != null && whitelist.getVersion() == current) {
+            return whitelist;
+        }
+
+        // 읽는 도중에 버전이 올라가면 이번 결과는 이미 낡은 것이므로 캐시에 넣지 않는다
+        Whitelist loaded = new Whitelist(current, toJson(loader.get()));
+        if (version.get() == current) {
+            cache.set(loaded);
+        }
+        return loaded;
+    }
+
+    private byte[] toJson(List<String> values) {
+        try {
+            return objectMapper.writeValueAsBytes(values); // List<String> =>>> JSON ["a","b"]
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void afterCommit(Runnable runnable) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            runnable.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                runnable.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,86 @@
+package com.studyolle.zone;
+
+import com.studyolle.domain.Zone;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 지역(Zone) 목록
+ * 지역은 zones_kr.csv 로 한번 넣고 바뀌지 않는 데이터라서 메모리에 올려두고 조회할 때 DB 를 보지 않는다
+ * reload() 를 호출할 때만 다시 읽고, 읽은 결과는 통째로 바꿔 끼워서 조회하는 쪽에서 중간 상태를 보지 않게 한다
+ * 여기서 꺼낸 Zone 은 준영속 상태이므로 id 로만 연관관계를 맺는 용도로 쓴다 (값을 바꾸지 말 것)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ZoneRegistry {
+
+    private final ZoneRepository zoneRepository;
+
+    private volatile Zones zones = new Zones(List.of());
+
+    /** ZoneService 가 지역 데이터를 넣은 뒤에 호출 **/
+    public void reload() {
+        this.zones = new Zones(zoneRepository.findAll());
+        log.info("zone registry loaded: {} zones", zones.list.size());
+    }
+
+    public Optional<Zone> find(String city, String province) {
+        return Optional.ofNullable(zones.byCityAndProvince.get(key(city, province)));
+    }
+
+    public Optional<Zone> findById(Long id) {
+        return Optional.ofNullable(zones.byId.get(id));
+    }
+
+    /** ZoneForm 으로 들어오는 "city(localNameOfCity)/province" 형태 (Zone.toString) **/
+    public Optional<Zone> parse(String zoneName) {
+        if (zoneName == null) {
+            return Optional.empty();
+        }
+
+        int open = zoneName.indexOf('(');
+        int slash = zoneName.indexOf('/', open + 1);
+        if (open < 0 || slash < 0) {
+            return Optional.empty();
+        }
+        return find(zoneName.substring(0, open), zoneName.substring(slash + 1))
+                .filter(zone -> zone.toString().equals(zoneName));
+    }
+
+    /** 도시 이름 순 **/
+    public List<Zone> getZones() {
+        return zones.list;
+    }
+
+    public List<String> getZoneNames() {
+        return zones.names;
+    }
+
+    private static String key(String city, String province) {
+        return city + "/" + province;
+    }
+
+    private static class Zones {
+
+        private final List<Zone> list;
+        private final List<String> names;
+        private final Map<String, Zone> byCityAndProvince;
+        private final Map<Long, Zone> byId;
+
+        private Zones(List<Zone> zones) {
+            this.list = zones.stream().sorted(Comparator.comparing(Zone::getCity)).collect(Collectors.toUnmodifiableList());
+            this.names = list.stream().map(Zone::toString).collect(Collectors.toUnmodifiableList());
+            this.byCityAndProvince = Map.copyOf(list.stream().collect(Collectors.toMap(zone -> key(zone.getCity(), zone.getProvince()), Function.identity(), (first, second) -> first)));
+            this.byId = Map.copyOf(list.stream().collect(Collectors.toMap(Zone::getId, Function.identity())));
+        }
+    }
+}
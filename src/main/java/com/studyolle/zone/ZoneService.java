@@ -1,21 +1,16 @@
 package com.studyolle.zone;
 
 import com.studyolle.domain.Zone;
+import com.studyolle.infra.ReferenceDataLoader;
+import com.studyolle.infra.ReferenceDataSet;
+import com.studyolle.whitelist.WhitelistService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.io.ClassPathResource;
-import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.PostConstruct;
 import javax.transaction.Transactional;
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -23,6 +18,9 @@ import java.util.stream.Collectors;
 public class ZoneService {
 
     private final ZoneRepository zoneRepository;
+    private final ZoneRegistry zoneRegistry;
+    private final WhitelistService whitelistService;
+    private final ReferenceDataLoader referenceDataLoader;
 
 //    @PostConstruct
 //    public void initZoneData() throws IOException {
@@ -37,21 +35,23 @@ public class ZoneService {
 //        }
 //    }
 
+    /** zones_kr.csv 가 바뀌었을 때만 새 지역을 넣는다, 그대로면 체크섬만 확인하고 넘어감 **/
     @PostConstruct
     public void initZoneData() throws IOException {
-        if (zoneRepository.count() == 0) {
-            Resource resource = new ClassPathResource("zones_kr.csv");
-
-            InputStream zonesInputStream = resource.getInputStream();
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(zonesInputStream)) ) {
-                List<Zone> zoneList = reader.lines().map(line -> {
-                    String[] split = line.split(",");
-                    return Zone.builder().city(split[0]).localNameOfCity(split[1]).province(split[2]).build();
-                }).collect(Collectors.toList());
-
-                zoneRepository.saveAll(zoneList);
-            }
-        }
+        referenceDataLoader.load(ReferenceDataSet.<Zone>builder()
+                .name("zones")
+                .resource(new ClassPathResource("zones_kr.csv"))
+                .rowMapper(columns -> Zone.builder().city(columns[0]).localNameOfCity(columns[1]).province(columns[2]).build())
+                .keyOf(zone -> zone.getCity() + "/" + zone.getProvince())
+                .existingRows(zoneRepository::findAll)
+                .build());
+        zoneRegistry.reload(); // 이후 지역 조회는 DB 대신 ZoneRegistry 에서
+    }
+
+    /** 지역 테이블을 직접 바꾼 뒤 호출, 메모리에 올려둔 지역 목록과 입력창 whitelist 를 다시 만든다 **/
+    public void reload() {
+        zoneRegistry.reload();
+        whitelistService.invalidateZones();
     }
 
 
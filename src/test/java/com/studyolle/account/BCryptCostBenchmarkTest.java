@@ -0,0 +1,60 @@
+package com.studyolle.account;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * cost 별 BCrypt 해시 시간을 워밍업 뒤에 여러 번 재서 중앙값, 최댓값을 남긴다 (BCryptCost 가 고르는 값의 근거)
+ * 시간을 재는 테스트라 평소에는 돌지 않고 -Dbenchmark=true 일 때만 cost 10~12 를 5번씩,
+ * 더 재볼 때는 -Dbcrypt.max-cost=14 -Dbcrypt.iterations=20
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BCryptCostBenchmarkTest {
+
+    static final int MAX_COST = Integer.getInteger("bcrypt.max-cost", 12);
+    static final int ITERATIONS = Integer.getInteger("bcrypt.iterations", 5);
+    static final int WARM_UP = 3;
+
+    @DisplayName("cost 가 1 오르면 해시 시간이 늘어난다")
+    @Test
+    void hash_time_per_cost() {
+        Map<Integer, Long> medians = new LinkedHashMap<>();
+        for (int cost = BCryptCost.MIN_COST; cost <= MAX_COST; cost++) {
+            for (int i = 0; i < WARM_UP; i++) {
+                hash(cost);
+            }
+
+            long[] samples = new long[ITERATIONS];
+            for (int i = 0; i < ITERATIONS; i++) {
+                samples[i] = hash(cost);
+            }
+            Arrays.sort(samples);
+            long median = samples[ITERATIONS / 2];
+            medians.put(cost, median);
+            log.info("bcrypt cost {}: median {} us, max {} us over {} hashes", cost, median / 1000,
+                    samples[ITERATIONS - 1] / 1000, ITERATIONS);
+        }
+
+        for (int cost = BCryptCost.MIN_COST + 1; cost <= MAX_COST; cost++) {
+            assertTrue(medians.get(cost) > medians.get(cost - 1), "cost " + cost + " 이 " + (cost - 1) + " 보다 느리다");
+        }
+    }
+
+    /** @return 해시 한번에 걸린 시간 (ns) **/
+    private long hash(int cost) {
+        String salt = BCrypt.gensalt(cost);
+        long start = System.nanoTime();
+        BCrypt.hashpw("benchmark-password", salt);
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,95 @@
+package com.studyolle.account;
+
+import com.studyolle.account.form.SignUpForm;
+import com.studyolle.domain.Account;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.response.SecurityMockMvcResultMatchers.authenticated;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BoundedPasswordEncoderTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired AccountService accountService;
+    @Autowired AccountRepository accountRepository;
+    @Autowired PasswordEncoder passwordEncoder;
+
+    @AfterEach
+    void afterEach() {
+        accountRepository.deleteAll();
+    }
+
+    @DisplayName("작업자와 대기열이 모두 차면 기다리지 않고 실패하고, 낮은 cost 비밀번호를 다시 해시하지 않는다")
+    @Test
+    void reject_when_saturated() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        String lowCost = new BCryptPasswordEncoder(4).encode("old");
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(5) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.encode(rawPassword);
+            }
+        }, 1, 1);
+
+        try {
+            assertTrue(encoder.upgradeEncoding(lowCost));
+            new Thread(() -> encoder.encode("running")).start();
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            new Thread(() -> encoder.encode("queued")).start();
+            Thread.sleep(100);
+
+            assertThrows(PasswordHashBusyException.class, () -> encoder.encode("rejected"));
+            assertThrows(AuthenticationServiceException.class, () -> encoder.matches("rejected", "{bcrypt}"));
+            assertFalse(encoder.upgradeEncoding(lowCost)); // 다시 해시는 다음 로그인 때
+        } finally {
+            release.countDown();
+            encoder.shutdown();
+        }
+    }
+
+    @DisplayName("낮은 cost 로 저장된 비밀번호는 로그인할 때 다시 해시한다")
+    @Test
+    void rehash_on_login() throws Exception {
+        SignUpForm signUpForm = new SignUpForm();
+        signUpForm.setNickname("kyungtak");
+        signUpForm.setEmail("test01@naver.com");
+        signUpForm.setPassword("12341234");
+        Account account = accountService.processNewAccount(signUpForm);
+        account.setPassword("{bcrypt}" + new BCryptPasswordEncoder(4).encode("12341234"));
+        accountRepository.save(account);
+
+        mockMvc.perform(post("/login")
+                .param("username", "kyungtak")
+                .param("password", "12341234")
+                .with(csrf()))
+                .andExpect(authenticated().withUsername("kyungtak"));
+
+        String rehashed = accountRepository.findByNickname("kyungtak").getPassword();
+        assertFalse(rehashed.startsWith("{bcrypt}$2a$04$"));
+        assertFalse(passwordEncoder.upgradeEncoding(rehashed));
+        assertTrue(passwordEncoder.matches("12341234", rehashed));
+    }
+}
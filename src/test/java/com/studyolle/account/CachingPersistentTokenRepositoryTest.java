@@ -0,0 +1,115 @@
+package com.studyolle.account;
+
+import com.studyolle.infra.QueryCounter;
+import com.studyolle.infra.QueryStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.web.authentication.rememberme.PersistentRememberMeToken;
+
+import javax.servlet.http.Cookie;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class CachingPersistentTokenRepositoryTest {
+
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    CachingPersistentTokenRepository tokenRepository() {
+        return new CachingPersistentTokenRepository(jdbcTemplate, 2, Duration.ofDays(14));
+    }
+
+    @AfterEach
+    void afterEach() {
+        jdbcTemplate.update("DELETE FROM persistent_logins");
+    }
+
+    @DisplayName("최근에 쓴 시리즈는 DB 를 읽지 않는다")
+    @Test
+    void cached() {
+        CachingPersistentTokenRepository tokenRepository = tokenRepository();
+        tokenRepository.createNewToken(new PersistentRememberMeToken("kyungtak", "series", "token", new Date()));
+
+        QueryStats start = QueryCounter.current();
+        assertEquals("token", tokenRepository.getTokenForSeries("series").getTokenValue());
+        assertEquals(0, QueryCounter.current().minus(start).getStatements());
+
+        assertEquals("token", tokenRepository().getTokenForSeries("series").getTokenValue()); // 캐시가 없으면 DB 에서
+    }
+
+    @DisplayName("토큰 갱신은 바로 DB 에 쓰고 캐시도 바꾼다")
+    @Test
+    void write_through_updates() {
+        CachingPersistentTokenRepository tokenRepository = tokenRepository();
+        tokenRepository.createNewToken(new PersistentRememberMeToken("kyungtak", "series", "token", new Date()));
+
+        tokenRepository.updateToken("series", "token2", new Date());
+        assertEquals("token2", tokenInDb("series"));
+
+        QueryStats start = QueryCounter.current();
+        assertEquals("token2", tokenRepository.getTokenForSeries("series").getTokenValue());
+        assertEquals(0, QueryCounter.current().minus(start).getStatements());
+    }
+
+    @DisplayName("다른 서버가 바꾼 토큰으로 자동 로그인하면 캐시 대신 DB 에서 다시 읽어서 통과, 도난으로 보지 않는다")
+    @Test
+    void other_node_rotated_token() {
+        CachingPersistentTokenRepository node1 = tokenRepository();
+        CachingPersistentTokenRepository node2 = tokenRepository();
+        node1.createNewToken(new PersistentRememberMeToken("kyungtak", "series", "token", new Date()));
+        node2.updateToken("series", "token2", new Date()); // node1 의 캐시에는 아직 token
+        assertEquals("token", node1.getTokenForSeries("series").getTokenValue());
+
+        RevalidatingRememberMeServices rememberMeServices = new RevalidatingRememberMeServices("key",
+                username -> User.withUsername(username).password("password").roles("USER").build(), node1);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(new Cookie("remember-me",
+                Base64.getEncoder().encodeToString("series:token2".getBytes(StandardCharsets.UTF_8))));
+
+        assertNotNull(rememberMeServices.autoLogin(request, new MockHttpServletResponse()));
+        assertNotNull(tokenInDb("series")); // 이 사용자의 토큰을 지우지 않았고
+        assertNotEquals("token2", tokenInDb("series")); // 새 토큰으로 바꿨다
+    }
+
+    @DisplayName("로그아웃하면 캐시와 DB 에서 모두 지운다")
+    @Test
+    void remove_user_tokens() {
+        CachingPersistentTokenRepository tokenRepository = tokenRepository();
+        tokenRepository.createNewToken(new PersistentRememberMeToken("kyungtak", "series", "token", new Date()));
+        tokenRepository.updateToken("series", "token2", new Date());
+
+        tokenRepository.removeUserTokens("kyungtak");
+
+        assertNull(tokenRepository.getTokenForSeries("series"));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM persistent_logins", Integer.class));
+    }
+
+    @DisplayName("유효 기간이 지난 시리즈를 지운다")
+    @Test
+    void purge_expired() {
+        CachingPersistentTokenRepository tokenRepository = tokenRepository();
+        tokenRepository.createNewToken(new PersistentRememberMeToken("kyungtak", "old", "token", new Date(System.currentTimeMillis() - Duration.ofDays(15).toMillis())));
+        tokenRepository.createNewToken(new PersistentRememberMeToken("kyungtak", "new", "token", new Date()));
+
+        tokenRepository.purgeExpiredTokens();
+
+        assertNull(tokenInDb("old"));
+        assertEquals("token", tokenInDb("new"));
+    }
+
+    private String tokenInDb(String series) {
+        return jdbcTemplate.query("SELECT token FROM persistent_logins WHERE series = ?",
+                rs -> rs.next() ? rs.getString("token") : null, series);
+    }
+}
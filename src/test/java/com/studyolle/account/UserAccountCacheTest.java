@@ -0,0 +1,89 @@
+package com.studyolle.account;
+
+import com.studyolle.account.form.SignUpForm;
+import com.studyolle.config.AppProperties;
+import com.studyolle.domain.Account;
+import com.studyolle.infra.QueryCounter;
+import com.studyolle.infra.QueryStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class UserAccountCacheTest {
+
+    @Autowired AccountService accountService;
+    @Autowired AccountRepository accountRepository;
+    @Autowired PasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    void beforeEach() {
+        SignUpForm signUpForm = new SignUpForm();
+        signUpForm.setNickname("kyungtak");
+        signUpForm.setEmail("test01@naver.com");
+        signUpForm.setPassword("12341234");
+        accountService.processNewAccount(signUpForm);
+    }
+
+    @AfterEach
+    void afterEach() {
+        accountRepository.deleteAll();
+    }
+
+    @DisplayName("이메일, 닉네임 어느 쪽으로 로그인해도 두번째부터는 DB 를 읽지 않는다")
+    @Test
+    void cached_by_email_and_nickname() {
+        UserAccount byEmail = (UserAccount) accountService.loadUserByUsername("test01@naver.com");
+        byEmail.eraseCredentials(); // 인증이 끝나면 시큐리티가 지움
+
+        QueryStats start = QueryCounter.current();
+        UserAccount byNickname = (UserAccount) accountService.loadUserByUsername("kyungtak");
+        assertEquals(0, QueryCounter.current().minus(start).getStatements());
+        assertEquals(byEmail.getId(), byNickname.getId());
+        assertNotNull(byNickname.getPassword());
+
+        assertThrows(UsernameNotFoundException.class, () -> accountService.loadUserByUsername("nobody"));
+    }
+
+    @DisplayName("비밀번호, 닉네임을 바꾸면 캐시에서 지운다")
+    @Test
+    void invalidate() {
+        accountService.loadUserByUsername("kyungtak");
+        Account account = accountRepository.findByNickname("kyungtak");
+
+        accountService.updatePassword(account, "43214321");
+        assertTrue(passwordEncoder.matches("43214321", accountService.loadUserByUsername("kyungtak").getPassword()));
+
+        accountService.updateNickname(account, "kyungtak2");
+        assertThrows(UsernameNotFoundException.class, () -> accountService.loadUserByUsername("kyungtak"));
+        assertEquals("kyungtak2", accountService.loadUserByUsername("test01@naver.com").getUsername());
+    }
+
+    @DisplayName("다른 서버에서 바꾼 비밀번호는 지워주지 않으니 ttl 이 지나면 다시 읽는다")
+    @Test
+    void expires_after_ttl() throws Exception {
+        AppProperties appProperties = new AppProperties();
+        appProperties.setUserDetailsCacheTtl(Duration.ofMillis(200));
+        UserAccountCache cache = new UserAccountCache(appProperties);
+        UserAccount userAccount = new UserAccount(accountRepository.findByNickname("kyungtak"));
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("kyungtak", () -> { loads.incrementAndGet(); return userAccount; });
+        cache.get("kyungtak", () -> { loads.incrementAndGet(); return userAccount; });
+        assertEquals(1, loads.get());
+
+        Thread.sleep(300);
+        cache.get("kyungtak", () -> { loads.incrementAndGet(); return userAccount; });
+        assertEquals(2, loads.get());
+    }
+}
@@ -0,0 +1,160 @@
+package com.studyolle.image;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ImageControllerTest {
+
+    // 8 바이트 PNG 시그니처 + 아무 값 (내용 검사는 하지 않고 형식만 본다)
+    static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n', 0, 0, 0, 13, 'I', 'H', 'D', 'R'};
+
+    // 실행할 때마다 빈 디렉토리, 이전 실행에서 만든 이미지(크기별 이미지 포함)가 남아 있지 않게 한다
+    @TempDir
+    static Path imageDirectory;
+
+    @DynamicPropertySource
+    static void imageDirectory(DynamicPropertyRegistry registry) {
+        registry.add("app.image-directory", () -> imageDirectory.toString());
+    }
+
+    @Autowired MockMvc mockMvc;
+    @Autowired ImageService imageService;
+    @Autowired ImageStore imageStore;
+    @Autowired ImageVariantService imageVariantService;
+
+    @DisplayName("저장한 이미지 내려받기 - ETag 가 같으면 304")
+    @Test
+    void image() throws Exception {
+        String hash = imageService.store(PNG);
+        assertEquals(ImageStore.hash(PNG), hash);
+        assertEquals(hash, imageService.store(PNG)); // 같은 내용은 같은 해시
+
+        mockMvc.perform(get(ImageService.urlOf(hash)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("image/png"))
+                .andExpect(content().bytes(PNG))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + hash + "\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, ImageController.CACHE_CONTROL));
+
+        mockMvc.perform(get(ImageService.urlOf(hash)).header(HttpHeaders.IF_NONE_MATCH, "\"" + hash + "\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @DisplayName("크기별 이미지 - 긴 쪽을 size 에 맞춰서 줄인다")
+    @Test
+    void imageVariant() throws Exception {
+        BufferedImage banner = new BufferedImage(400, 200, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(banner, "png", out);
+        String hash = imageService.store(out.toByteArray());
+        awaitVariant(hash, ImageVariant.AVATAR); // 올리면 작업자 풀에서 만든다
+
+        byte[] avatar = mockMvc.perform(get(ImageService.urlOf(hash, 48)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("image/jpeg"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + hash + "_48\""))
+                .andReturn().getResponse().getContentAsByteArray();
+        BufferedImage resized = ImageIO.read(new ByteArrayInputStream(avatar));
+        assertEquals(48, resized.getWidth());
+        assertEquals(24, resized.getHeight());
+
+        // 원본보다 큰 크기는 원본 그대로
+        mockMvc.perform(get(ImageService.urlOf(hash, 1200)))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(out.toByteArray()));
+
+        // 읽을 수 없는 이미지도 원본 그대로
+        mockMvc.perform(get(ImageService.urlOf(imageService.store(PNG), 150)))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(PNG));
+
+        mockMvc.perform(get(ImageService.URL_PREFIX + hash + "/49"))
+                .andExpect(status().isNotFound());
+    }
+
+    @DisplayName("크기별 이미지를 아직 만들지 않았으면 기다리지 않고 원본을 잠깐만 캐시하게 내려준다")
+    @Test
+    void imageVariant_pending() throws Exception {
+        BufferedImage banner = new BufferedImage(300, 100, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(banner, "png", out);
+        String hash = imageStore.store(out.toByteArray()); // 크기별 이미지는 만들지 않고 원본만
+
+        mockMvc.perform(get(ImageService.urlOf(hash, 48)))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(out.toByteArray()))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, ImageController.PENDING_VARIANT_CACHE_CONTROL))
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+
+        awaitVariant(hash, ImageVariant.AVATAR); // 첫 요청이 만들기 시작했다
+        mockMvc.perform(get(ImageService.urlOf(hash, 48)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("image/jpeg"))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, ImageController.CACHE_CONTROL));
+    }
+
+    @DisplayName("압축을 풀면 너무 커지는 이미지는 디코딩하지 않는다")
+    @Test
+    void decode_too_many_pixels() throws Exception {
+        BufferedImage huge = new BufferedImage(8000, 6000, BufferedImage.TYPE_BYTE_BINARY); // 48M 픽셀, 파일은 몇 KB
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(huge, "png", out);
+
+        assertTrue(out.size() < 1024 * 1024);
+        assertTrue(ImageResizer.decode(out.toByteArray()).isEmpty());
+        assertTrue(ImageResizer.decode(png(100, 100)).isPresent());
+    }
+
+    @DisplayName("없는 이미지 - 404")
+    @Test
+    void image_not_found() throws Exception {
+        mockMvc.perform(get(ImageService.urlOf(ImageStore.hash(new byte[]{1, 2, 3}))))
+                .andExpect(status().isNotFound());
+    }
+
+    @DisplayName("data URL 이 아닌 값은 저장하지 않고, 해시는 지금 이미지와 같을 때만 받는다")
+    @Test
+    void toImageHash_wrong_value() {
+        String current = ImageStore.hash(new byte[]{1, 2, 3});
+        assertNull(imageService.toImageHash("", current));
+        assertEquals(current, imageService.toImageHash(current, current));
+        assertThrows(InvalidImageException.class,
+                () -> imageService.toImageHash("http://example.com/a.png", current));
+        assertThrows(InvalidImageException.class, // 없는 이미지나 다른 사람이 올린 이미지
+                () -> imageService.toImageHash(ImageStore.hash(new byte[]{4, 5, 6}), current));
+    }
+
+    private byte[] png(int width, int height) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+
+    /** 작업자 풀에서 크기별 이미지를 다 만들 때까지 **/
+    private void awaitVariant(String hash, ImageVariant variant) throws Exception {
+        for (int i = 0; i < 100 && imageVariantService.find(hash, variant).isEmpty(); i++) {
+            Thread.sleep(50);
+        }
+        assertTrue(imageVariantService.find(hash, variant).isPresent());
+    }
+}
@@ -0,0 +1,29 @@
+package com.studyolle.infra;
+
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * MockMvc 요청에서 실행한 SQL 수 확인 (QueryCountInterceptor 가 남긴 값)
+ * mockMvc.perform(get("/")).andExpect(maxQueryCount(2)) 처럼 엔드포인트별 SQL 수의 상한을 정해두면 N+1 이 생겼을 때 테스트가 깨진다
+ * 정확한 수를 고정하면 관계없는 지연 로딩 변경에도 깨지기 때문에 상한만 본다
+ */
+public final class QueryCountMatchers {
+
+    private QueryCountMatchers() {
+    }
+
+    public static ResultMatcher maxQueryCount(long max) {
+        return result -> {
+            QueryStats stats = statsOf(result.getRequest().getAttribute(QueryCountInterceptor.STATS_ATTRIBUTE));
+            assertTrue(stats.getStatements() <= max, "expected at most " + max + " queries but was " + stats);
+        };
+    }
+
+    private static QueryStats statsOf(Object attribute) {
+        assertNotNull(attribute, "no query stats, request did not reach a handler");
+        return (QueryStats) attribute;
+    }
+}
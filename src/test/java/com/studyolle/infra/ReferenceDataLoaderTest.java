@@ -0,0 +1,60 @@
+package com.studyolle.infra;
+
+import com.studyolle.domain.Zone;
+import com.studyolle.zone.ZoneRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Transactional
+@SpringBootTest
+class ReferenceDataLoaderTest {
+
+    @Autowired ReferenceDataLoader referenceDataLoader;
+    @Autowired ReferenceDataChecksumRepository checksumRepository;
+    @Autowired ZoneRepository zoneRepository;
+
+    @DisplayName("시작할 때 넣은 zones_kr.csv 는 다시 넣지 않는다")
+    @Test
+    void skip_unchanged() throws IOException {
+        long count = zoneRepository.count();
+
+        assertEquals(0, referenceDataLoader.load(zones("zones", new ClassPathResource("zones_kr.csv"))));
+        assertEquals(count, zoneRepository.count());
+        assertEquals(count, checksumRepository.findById("zones").orElseThrow().getInsertedRows());
+    }
+
+    @DisplayName("파일이 바뀌면 이미 있는 행은 두고 새 행만 넣는다")
+    @Test
+    void insert_new_rows() throws IOException {
+        long count = zoneRepository.count();
+        ByteArrayResource csv = new ByteArrayResource(("Andong,안동시,North Gyeongsang\n"
+                + "\n"
+                + "Testcity,\"테스트, 시\",Test\n").getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(1, referenceDataLoader.load(zones("zones-test", csv)));
+        assertEquals(0, referenceDataLoader.load(zones("zones-test", csv)));
+        assertEquals(count + 1, zoneRepository.count());
+        assertTrue(zoneRepository.findAll().stream().anyMatch(zone -> zone.getLocalNameOfCity().equals("테스트, 시")));
+    }
+
+    private ReferenceDataSet<Zone> zones(String name, Resource resource) {
+        return ReferenceDataSet.<Zone>builder()
+                .name(name)
+                .resource(resource)
+                .rowMapper(columns -> Zone.builder().city(columns[0]).localNameOfCity(columns[1]).province(columns[2]).build())
+                .keyOf(zone -> zone.getCity() + "/" + zone.getProvince())
+                .existingRows(zoneRepository::findAll)
+                .build();
+    }
+}
@@ -0,0 +1,91 @@
+package com.studyolle.mail;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 로그인 링크 메일을 한번에 많이 보낼 때처럼 mail/simple-link 를 연달아 렌더링해서
+ * 타임리프(templateEngine.process)와 미리 만든 조각(MailTemplateRenderer.render)의 시간을 비교한다
+ * 시간을 재는 테스트라 평소에는 돌지 않고 -Dbenchmark=true 일 때만, 묶음 크기는 -Dmail.burst=50000 처럼
+ */
+@Slf4j
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class MailTemplateRendererBenchmarkTest {
+
+    static final String TEMPLATE = "mail/simple-link";
+    static final int BURST = Integer.getInteger("mail.burst", 10_000);
+    static final int ROUNDS = 5;
+
+    @Autowired MailTemplateRenderer mailTemplateRenderer;
+    @Autowired TemplateEngine templateEngine;
+
+    @DisplayName("미리 만든 조각으로 렌더링하는 쪽이 타임리프보다 빠르다")
+    @Test
+    void render_burst() {
+        List<Map<String, Object>> burst = IntStream.range(0, BURST)
+                .mapToObj(this::variables)
+                .collect(Collectors.toList());
+
+        long thymeleaf = median(burst, this::process);
+        long compiled = median(burst, variables -> mailTemplateRenderer.render(TEMPLATE, variables));
+
+        log.info("{} x {}: thymeleaf median {} ms ({} us/mail), compiled median {} ms ({} us/mail), {}x",
+                BURST, TEMPLATE, thymeleaf / 1_000_000, thymeleaf / BURST / 1000,
+                compiled / 1_000_000, compiled / BURST / 1000, String.format("%.1f", (double) thymeleaf / compiled));
+        assertTrue(compiled < thymeleaf, "미리 만든 조각이 타임리프보다 빠르다");
+    }
+
+    /** 묶음 하나를 한번 돌려서 데우고 ROUNDS 번 잰 시간의 중앙값 (ns) **/
+    private long median(List<Map<String, Object>> burst, Function<Map<String, Object>, String> render) {
+        run(burst, render);
+
+        long[] samples = new long[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            samples[i] = run(burst, render);
+        }
+        Arrays.sort(samples);
+        return samples[ROUNDS / 2];
+    }
+
+    private long run(List<Map<String, Object>> burst, Function<Map<String, Object>, String> render) {
+        long length = 0;
+        long start = System.nanoTime();
+        for (Map<String, Object> variables : burst) {
+            length += render.apply(variables).length(); // 결과를 써서 JIT 가 렌더링을 없애지 않게
+        }
+        long elapsed = System.nanoTime() - start;
+        assertTrue(length > 0);
+        return elapsed;
+    }
+
+    private String process(Map<String, Object> variables) {
+        Context context = new Context();
+        variables.forEach(context::setVariable);
+        return templateEngine.process(TEMPLATE, context);
+    }
+
+    private Map<String, Object> variables(int index) {
+        return Map.of(
+                "link", "/login-by-email?token=" + index + "&email=user" + index + "@email.com",
+                "nickname", "user" + index,
+                "linkName", "스터디올래 로그인하기",
+                "message", "스터디올래 서비스를 사용하려면 링크를 클릭하세요.",
+                "host", "http://localhost:8080");
+    }
+}
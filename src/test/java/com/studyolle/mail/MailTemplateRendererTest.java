@@ -0,0 +1,45 @@
+package com.studyolle.mail;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class MailTemplateRendererTest {
+
+    @Autowired MailTemplateRenderer mailTemplateRenderer;
+    @Autowired TemplateEngine templateEngine;
+
+    @DisplayName("미리 렌더링한 결과가 타임리프 결과와 같다")
+    @Test
+    void render_same_as_thymeleaf() {
+        assertTrue(mailTemplateRenderer.compile("mail/simple-link", Set.of("link", "nickname", "linkName", "message", "host")).isPresent());
+
+        for (String nickname : new String[]{"tak", "<b>\"tak\" & 'kim'</b>", "스터디올래", ""}) {
+            Map<String, Object> variables = Map.of(
+                    "link", "/login-by-email?token=abc&email=" + nickname,
+                    "nickname", nickname,
+                    "linkName", "스터디올래 로그인하기",
+                    "message", "로그인 하려면 <링크>를 클릭하세요",
+                    "host", "http://localhost:8080");
+
+            Context context = new Context();
+            variables.forEach(context::setVariable);
+            assertEquals(templateEngine.process("mail/simple-link", context), mailTemplateRenderer.render("mail/simple-link", variables));
+        }
+    }
+
+    @DisplayName("th:replace 같은 처리가 있는 템플릿은 미리 렌더링하지 않는다")
+    @Test
+    void dynamic_template() {
+        assertTrue(mailTemplateRenderer.compile("index", Set.of()).isEmpty());
+    }
+}
@@ -0,0 +1,133 @@
+package com.studyolle.mail;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.time.LocalDateTime;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+
+@SpringBootTest
+class OutboxEmailDispatcherTest {
+
+    @MockBean @Qualifier(EmailService.TRANSPORT) EmailService transport;
+    @Autowired EmailService emailService;
+    @Autowired OutboxEmailRepository outboxEmailRepository;
+    @Autowired OutboxEmailDispatcher outboxEmailDispatcher;
+
+    @AfterEach
+    void afterEach() {
+        outboxEmailRepository.deleteAll();
+    }
+
+    @DisplayName("커밋 후에 outbox 에 쌓인 메일을 보낸다")
+    @Test
+    void sendAfterCommit() throws Exception {
+        given(transport.sendEmails(anyList())).willReturn(new IdentityHashMap<>());
+
+        emailService.sendEmail(emailMessage());
+
+        waitUntil(() -> outboxEmailRepository.countByStatus(OutboxEmail.Status.SENT) == 1);
+        then(transport).should().sendEmails(anyList());
+        assertNull(outboxEmailRepository.findAll().get(0).getMessage()); // 보낸 본문은 남기지 않는다
+    }
+
+    @DisplayName("app.mail-retention 보다 오래된 SENT, DEAD 메일만 지운다")
+    @Test
+    void purge() {
+        LocalDateTime old = LocalDateTime.now().minusDays(8);
+        OutboxEmail oldSent = OutboxEmail.of(emailMessage(), old);
+        oldSent.sent(old);
+        OutboxEmail oldDead = OutboxEmail.of(emailMessage(), old);
+        for (int i = 0; i < OutboxEmail.MAX_ATTEMPTS; i++) {
+            oldDead.failed(new IllegalStateException("smtp down"), old);
+        }
+        OutboxEmail recentSent = OutboxEmail.of(emailMessage(), LocalDateTime.now());
+        recentSent.sent(LocalDateTime.now());
+        OutboxEmail oldSending = OutboxEmail.of(emailMessage(), old); // 아직 보내는 중
+        oldSending.claim(LocalDateTime.now().plusMinutes(5));
+        outboxEmailRepository.saveAll(List.of(oldSent, oldDead, recentSent, oldSending));
+
+        outboxEmailDispatcher.purge();
+
+        assertEquals(1, outboxEmailRepository.countByStatus(OutboxEmail.Status.SENT));
+        assertEquals(0, outboxEmailRepository.countByStatus(OutboxEmail.Status.DEAD));
+        assertEquals(1, outboxEmailRepository.countByStatus(OutboxEmail.Status.SENDING));
+    }
+
+    @DisplayName("보내지 못한 메일은 나중에 다시 보낸다")
+    @Test
+    void retryLater() throws Exception {
+        given(transport.sendEmails(anyList())).willAnswer(invocation -> {
+            Map<EmailMessage, Exception> failures = new IdentityHashMap<>();
+            List<EmailMessage> emailMessages = invocation.getArgument(0);
+            emailMessages.forEach(emailMessage -> failures.put(emailMessage, new IllegalStateException("smtp down")));
+            return failures;
+        });
+
+        emailService.sendEmail(emailMessage());
+
+        waitUntil(() -> outboxEmailRepository.findAll().get(0).getAttempts() == 1);
+        OutboxEmail outboxEmail = outboxEmailRepository.findAll().get(0);
+        assertEquals(OutboxEmail.Status.PENDING, outboxEmail.getStatus());
+        assertTrue(outboxEmail.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        assertTrue(outboxEmail.getLastError().contains("smtp down"));
+    }
+
+    @DisplayName("다른 서버가 집어간 메일은 임대가 끝날 때까지 보내지 않고, 끝나면 다시 집어가서 보낸다")
+    @Test
+    void claimedByAnotherDispatcher() {
+        given(transport.sendEmails(anyList())).willReturn(new IdentityHashMap<>());
+        OutboxEmail outboxEmail = OutboxEmail.of(emailMessage(), LocalDateTime.now());
+        outboxEmail.claim(LocalDateTime.now().plusMinutes(5));
+        outboxEmailRepository.save(outboxEmail);
+
+        outboxEmailDispatcher.drain();
+        then(transport).should(never()).sendEmails(anyList());
+        assertEquals(OutboxEmail.Status.SENDING, outboxEmailRepository.findAll().get(0).getStatus());
+
+        outboxEmail = outboxEmailRepository.findAll().get(0);
+        outboxEmail.claim(LocalDateTime.now().minusSeconds(1)); // 그 서버가 보내다 죽어서 임대가 끝남
+        outboxEmailRepository.save(outboxEmail);
+
+        outboxEmailDispatcher.drain();
+        then(transport).should().sendEmails(anyList());
+        assertEquals(1, outboxEmailRepository.countByStatus(OutboxEmail.Status.SENT));
+    }
+
+    @DisplayName("MAX_ATTEMPTS 번 실패하면 DEAD")
+    @Test
+    void dead() {
+        OutboxEmail outboxEmail = OutboxEmail.of(emailMessage(), LocalDateTime.now());
+        for (int i = 0; i < OutboxEmail.MAX_ATTEMPTS; i++) {
+            assertEquals(OutboxEmail.Status.PENDING, outboxEmail.getStatus());
+            outboxEmail.failed(new IllegalStateException("smtp down"), LocalDateTime.now());
+        }
+        assertEquals(OutboxEmail.Status.DEAD, outboxEmail.getStatus());
+        assertNull(outboxEmail.getNextAttemptAt());
+    }
+
+    private EmailMessage emailMessage() {
+        return EmailMessage.builder().to("tak@email.com").subject("제목").message("본문").build();
+    }
+
+    private void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 100 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(50);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
@@ -2,7 +2,15 @@ package com.studyolle.main;
 
 import com.studyolle.account.AccountRepository;
 import com.studyolle.account.AccountService;
+import com.studyolle.account.UserAccount;
 import com.studyolle.account.form.SignUpForm;
+import com.studyolle.domain.Account;
+import com.studyolle.domain.Study;
+import com.studyolle.infra.QueryCountInterceptor;
+import com.studyolle.infra.QueryCounter;
+import com.studyolle.infra.QueryStats;
+import com.studyolle.study.StudyRepository;
+import com.studyolle.study.StudyService;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -10,12 +18,29 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import static com.studyolle.infra.QueryCountMatchers.maxQueryCount;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasProperty;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.security.test.web.servlet.response.SecurityMockMvcResultMatchers.authenticated;
 import static org.springframework.security.test.web.servlet.response.SecurityMockMvcResultMatchers.unauthenticated;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -28,6 +53,9 @@ class MainControllerTest {
     @Autowired MockMvc mockMvc;
     @Autowired AccountService accountService;
     @Autowired AccountRepository accountRepository;
+    @Autowired StudyService studyService;
+    @Autowired StudyRepository studyRepository;
+    @Autowired PlatformTransactionManager transactionManager;
 
 
     @BeforeEach // 한개의 테스트 시작 전
@@ -93,4 +121,69 @@ class MainControllerTest {
                 .andExpect(redirectedUrl("/"))
                 .andExpect(unauthenticated());
     }
-}
\ No newline at end of file
+
+    @DisplayName("프로필 화면은 계정 조회 한번으로 그린다")
+    @Test
+    void profile_query_count() throws Exception {
+        mockMvc.perform(get("/profile/kyungtak"))
+                .andExpect(status().isOk())
+                .andExpect(maxQueryCount(2)); // 계정 조회 한번 + 여유 하나, 태그, 지역을 뷰에서 지연 로딩하게 되면 깨짐
+    }
+
+    @DisplayName("세션에는 UserAccount 만 두고 Account 는 요청마다 읽는다")
+    @Test
+    void current_account_from_session() throws Exception {
+        MockHttpSession session = (MockHttpSession) mockMvc.perform(post("/login")
+                .param("username", "kyungtak")
+                .param("password", "12341234")
+                .with(csrf()))
+                .andReturn().getRequest().getSession();
+
+        SecurityContext securityContext = (SecurityContext) session.getAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY);
+        UserAccount userAccount = (UserAccount) securityContext.getAuthentication().getPrincipal();
+        assertEquals("kyungtak", userAccount.getNickname());
+        assertNull(userAccount.getPassword());
+
+        mockMvc.perform(get("/").session(session))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("account", hasProperty("nickname", equalTo("kyungtak"))))
+                .andExpect(maxQueryCount(2)); // 요청마다 계정 조회 한번 + 여유 하나
+    }
+
+    @DisplayName("로그인하지 않은 사용자의 첫 화면은 한번 그린 HTML 을 DB 조회 없이 그대로 준다")
+    @Test
+    void anonymous_landing_cached() throws Exception {
+        String first = mockMvc.perform(get("/"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        QueryStats start = QueryCounter.current();
+        MvcResult second = mockMvc.perform(get("/"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=60"))
+                .andExpect(content().contentType("text/html;charset=UTF-8"))
+                .andReturn();
+        assertEquals(0, QueryCounter.current().minus(start).getStatements());
+        assertNull(second.getRequest().getAttribute(QueryCountInterceptor.STATS_ATTRIBUTE)); // 컨트롤러까지 가지 않음
+        assertEquals(first, second.getResponse().getContentAsString());
+    }
+
+    @DisplayName("스터디를 공개하면 첫 화면의 최근 스터디에 나온다")
+    @Test
+    void landing_refreshed_on_publish() throws Exception {
+        Account manager = accountRepository.findByNickname("kyungtak");
+        Study study = new Study();
+        study.setPath("landing-study");
+        study.setTitle("첫 화면 스터디");
+        studyService.createNewStudy(study, manager);
+        mockMvc.perform(get("/")); // 공개 전 화면을 캐시해 둠
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                studyService.publish(studyService.getStudyToUpdateStatus(manager, "landing-study")));
+
+        mockMvc.perform(get("/"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("첫 화면 스터디")));
+        studyRepository.deleteAll();
+    }
+}
@@ -0,0 +1,133 @@
+package com.studyolle.notification;
+
+import com.studyolle.account.AccountRepository;
+import com.studyolle.account.UserAccount;
+import com.studyolle.config.AppProperties;
+import com.studyolle.domain.Account;
+import com.studyolle.domain.Study;
+import com.studyolle.infra.QueryCounter;
+import com.studyolle.infra.QueryStats;
+import com.studyolle.study.StudyRepository;
+import com.studyolle.study.StudyService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+
+import static org.hamcrest.Matchers.hasProperty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class NotificationControllerTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired StudyService studyService;
+    @Autowired StudyRepository studyRepository;
+    @Autowired AccountRepository accountRepository;
+    @Autowired NotificationFanOut notificationFanOut;
+    @Autowired NotificationRepository notificationRepository;
+    @Autowired UnreadNotificationCounter unreadNotificationCounter;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    Account account;
+
+    @BeforeEach
+    void beforeEach() {
+        account = accountRepository.save(Account.builder().nickname("kyungtak").email("kyungtak@email.com").password("12341234")
+                .studyUpdatedByWeb(true).build());
+        Study study = new Study();
+        study.setPath("test-study");
+        study.setTitle("테스트 스터디");
+        studyService.createNewStudy(study, account);
+
+        for (int i = 0; i < 3; i++) {
+            notificationFanOut.notify(study.getId(), NotificationType.STUDY_UPDATED, "스터디 소개를 수정했습니다.",
+                    NotificationFanOut.Audience.ACCOUNT, account.getId());
+        }
+    }
+
+    @AfterEach
+    void afterEach() {
+        studyRepository.deleteAll();
+        accountRepository.deleteAll();
+        unreadNotificationCounter.flush();
+    }
+
+    @DisplayName("읽지 않은 알림 수는 메모리에서 꺼내고, DB 에는 flush 할 때 쓴다")
+    @Test
+    void unread_count_without_query() throws Exception {
+        mockMvc.perform(get("/notifications").with(user(new UserAccount(account))))
+                .andExpect(status().isOk())
+                .andExpect(view().name("notification/list"))
+                .andExpect(model().attribute("unreadNotificationCount", 3L))
+                .andExpect(model().attribute("notificationPage", hasProperty("content", hasSize(3))));
+
+        QueryStats start = QueryCounter.current();
+        assertEquals(3, unreadNotificationCounter.get(account.getId()));
+        assertEquals(0, QueryCounter.current().minus(start).getStatements());
+
+        unreadNotificationCounter.flush();
+        assertEquals(3, unreadNotificationCount());
+    }
+
+    @DisplayName("모두 읽음은 UPDATE 한번, 읽지 않은 알림 수도 0")
+    @Test
+    void mark_all_read() throws Exception {
+        mockMvc.perform(post("/notifications/read").with(csrf()).with(user(new UserAccount(account))))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/notifications/old"));
+
+        assertEquals(0, unreadNotificationCounter.get(account.getId()));
+        assertEquals(3, notificationRepository.findByAccountIdAndCheckedOrderByCreatedDateTimeDesc(account.getId(), true,
+                PageRequest.of(0, 10)).getNumberOfElements());
+
+        unreadNotificationCounter.flush();
+        assertEquals(0, unreadNotificationCount());
+
+        mockMvc.perform(get("/notifications/old").with(user(new UserAccount(account))))
+                .andExpect(model().attribute("unreadNotificationCount", 0L));
+    }
+
+    @DisplayName("다른 서버가 DB 에 쓴 읽지 않은 알림 수는 ttl 이 지나서 다시 읽을 때 보인다")
+    @Test
+    void reload_after_ttl() throws Exception {
+        AppProperties appProperties = new AppProperties();
+        appProperties.setNotificationCounterTtl(Duration.ofMillis(500));
+        UnreadNotificationCounter thisServer = new UnreadNotificationCounter(jdbcTemplate, appProperties);
+        UnreadNotificationCounter otherServer = new UnreadNotificationCounter(jdbcTemplate, new AppProperties());
+        unreadNotificationCounter.flush(); // beforeEach 의 알림 3개
+
+        assertEquals(3, thisServer.get(account.getId()));
+        otherServer.add(account.getId(), 2);
+        otherServer.flush();
+        thisServer.add(account.getId(), 1); // 아직 flush 하지 않은 이 서버의 변화
+        assertEquals(4, thisServer.get(account.getId()));
+
+        Thread.sleep(600);
+        assertEquals(6, thisServer.get(account.getId())); // DB 의 5 + 이 서버의 1
+        thisServer.flush();
+        assertEquals(6, unreadNotificationCount());
+    }
+
+    private long unreadNotificationCount() {
+        return jdbcTemplate.queryForObject("SELECT unread_notification_count FROM account WHERE id = ?", Long.class, account.getId());
+    }
+}
@@ -0,0 +1,179 @@
+package com.studyolle.notification;
+
+import com.studyolle.account.AccountRepository;
+import com.studyolle.domain.Account;
+import com.studyolle.domain.Study;
+import com.studyolle.mail.OutboxEmailRepository;
+import com.studyolle.study.StudyRepository;
+import com.studyolle.study.StudyService;
+import com.studyolle.study.form.StudyDescriptionForm;
+import com.studyolle.tag.Tag;
+import com.studyolle.tag.TagRepository;
+import com.studyolle.tag.TagService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "app.notification-chunk-size=7") // 받을 사람이 여러 묶음으로 나뉘도록
+class NotificationFanOutTest {
+
+    @Autowired StudyService studyService;
+    @Autowired StudyRepository studyRepository;
+    @Autowired AccountRepository accountRepository;
+    @Autowired TagService tagService;
+    @Autowired TagRepository tagRepository;
+    @Autowired NotificationRepository notificationRepository;
+    @Autowired OutboxEmailRepository outboxEmailRepository;
+    @Autowired NotificationFanOutTaskRepository notificationFanOutTaskRepository;
+    @Autowired NotificationFanOut notificationFanOut;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    Account manager;
+    List<Account> accounts = new ArrayList<>();
+
+    @BeforeEach
+    void beforeEach() {
+        Tag spring = tagService.findOrCreateNew("Spring");
+        Tag jpa = tagService.findOrCreateNew("JPA");
+
+        manager = accountRepository.save(Account.builder().nickname("manager").email("manager@email.com").password("12341234")
+                .studyCreatedByWeb(true).studyUpdatedByWeb(true).tags(Set.of(spring)).build());
+        for (int i = 0; i < 20; i++) { // 관심 주제가 같은 사용자, 5명은 메일도 받는다
+            accounts.add(Account.builder().nickname("user" + i).email("user" + i + "@email.com").password("12341234")
+                    .studyCreatedByWeb(true).studyEnrollmentResultByWeb(true).studyUpdatedByWeb(true)
+                    .studyCreatedByEmail(i < 5).emailVerified(i < 5).tags(Set.of(spring)).build());
+        }
+        accounts.add(Account.builder().nickname("unverified").email("unverified@email.com").password("12341234")
+                .studyCreatedByEmail(true).tags(Set.of(spring)).build()); // 메일로만 받는데 이메일 인증을 안 함
+        accounts.add(Account.builder().nickname("other").email("other@email.com").password("12341234")
+                .studyCreatedByWeb(true).tags(Set.of(jpa)).build()); // 관심 주제가 다름
+        accountRepository.saveAll(accounts);
+
+        Study study = new Study();
+        study.setPath("test-study");
+        study.setTitle("테스트 스터디");
+        studyService.createNewStudy(study, manager);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                studyService.addTag(studyService.getStudyToUpdateTag(manager, "test-study"), spring));
+    }
+
+    @AfterEach
+    void afterEach() {
+        studyRepository.deleteAll();
+        accountRepository.deleteAll(); // 알림은 DB 에서 같이 지워짐
+        tagRepository.deleteAll();
+        outboxEmailRepository.deleteAll();
+        notificationFanOutTaskRepository.deleteAll();
+    }
+
+    @DisplayName("스터디를 공개하면 관심 주제가 같은 사용자에게 (매니저 제외) 웹 알림과 메일을 보낸다")
+    @Test
+    void publish() throws Exception {
+        long emails = outboxEmailRepository.count();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                studyService.publish(studyService.getStudyToUpdateStatus(manager, "test-study")));
+
+        awaitCount(notificationRepository::count, 20);
+        awaitCount(() -> outboxEmailRepository.count() - emails, 5);
+        assertEquals(0, notificationCount(manager.getId()));
+        assertEquals(1, notificationCount(accounts.get(0).getId()));
+        assertEquals(0, notificationCount(accounts.get(21).getId()));
+        assertEquals(0, notificationFanOutTaskRepository.count());
+    }
+
+    @DisplayName("공개하지 않은 스터디의 소개를 고치면 알리지 않고, 공개한 뒤에는 고친 매니저를 뺀 멤버에게 알린다")
+    @Test
+    void updateDescription() throws Exception {
+        Account member = accounts.get(0);
+        studyService.addMember(studyService.getStudyToJoin("test-study"), member);
+        awaitCount(notificationRepository::count, 1); // 가입 알림
+
+        StudyDescriptionForm form = new StudyDescriptionForm();
+        form.setShortDescription("짧은 소개");
+        form.setFullDescription("긴 소개");
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                studyService.updateStudyDescription(studyService.getStudyToUpdate(manager, "test-study"), form, manager));
+        awaitCount(notificationRepository::count, 1);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                studyService.publish(studyService.getStudyToUpdateStatus(manager, "test-study")));
+        awaitCount(notificationRepository::count, 21); // 공개 알림 20
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                studyService.updateStudyDescription(studyService.getStudyToUpdate(manager, "test-study"), form, manager));
+        awaitCount(notificationRepository::count, 22);
+        assertEquals(3, notificationCount(member.getId())); // 가입, 공개, 소개 수정
+        assertEquals(0, notificationCount(manager.getId()));
+    }
+
+    @DisplayName("이벤트를 발행한 트랜잭션이 롤백되면 보낼 알림(task)도 남지 않는다")
+    @Test
+    void rollback() throws Exception {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            studyService.publish(studyService.getStudyToUpdateStatus(manager, "test-study"));
+            status.setRollbackOnly();
+        });
+
+        awaitCount(notificationRepository::count, 0);
+        assertEquals(0, notificationFanOutTaskRepository.count());
+    }
+
+    @DisplayName("보내다 멈춘 알림은 임대가 끝나면 이미 보낸 사람 다음부터 다시 보낸다")
+    @Test
+    void resume() throws Exception {
+        Study study = studyRepository.findByPath("test-study");
+        LocalDateTime now = LocalDateTime.now();
+        NotificationFanOutTask task = notificationFanOutTaskRepository.save(NotificationFanOutTask.of(study.getId(),
+                NotificationType.STUDY_CREATED, "새로운 스터디가 생겼습니다.", NotificationFanOut.Audience.MATCHING_TAGS_OR_ZONES, null,
+                "crashed-server", now.minusMinutes(10), now.minusMinutes(5)));
+        jdbcTemplate.update("UPDATE notification_fan_out_task SET last_id = ? WHERE id = ?", accounts.get(9).getId(), task.getId());
+        long emails = outboxEmailRepository.count();
+
+        notificationFanOut.resume();
+
+        awaitCount(notificationRepository::count, 10); // user10 ~ user19
+        assertEquals(0, notificationCount(accounts.get(9).getId()));
+        assertEquals(1, notificationCount(accounts.get(10).getId()));
+        assertEquals(emails, outboxEmailRepository.count()); // 메일을 받는 user0 ~ user4 는 이미 보냈음
+        assertEquals(0, notificationFanOutTaskRepository.count());
+    }
+
+    @DisplayName("스터디에 가입하면 가입한 사용자에게만 알림")
+    @Test
+    void join() throws Exception {
+        Account member = accounts.get(0);
+        studyService.addMember(studyService.getStudyToJoin("test-study"), member);
+
+        awaitCount(notificationRepository::count, 1);
+        assertEquals(1, notificationCount(member.getId()));
+    }
+
+    private long notificationCount(Long accountId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notification WHERE account_id = ?", Long.class, accountId);
+    }
+
+    /** 알림은 커밋 뒤에 다른 스레드에서 보내므로 기다린다 **/
+    private void awaitCount(LongSupplier count, long expected) throws InterruptedException {
+        for (int i = 0; i < 100 && count.getAsLong() < expected; i++) {
+            Thread.sleep(50);
+        }
+        Thread.sleep(100); // 더 보내지 않는지
+        assertEquals(expected, count.getAsLong());
+    }
+}
@@ -0,0 +1,97 @@
+package com.studyolle.search;
+
+import com.studyolle.domain.Study;
+import com.studyolle.domain.Zone;
+import com.studyolle.tag.Tag;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StudySearchIndexTest {
+
+    StudySearchIndex studySearchIndex;
+
+    @BeforeEach
+    void beforeEach() {
+        studySearchIndex = new StudySearchIndex(null, null); // 색인 자체만 테스트 (rebuild 는 사용하지 않음)
+    }
+
+    @DisplayName("제목, 태그, 지역, 본문에 있는 검색어로 찾기 - 제목에 있는 스터디가 먼저")
+    @Test
+    void search_ranking() {
+        studySearchIndex.apply(StudyDocument.of(study(1L, "spring", "스프링 부트 스터디", "<p>JPA 와 함께 공부합니다</p>", "Spring")));
+        studySearchIndex.apply(StudyDocument.of(study(2L, "jpa", "JPA 스터디", "<p>스프링을 곁들인</p>", "JPA")));
+
+        Page<StudySearchResult> result = studySearchIndex.search("스프링", PageRequest.of(0, 10));
+
+        assertEquals(2, result.getTotalElements());
+        assertEquals("spring", result.getContent().get(0).getPath());
+        assertEquals("<mark>스프링</mark> 부트 스터디", result.getContent().get(0).getHighlightedTitle());
+        assertEquals(1, studySearchIndex.search("서울 jpa 함께", PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    @DisplayName("다시 색인하면 이전 내용으로는 찾을 수 없음, 공개하지 않은 스터디는 검색 안됨")
+    @Test
+    void reindex_and_unpublished() {
+        Study study = study(1L, "spring", "스프링 스터디", "본문", "Spring");
+        studySearchIndex.apply(StudyDocument.of(study));
+
+        study.setTitle("코틀린 스터디");
+        study.setShortDescription("코틀린 스터디 입니다");
+        studySearchIndex.apply(StudyDocument.of(study));
+        assertTrue(studySearchIndex.search("스프링", PageRequest.of(0, 10)).isEmpty());
+        assertEquals(1, studySearchIndex.search("코틀린", PageRequest.of(0, 10)).getTotalElements());
+
+        study.setPublished(false);
+        studySearchIndex.apply(StudyDocument.of(study));
+        assertTrue(studySearchIndex.search("코틀린", PageRequest.of(0, 10)).isEmpty());
+
+        studySearchIndex.delete(1L);
+        assertEquals(0, studySearchIndex.size());
+    }
+
+    @DisplayName("페이지 나누기")
+    @Test
+    void paging() {
+        for (long id = 1; id <= 25; id++) {
+            studySearchIndex.apply(StudyDocument.of(study(id, "study" + id, "스터디 " + id, "본문", "Java")));
+        }
+
+        Page<StudySearchResult> page = studySearchIndex.search("java", PageRequest.of(2, 9));
+        assertEquals(25, page.getTotalElements());
+        assertEquals(3, page.getTotalPages());
+        assertEquals(7, page.getContent().size());
+
+        Page<StudySearchResult> beyond = studySearchIndex.search("java", PageRequest.of(Integer.MAX_VALUE / 9 + 1, 9)); // page x size 가 int 범위를 넘음
+        assertEquals(25, beyond.getTotalElements());
+        assertTrue(beyond.getContent().isEmpty());
+    }
+
+    @DisplayName("하이라이트할 때 html 은 이스케이프")
+    @Test
+    void highlight_escape() {
+        assertEquals("&lt;b&gt;<mark>jpa</mark>&lt;/b&gt;",
+                StudySearchResult.highlight("<b>jpa</b>", SearchTokenizer.queryTerms("JPA")));
+    }
+
+    private Study study(Long id, String path, String title, String fullDescription, String tagTitle) {
+        Study study = new Study();
+        study.setId(id);
+        study.setPath(path);
+        study.setTitle(title);
+        study.setShortDescription(title + " 입니다");
+        study.setFullDescription(fullDescription);
+        study.setPublished(true);
+        study.setPublishedDateTime(LocalDateTime.now().minusDays(id));
+        study.getTags().add(Tag.builder().id(id).title(tagTitle).build());
+        study.getZones().add(Zone.builder().id(id).city("Seoul").localNameOfCity("서울특별시").province("none").build());
+        return study;
+    }
+}
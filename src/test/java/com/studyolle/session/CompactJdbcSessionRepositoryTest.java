@@ -0,0 +1,185 @@
+package com.studyolle.session;
+
+import com.studyolle.account.AccountRepository;
+import com.studyolle.account.AccountService;
+import com.studyolle.account.UserAccount;
+import com.studyolle.account.form.SignUpForm;
+import com.studyolle.domain.Account;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.security.web.csrf.DefaultCsrfToken;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.servlet.http.Cookie;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasProperty;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "app.session-store=jdbc")
+@AutoConfigureMockMvc
+class CompactJdbcSessionRepositoryTest {
+
+    private static final String CONTEXT = HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY;
+
+    @Autowired CompactJdbcSessionRepository sessionRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired MockMvc mockMvc;
+    @Autowired AccountService accountService;
+    @Autowired AccountRepository accountRepository;
+
+    @BeforeEach
+    void beforeEach() {
+        SignUpForm signUpForm = new SignUpForm();
+        signUpForm.setNickname("kyungtak");
+        signUpForm.setEmail("test01@naver.com");
+        signUpForm.setPassword("12341234");
+        accountService.processNewAccount(signUpForm);
+    }
+
+    @AfterEach
+    void afterEach() {
+        accountRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM app_session");
+    }
+
+    @DisplayName("로그인 정보, CSRF 토큰, 그 외 속성을 저장하고 다시 읽는다")
+    @Test
+    void save_and_find() {
+        CompactSession session = sessionRepository.createSession();
+        session.setAttribute(CONTEXT, securityContext());
+        session.setAttribute("_csrf", new DefaultCsrfToken("X-CSRF-TOKEN", "_csrf", "token"));
+        session.setAttribute("list", List.of("a", "b"));
+        sessionRepository.save(session);
+
+        CompactSession found = sessionRepository.findById(session.getId());
+        UserAccount userAccount = (UserAccount) ((SecurityContext) found.getAttribute(CONTEXT)).getAuthentication().getPrincipal();
+        assertEquals("kyungtak", userAccount.getNickname());
+        assertEquals("test01@naver.com", userAccount.getEmail());
+        assertEquals("token", ((DefaultCsrfToken) found.getAttribute("_csrf")).getToken());
+        assertEquals(List.of("a", "b"), found.getAttribute("list"));
+
+        byte[] attributes = jdbcTemplate.queryForObject("SELECT attributes FROM app_session WHERE session_id = ?", byte[].class, session.getId());
+        assertTrue(attributes.length < 400, "attributes " + attributes.length + " bytes");
+    }
+
+    @DisplayName("접근 시간만 바뀌면 모아두었다가 한번에 쓴다")
+    @Test
+    void batch_access_time() {
+        CompactSession session = sessionRepository.createSession();
+        sessionRepository.save(session);
+
+        CompactSession found = sessionRepository.findById(session.getId());
+        Instant accessed = found.getLastAccessedTime().plusSeconds(5);
+        found.setLastAccessedTime(accessed);
+        sessionRepository.save(found);
+
+        assertEquals(1, sessionRepository.pendingAccessTimes());
+        assertEquals(session.getLastAccessedTime().toEpochMilli(), lastAccessTime(session.getId()));
+        assertEquals(accessed, sessionRepository.findById(session.getId()).getLastAccessedTime());
+
+        sessionRepository.flushAccessTimes();
+        assertEquals(0, sessionRepository.pendingAccessTimes());
+        assertEquals(accessed.toEpochMilli(), lastAccessTime(session.getId()));
+    }
+
+    @DisplayName("세션 id 가 바뀌면 (로그인) 예전 id 로는 찾을 수 없다")
+    @Test
+    void change_session_id() {
+        CompactSession session = sessionRepository.createSession();
+        sessionRepository.save(session);
+        String oldId = session.getId();
+
+        CompactSession found = sessionRepository.findById(oldId);
+        found.changeSessionId();
+        sessionRepository.save(found);
+
+        assertNull(sessionRepository.findById(oldId));
+        assertNotNull(sessionRepository.findById(found.getId()));
+    }
+
+    @DisplayName("만료된 세션은 찾을 수 없다")
+    @Test
+    void expired() {
+        CompactSession session = sessionRepository.createSession();
+        session.setMaxInactiveInterval(Duration.ofSeconds(1));
+        session.setLastAccessedTime(Instant.now().minusSeconds(10));
+        sessionRepository.save(session);
+
+        assertNull(sessionRepository.findById(session.getId()));
+    }
+
+    @DisplayName("로그인 한 뒤 SESSION 쿠키로 다음 요청에서 로그인이 유지된다")
+    @Test
+    void login_with_session_cookie() throws Exception {
+        Cookie sessionCookie = mockMvc.perform(post("/login")
+                .param("username", "kyungtak")
+                .param("password", "12341234")
+                .with(csrf()))
+                .andExpect(status().is3xxRedirection())
+                .andReturn().getResponse().getCookie("SESSION");
+        assertNotNull(sessionCookie);
+
+        mockMvc.perform(get("/").cookie(sessionCookie))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("account", hasProperty("nickname", equalTo("kyungtak"))));
+    }
+
+    @DisplayName("로그인 한 세션을 읽고 저장하는 데 요청당 1ms 가 넘지 않는다")
+    @Test
+    void load() {
+        CompactSession session = sessionRepository.createSession();
+        session.setAttribute(CONTEXT, securityContext());
+        session.setAttribute("_csrf", new DefaultCsrfToken("X-CSRF-TOKEN", "_csrf", "token"));
+        sessionRepository.save(session);
+
+        for (int i = 0; i < 1_000; i++) { // 워밍업
+            touch(session.getId());
+        }
+        int requests = 5_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            touch(session.getId());
+        }
+        Duration perRequest = Duration.ofNanos((System.nanoTime() - start) / requests);
+
+        assertTrue(perRequest.compareTo(Duration.ofMillis(1)) < 0, "session overhead per request " + perRequest);
+    }
+
+    /** SessionRepositoryFilter 가 요청마다 하는 일 **/
+    private void touch(String id) {
+        CompactSession session = sessionRepository.findById(id);
+        assertNotNull(session.getAttribute(CONTEXT));
+        session.setLastAccessedTime(Instant.now());
+        sessionRepository.save(session);
+    }
+
+    private long lastAccessTime(String id) {
+        return jdbcTemplate.queryForObject("SELECT last_access_time FROM app_session WHERE session_id = ?", Long.class, id);
+    }
+
+    private SecurityContext securityContext() {
+        Account account = accountRepository.findByNickname("kyungtak");
+        UserAccount userAccount = new UserAccount(account);
+        userAccount.eraseCredentials();
+        return new SecurityContextImpl(new UsernamePasswordAuthenticationToken(userAccount, null, userAccount.getAuthorities()));
+    }
+}
@@ -0,0 +1,157 @@
+package com.studyolle.sse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.studyolle.config.AppProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SseConnectionsTest {
+
+    /** 보낸 이벤트를 모아두고, gate 가 열릴 때까지 보내지 못하는 (느린 브라우저) SseEmitter **/
+    static class RecordingEmitter extends SseEmitter {
+
+        final List<String> sent = new CopyOnWriteArrayList<>();
+        final CountDownLatch gate;
+        volatile boolean broken;
+
+        RecordingEmitter(CountDownLatch gate) {
+            this.gate = gate;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            if (broken) {
+                throw new IOException("Broken pipe");
+            }
+            sent.add(builder.build().stream().map(data -> data.getData().toString()).collect(Collectors.joining()));
+        }
+    }
+
+    MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    SseConnections sseConnections;
+
+    @BeforeEach
+    void beforeEach() {
+        AppProperties appProperties = new AppProperties();
+        appProperties.setSseMaxConnections(3);
+        appProperties.setSseQueueCapacity(5);
+        appProperties.setSseWriteTimeout(Duration.ofMillis(100));
+        sseConnections = new SseConnections(appProperties, new ObjectMapper(), meterRegistry);
+    }
+
+    @AfterEach
+    void afterEach() {
+        sseConnections.shutdown();
+    }
+
+    @DisplayName("토픽에 연결된 브라우저에만 보내고, 보낼 게 없으면 heartbeat")
+    @Test
+    void send_and_heartbeat() throws Exception {
+        RecordingEmitter account = new RecordingEmitter(new CountDownLatch(0));
+        RecordingEmitter other = new RecordingEmitter(new CountDownLatch(0));
+        sseConnections.connect("account:1", () -> account);
+        sseConnections.connect("account:2", () -> other);
+
+        sseConnections.send("account:1", "notification", Map.of("message", "새로운 스터디가 생겼습니다."));
+        await(() -> account.sent.size() == 2);
+        assertTrue(account.sent.get(0).contains(":heartbeat")); // 연결하자마자
+        assertTrue(account.sent.get(1).contains("event:notification"));
+        assertTrue(account.sent.get(1).contains("새로운 스터디가 생겼습니다."));
+
+        sseConnections.heartbeat();
+        await(() -> account.sent.size() == 3 && other.sent.size() == 2);
+        assertTrue(account.sent.get(2).contains(":heartbeat"));
+        assertTrue(other.sent.stream().allMatch(event -> event.contains(":heartbeat"))); // 다른 계정의 알림은 받지 않음
+    }
+
+    @DisplayName("못 받는 브라우저는 큐가 차면 끊고, 다른 연결은 영향을 받지 않는다")
+    @Test
+    void drop_slow_consumer() throws Exception {
+        CountDownLatch gate = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(gate);
+        RecordingEmitter fast = new RecordingEmitter(new CountDownLatch(0));
+        sseConnections.connect("study:spring", () -> slow);
+        sseConnections.connect("study:spring", () -> fast);
+
+        for (int i = 0; i < 10; i++) {
+            sseConnections.send("study:spring", "study", Map.of("message", "팀원 모집을 시작합니다."));
+            int sent = i + 2; // heartbeat 포함
+            await(() -> fast.sent.size() == sent); // 받는 쪽은 하나씩 받아가고
+        }
+
+        assertEquals(1, sseConnections.size());
+        assertEquals(1, meterRegistry.counter("studyolle.sse.dropped").count());
+        gate.countDown();
+    }
+
+    @DisplayName("이벤트 하나를 쓰는 데 app.sse-write-timeout 보다 오래 걸리는 연결은 목록에서 빠진다")
+    @Test
+    void close_stalled_write() throws Exception {
+        CountDownLatch gate = new CountDownLatch(1);
+        RecordingEmitter stalled = new RecordingEmitter(gate); // 첫 heartbeat 를 쓰다가 막힘
+        RecordingEmitter fast = new RecordingEmitter(new CountDownLatch(0));
+        sseConnections.connect("study:spring", () -> stalled);
+        sseConnections.connect("study:spring", () -> fast);
+
+        sseConnections.closeStalled();
+        assertEquals(2, sseConnections.size()); // 아직 타임아웃 전
+
+        Thread.sleep(200);
+        sseConnections.closeStalled();
+        assertEquals(1, sseConnections.size());
+        assertEquals(1, meterRegistry.counter("studyolle.sse.stalled").count());
+
+        sseConnections.send("study:spring", "study", Map.of("message", "팀원 모집을 시작합니다."));
+        await(() -> fast.sent.size() == 2);
+        gate.countDown();
+        Thread.sleep(50);
+        assertEquals(1, stalled.sent.size()); // 막혀 있던 heartbeat 만, 뒤의 이벤트는 쌓지 않았음
+    }
+
+    @DisplayName("끊긴 브라우저는 보내다 실패하면 목록에서 빠지고, 연결 수를 넘으면 거절")
+    @Test
+    void broken_and_full() throws Exception {
+        RecordingEmitter broken = new RecordingEmitter(new CountDownLatch(0));
+        broken.broken = true;
+        sseConnections.connect("account:1", () -> broken);
+        await(() -> sseConnections.size() == 0);
+        assertFalse(sseConnections.isConnected("account:1"));
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(sseConnections.connect("account:" + i, () -> new RecordingEmitter(new CountDownLatch(0))).isPresent());
+        }
+        assertFalse(sseConnections.connect("account:4", () -> new RecordingEmitter(new CountDownLatch(0))).isPresent());
+        assertEquals(1, meterRegistry.counter("studyolle.sse.rejected").count());
+        assertEquals(3.0, meterRegistry.get("studyolle.sse.connections").gauge().value());
+    }
+
+    private void await(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 100 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(20);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
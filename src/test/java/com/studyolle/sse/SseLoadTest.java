@@ -0,0 +1,176 @@
+package com.studyolle.sse;
+
+import com.studyolle.account.AccountRepository;
+import com.studyolle.account.AccountService;
+import com.studyolle.account.form.SignUpForm;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 실제 서버(랜덤 포트)에 SSE 연결을 열어두고 한 계정에 이벤트를 보내서 모든 연결이 받는지 본다
+ * 평소에는 200개로 돌고, 한 서버에 2만개를 잡아볼 때는 -Dsse.connections=20000 (ulimit -n 도 연결 수의 두배 이상으로)
+ */
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT) // 연결 수 설정은 운영과 같은 application.properties
+class SseLoadTest {
+
+    static final int CONNECTIONS = Integer.getInteger("sse.connections", 200);
+
+    /** 받은 바이트에서 "event:notification" 을 세기만 하는 구독자, 연결마다 스레드를 쓰지 않는다 **/
+    static class EventCounter implements Flow.Subscriber<List<ByteBuffer>> {
+
+        static final String EVENT = "event:notification";
+
+        final AtomicInteger received;
+        Flow.Subscription subscription;
+        String tail = "";
+
+        EventCounter(AtomicInteger received) {
+            this.received = received;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> buffers) {
+            StringBuilder text = new StringBuilder(tail);
+            buffers.forEach(buffer -> text.append(StandardCharsets.UTF_8.decode(buffer)));
+            for (int index = text.indexOf(EVENT); index >= 0; index = text.indexOf(EVENT, index + 1)) {
+                received.incrementAndGet();
+            }
+            // 이벤트 이름이 두 묶음에 걸쳐 올 때, 이름 전체는 남기지 않아야 두번 세지 않음
+            tail = text.substring(Math.max(0, text.length() - (EVENT.length() - 1)));
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+
+    @LocalServerPort int port;
+    @Autowired AccountService accountService;
+    @Autowired AccountRepository accountRepository;
+    @Autowired SseConnections sseConnections;
+
+    HttpClient httpClient;
+    List<EventCounter> counters = new ArrayList<>();
+
+    @BeforeEach
+    void beforeEach() {
+        SignUpForm signUpForm = new SignUpForm();
+        signUpForm.setNickname("kyungtak");
+        signUpForm.setEmail("test01@naver.com");
+        signUpForm.setPassword("12341234");
+        accountService.processNewAccount(signUpForm);
+
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1) // 연결 하나에 SSE 응답 하나
+                .cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+    }
+
+    @AfterEach
+    void afterEach() {
+        counters.forEach(counter -> counter.subscription.cancel());
+        accountRepository.deleteAll();
+    }
+
+    @DisplayName("SSE 연결을 스레드 없이 들고 있다가 모두에게 보낸다")
+    @Test
+    void hold_connections() throws Exception {
+        login("kyungtak", "12341234");
+        Long accountId = accountRepository.findByNickname("kyungtak").getId();
+
+        AtomicInteger received = new AtomicInteger();
+        List<CompletableFuture<HttpResponse<Flow.Publisher<List<ByteBuffer>>>>> responses = new ArrayList<>();
+        HttpRequest request = HttpRequest.newBuilder(uri("/events")).header("Accept", "text/event-stream").build();
+        long start = System.nanoTime();
+        for (int i = 0; i < CONNECTIONS; i++) {
+            responses.add(httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofPublisher()));
+        }
+        for (CompletableFuture<HttpResponse<Flow.Publisher<List<ByteBuffer>>>> future : responses) {
+            HttpResponse<Flow.Publisher<List<ByteBuffer>>> response = future.get(120, TimeUnit.SECONDS);
+            assertEquals(200, response.statusCode());
+            EventCounter counter = new EventCounter(received);
+            response.body().subscribe(counter);
+            counters.add(counter);
+        }
+        await(() -> sseConnections.size() == CONNECTIONS);
+
+        Runtime runtime = Runtime.getRuntime();
+        log.info("{} sse connections in {} ms, {} threads, {} MB heap used", CONNECTIONS,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), Thread.activeCount(),
+                (runtime.totalMemory() - runtime.freeMemory()) / 1024 / 1024);
+        assertTrue(Thread.activeCount() < 1_000, "연결마다 스레드를 쓰지 않음");
+
+        start = System.nanoTime();
+        sseConnections.send(SseConnections.accountTopic(accountId), "notification", Map.of("message", "새로운 스터디가 생겼습니다."));
+        await(() -> received.get() == CONNECTIONS);
+        log.info("sent to {} sse connections in {} ms", CONNECTIONS, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /** 로그인 화면의 CSRF 토큰으로 로그인, 세션 쿠키는 CookieManager 가 들고 있는다 **/
+    private void login(String username, String password) throws Exception {
+        String loginPage = httpClient.send(HttpRequest.newBuilder(uri("/login")).build(), HttpResponse.BodyHandlers.ofString()).body();
+        Matcher csrf = Pattern.compile("name=\"_csrf\" value=\"([^\"]+)\"").matcher(loginPage);
+        assertTrue(csrf.find());
+
+        String form = "username=" + URLEncoder.encode(username, StandardCharsets.UTF_8)
+                + "&password=" + URLEncoder.encode(password, StandardCharsets.UTF_8)
+                + "&_csrf=" + csrf.group(1);
+        HttpResponse<Void> response = httpClient.send(HttpRequest.newBuilder(uri("/login"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build(), HttpResponse.BodyHandlers.discarding());
+        assertEquals(302, response.statusCode());
+        assertTrue(response.headers().firstValue("Location").orElse("").endsWith("/"));
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private void await(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 1_200 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(100);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
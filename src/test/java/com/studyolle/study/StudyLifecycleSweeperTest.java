@@ -0,0 +1,142 @@
+package com.studyolle.study;
+
+import com.studyolle.account.AccountRepository;
+import com.studyolle.domain.Account;
+import com.studyolle.domain.Study;
+import com.studyolle.domain.StudyState;
+import com.studyolle.search.StudySearchIndex;
+import com.studyolle.search.StudySearchResult;
+import com.studyolle.sse.StudyEventStream;
+import com.studyolle.study.view.StudyViewService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.verify;
+
+@Slf4j
+@SpringBootTest
+class StudyLifecycleSweeperTest {
+
+    static final long BULK_FIRST_ID = 1_000_000;
+    static final boolean BENCHMARK = Boolean.getBoolean("benchmark"); // 걸린 시간까지 확인하려면 -Dbenchmark=true
+
+    @Autowired StudyLifecycleSweeper studyLifecycleSweeper;
+    @Autowired StudyService studyService;
+    @Autowired StudyStatusUpdater studyStatusUpdater;
+    @Autowired StudyRepository studyRepository;
+    @Autowired AccountRepository accountRepository;
+    @Autowired StudySearchIndex studySearchIndex;
+    @Autowired StudyViewService studyViewService;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @SpyBean StudyEventStream studyEventStream;
+
+    Account manager;
+
+    @BeforeEach
+    void beforeEach() {
+        manager = accountRepository.save(Account.builder().nickname("manager").email("manager@email.com").password("12341234").build());
+    }
+
+    @AfterEach
+    void afterEach() {
+        jdbcTemplate.update("DELETE FROM study WHERE id >= ?", BULK_FIRST_ID); // 엔티티로 하나씩 지우지 않게
+        studyRepository.deleteAll();
+        accountRepository.deleteAll();
+    }
+
+    @DisplayName("모집 기간이 지나면 모집을 마감하고, 그 뒤로 오래 지나면 종료한다 (검색 색인, 스터디 화면도)")
+    @Test
+    void stop_recruiting_and_close() {
+        Study study = new Study();
+        study.setPath("test-study");
+        study.setTitle("스프링 스터디");
+        studyService.createNewStudy(study, manager);
+        studyStatusUpdater.update(manager, "test-study", studyService::publish);
+        studyStatusUpdater.update(manager, "test-study", studyService::startRecruit);
+        assertTrue(studyViewService.getStudyView("test-study").isRecruiting());
+        long version = studyRepository.findByPath("test-study").getVersion();
+
+        LocalDateTime now = LocalDateTime.now();
+        assertEquals(0, studyLifecycleSweeper.sweep(now.plusDays(29)));
+
+        assertEquals(1, studyLifecycleSweeper.sweep(now.plusDays(31)));
+        study = studyRepository.findByPath("test-study");
+        assertEquals(StudyState.PUBLISHED, study.getState());
+        assertEquals(version + 1, study.getVersion()); // 화면에서 바꾸던 매니저는 다시 읽는다
+        assertFalse(studyViewService.getStudyView("test-study").isRecruiting());
+        assertFalse(searchResult().isRecruiting());
+        verify(studyEventStream).handleStudiesSwept(argThat(event -> event.getPaths().equals(List.of("test-study"))
+                && event.getMessage().equals("팀원 모집을 마감했습니다."))); // 스터디 화면을 보고 있는 브라우저
+
+        assertEquals(0, studyLifecycleSweeper.sweep(now.plusDays(31 + 364)));
+        assertEquals(1, studyLifecycleSweeper.sweep(now.plusDays(31 + 366)));
+        assertEquals(StudyState.CLOSED, studyRepository.findByPath("test-study").getState());
+        assertTrue(searchResult().isClosed());
+        verify(studyEventStream).handleStudiesSwept(argThat(event -> event.getPaths().equals(List.of("test-study"))
+                && event.getMessage().equals("스터디를 종료했습니다.")));
+    }
+
+    @DisplayName("스터디 10만개를 한번에 훑어서 모집 마감, 종료")
+    @Test
+    void sweep_100k_studies() {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp created = Timestamp.valueOf(now);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            boolean published = i % 3 != 0; // 1/3 은 공개 전, 1/3 은 모집중, 1/3 은 모집하지 않음
+            boolean recruiting = i % 3 == 1;
+            rows.add(new Object[]{BULK_FIRST_ID + i, "bulk-" + i, "스터디 " + i, published, published ? created : null,
+                    recruiting, recruiting ? created : null});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO study (id, version, path, title, published, published_date_time, recruiting, " +
+                "recruiting_updated_date_time, closed, use_banner, member_count) VALUES (?, 0, ?, ?, ?, ?, ?, ?, FALSE, FALSE, 0)", rows);
+
+        long start = System.nanoTime();
+        int swept = studyLifecycleSweeper.sweep(now.plusDays(400));
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("swept {} of 100000 studies in {} ms", swept, elapsed);
+
+        assertEquals(33_333 + 33_333, swept); // 모집 마감한 스터디는 이번에 바로 종료하지 않는다
+        assertEquals(0, count("recruiting = TRUE"));
+        assertEquals(33_333, count("closed = TRUE"));
+        assertEquals(33_333, count("recruiting_updated_date_time = ?", Timestamp.valueOf(now.plusDays(400))));
+        assertEquals(0, studyLifecycleSweeper.sweep(now.plusDays(400)));
+        if (BENCHMARK) { // CI 서버에서는 시간이 들쭉날쭉하기 때문에 로그만 남긴다
+            assertTrue(elapsed < 5_000, "10만개를 5초 안에");
+        }
+    }
+
+    private StudySearchResult searchResult() {
+        return studySearchIndex.search("스프링", PageRequest.of(0, 10)).getContent().get(0);
+    }
+
+    private long count(String condition, Object... args) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM study WHERE id >= ? AND " + condition, Long.class,
+                prepend(BULK_FIRST_ID, args));
+    }
+
+    private Object[] prepend(Object first, Object[] rest) {
+        Object[] args = new Object[rest.length + 1];
+        args[0] = first;
+        System.arraycopy(rest, 0, args, 1, rest.length);
+        return args;
+    }
+}
@@ -0,0 +1,166 @@
+package com.studyolle.study;
+
+import com.studyolle.account.AccountRepository;
+import com.studyolle.domain.Account;
+import com.studyolle.domain.Study;
+import com.studyolle.domain.StudyState;
+import com.studyolle.domain.StudyTransition;
+import com.studyolle.domain.StudyTransitionException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class StudyServiceTest {
+
+    @Autowired StudyService studyService;
+    @Autowired StudyRepository studyRepository;
+    @Autowired AccountRepository accountRepository;
+    @Autowired StudyStatusUpdater studyStatusUpdater;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    Account manager;
+    Account member;
+
+    @BeforeEach
+    void beforeEach() {
+        manager = accountRepository.save(Account.builder().nickname("manager").email("manager@email.com").password("12341234").build());
+        member = accountRepository.save(Account.builder().nickname("member").email("member@email.com").password("12341234").build());
+
+        Study study = new Study();
+        study.setPath("test-study");
+        study.setTitle("테스트 스터디");
+        studyService.createNewStudy(study, manager);
+    }
+
+    @AfterEach
+    void afterEach() {
+        studyRepository.deleteAll();
+        accountRepository.deleteAll();
+    }
+
+    @DisplayName("가입을 두번 해도 멤버 수는 한번만 늘고, 탈퇴도 마찬가지")
+    @Test
+    void join_and_leave_twice() {
+        studyService.addMember(studyService.getStudyToJoin("test-study"), member);
+        studyService.addMember(studyService.getStudyToJoin("test-study"), member);
+
+        Study study = studyRepository.findByPath("test-study");
+        assertEquals(1, study.getMemberCount());
+        assertEquals(1, study.getMembers().size());
+
+        studyService.removeMember(studyService.getStudyToJoin("test-study"), member);
+        studyService.removeMember(studyService.getStudyToJoin("test-study"), member);
+
+        study = studyRepository.findByPath("test-study");
+        assertEquals(0, study.getMemberCount());
+        assertEquals(0, study.getMembers().size());
+    }
+
+    @DisplayName("한 스터디에 동시에 2000명이 (두번씩) 가입해도 멤버 수가 맞다")
+    @Test
+    void concurrent_join() throws Exception {
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            accounts.add(Account.builder().nickname("user" + i).email("user" + i + "@email.com").password("12341234").build());
+        }
+        accountRepository.saveAll(accounts);
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Account account : accounts) {
+                for (int click = 0; click < 2; click++) {
+                    futures.add(executor.submit(() -> studyService.addMember(studyService.getStudyToJoin("test-study"), account)));
+                }
+            }
+            for (Future<?> future : futures) {
+                future.get(); // 실패한 가입이 있으면 여기서 예외
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Study study = studyRepository.findByPath("test-study");
+        assertEquals(2000, study.getMemberCount());
+        assertEquals(2000, study.getMembers().size());
+    }
+
+    @DisplayName("상태를 바꾸는 사이 다른 매니저가 스터디를 수정하면 다시 읽어서 재시도, 다른 매니저의 수정도 남아있음")
+    @Test
+    void retry_on_concurrent_update() {
+        TransactionTemplate otherManager = new TransactionTemplate(transactionManager);
+        otherManager.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        AtomicInteger attempts = new AtomicInteger();
+
+        studyStatusUpdater.update(manager, "test-study", study -> {
+            if (attempts.incrementAndGet() == 1) {
+                otherManager.executeWithoutResult(status ->
+                        studyRepository.findByPath("test-study").setTitle("바뀐 제목"));
+            }
+            studyService.publish(study);
+        });
+
+        Study study = studyRepository.findByPath("test-study");
+        assertEquals(2, attempts.get());
+        assertTrue(study.isPublished());
+        assertEquals("바뀐 제목", study.getTitle());
+    }
+
+    @DisplayName("지금 상태에서 할 수 없는 상태 변경은 StudyTransitionException, 종료하면 모집도 끝난다")
+    @Test
+    void lifecycle_transitions() {
+        assertThrows(StudyTransitionException.class, () -> studyStatusUpdater.update(manager, "test-study", studyService::close));
+
+        studyStatusUpdater.update(manager, "test-study", studyService::publish);
+        studyStatusUpdater.update(manager, "test-study", studyService::startRecruit);
+        StudyTransitionException e = assertThrows(StudyTransitionException.class,
+                () -> studyStatusUpdater.update(manager, "test-study", studyService::publish));
+        assertEquals(StudyState.RECRUITING, e.getState());
+        assertEquals(StudyState.RECRUITING, studyRepository.findByPath("test-study").getState());
+
+        studyStatusUpdater.update(manager, "test-study", studyService::close);
+        Study study = studyRepository.findByPath("test-study");
+        assertEquals(StudyState.CLOSED, study.getState());
+        assertFalse(study.isRecruiting());
+        assertThrows(StudyTransitionException.class, () -> studyStatusUpdater.update(manager, "test-study", studyService::startRecruit));
+    }
+
+    @DisplayName("팀원 모집은 공개한 스터디만, 한번 바꾸면 1시간 뒤에 다시 바꿀 수 있다")
+    @Test
+    void recruiting_throttle() {
+        LocalDateTime now = LocalDateTime.of(2020, 11, 1, 12, 0);
+        Study study = new Study();
+        assertFalse(study.canUpdateRecruiting(now)); // 공개 전에도 NPE 없이
+        assertThrows(StudyTransitionException.class, () -> study.startRecruit(now));
+
+        study.publish(now);
+        study.startRecruit(now);
+        StudyTransitionException e = assertThrows(StudyTransitionException.class, () -> study.stopRecruit(now.plusMinutes(59)));
+        assertEquals(StudyTransition.STOP_RECRUIT, e.getTransition());
+        assertTrue(study.isRecruiting());
+
+        study.stopRecruit(now.plusHours(1));
+        assertEquals(StudyState.PUBLISHED, study.getState());
+        assertEquals(now.plusHours(1), study.getRecruitingUpdatedDateTime());
+    }
+}
@@ -0,0 +1,271 @@
+package com.studyolle.study.view;
+
+import com.studyolle.account.AccountRepository;
+import com.studyolle.account.AccountService;
+import com.studyolle.account.UserAccount;
+import com.studyolle.domain.Account;
+import com.studyolle.domain.Study;
+import com.studyolle.infra.QueryCounter;
+import com.studyolle.infra.QueryStats;
+import com.studyolle.settings.form.Profile;
+import com.studyolle.study.StudyRepository;
+import com.studyolle.study.StudyService;
+import com.studyolle.tag.TagRepository;
+import com.studyolle.tag.TagService;
+import com.studyolle.zone.ZoneRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasProperty;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class StudyViewServiceTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired StudyViewService studyViewService;
+    @Autowired StudyService studyService;
+    @Autowired StudyRepository studyRepository;
+    @Autowired AccountRepository accountRepository;
+    @Autowired AccountService accountService;
+    @Autowired TagService tagService;
+    @Autowired TagRepository tagRepository;
+    @Autowired ZoneRegistry zoneRegistry;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired MeterRegistry meterRegistry;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    Account manager;
+
+    @BeforeEach
+    void beforeEach() {
+        manager = accountRepository.save(Account.builder().nickname("manager").email("manager@email.com").password("12341234").build());
+        Study study = new Study();
+        study.setPath("test-study");
+        study.setTitle("테스트 스터디");
+        studyService.createNewStudy(study, manager);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Study toUpdate = studyService.getStudyToUpdate(manager, "test-study");
+            for (int i = 0; i < 30; i++) {
+                studyService.addTag(toUpdate, tagService.findOrCreateNew("tag" + i));
+            }
+            for (int i = 0; i < 10; i++) {
+                studyService.addZone(toUpdate, zoneRegistry.getZones().get(i));
+            }
+        });
+
+        List<Account> members = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            members.add(Account.builder().nickname("member" + i).email("member" + i + "@email.com").password("12341234").build());
+        }
+        accountRepository.saveAll(members).forEach(member ->
+                studyService.addMember(studyService.getStudyToJoin("test-study"), member));
+    }
+
+    @AfterEach
+    void afterEach() {
+        studyRepository.deleteAll();
+        tagRepository.deleteAll();
+        accountRepository.deleteAll();
+    }
+
+    @DisplayName("컬렉션을 따로 읽어서 row 가 곱해지지 않고, 두번째부터는 캐시에서 읽는다")
+    @Test
+    void rows_and_cache() {
+        QueryStats start = QueryCounter.current();
+        StudyView view = studyViewService.getStudyView("test-study");
+        QueryStats loaded = QueryCounter.current().minus(start);
+
+        assertEquals(4, loaded.getStatements());
+        assertTrue(loaded.getRows() <= 1 + 30 + 10 + 1); // withAll 이면 30 x 10 x 1 x 100, 멤버 id 는 읽지 않는다
+        assertEquals(30, view.getTags().size());
+        assertEquals(10, view.getZones().size());
+        assertEquals(100, view.getMemberCount());
+        assertTrue(view.isManager(new UserAccount(manager)));
+
+        start = QueryCounter.current();
+        assertSame(view, studyViewService.getStudyView("test-study"));
+        assertEquals(0, QueryCounter.current().minus(start).getStatements());
+
+        studyViewService.evict("test-study");
+        assertNotSame(view, studyViewService.getStudyView("test-study"));
+    }
+
+    @DisplayName("StudyService 에서 스터디를 바꾸면 캐시를 비우고, path 를 바꾸면 이전 path 로는 찾을 수 없다")
+    @Test
+    void evict_from_study_service() {
+        double misses = meterRegistry.counter("studyolle.cache.gets", "cache", "study-view", "result", "miss").count();
+        double hits = meterRegistry.counter("studyolle.cache.gets", "cache", "study-view", "result", "hit").count();
+        studyViewService.getStudyView("test-study");
+        studyViewService.getStudyView("test-study");
+        assertEquals(misses + 1, meterRegistry.counter("studyolle.cache.gets", "cache", "study-view", "result", "miss").count());
+        assertEquals(hits + 1, meterRegistry.counter("studyolle.cache.gets", "cache", "study-view", "result", "hit").count());
+
+        Account newMember = accountRepository.save(Account.builder().nickname("new").email("new@email.com").password("12341234").build());
+        studyService.addMember(studyService.getStudyToJoin("test-study"), newMember);
+        assertEquals(101, studyViewService.getStudyView("test-study").getMemberCount());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                studyService.updateStudyPath(studyService.getStudyToUpdateStatus(manager, "test-study"), "new-path"));
+        assertThrows(IllegalArgumentException.class, () -> studyViewService.getStudyView("test-study"));
+        assertEquals("new-path", studyViewService.getStudyView("new-path").getPath());
+    }
+
+    @DisplayName("매니저가 프로필을 바꾸면 그 매니저의 스터디를 캐시에서 지운다")
+    @Test
+    void evict_when_manager_profile_changes() {
+        StudyView view = studyViewService.getStudyView("test-study");
+        assertNull(view.getManagers().get(0).getBio());
+
+        Profile profile = new Profile();
+        profile.setBio("새 자기소개");
+        accountService.updateProfile(accountRepository.findByNickname("manager"), profile);
+
+        StudyView reloaded = studyViewService.getStudyView("test-study");
+        assertNotSame(view, reloaded);
+        assertEquals("새 자기소개", reloaded.getManagers().get(0).getBio());
+
+        accountService.updateProfile(accountRepository.findByNickname("member0"), profile); // 멤버는 캐시에 없음
+        assertSame(reloaded, studyViewService.getStudyView("test-study"));
+    }
+
+    @DisplayName("개수나 무게를 넘으면 가장 오래 안 쓴 스터디부터 뺀다")
+    @Test
+    void bounded_by_entries_and_weight() {
+        StudyView view = studyViewService.getStudyView("test-study");
+
+        StudyViewCache byEntries = new StudyViewCache(2, Long.MAX_VALUE);
+        byEntries.put("a", view);
+        byEntries.put("b", view);
+        byEntries.get("a");
+        byEntries.put("c", view);
+        assertEquals(2, byEntries.size());
+        assertNull(byEntries.get("b"));
+        assertEquals(1, byEntries.getEvictions());
+
+        StudyViewCache byWeight = new StudyViewCache(100, view.getWeight() * 8);
+        for (int i = 0; i < 10; i++) {
+            byWeight.put("study" + i, view);
+        }
+        assertEquals(8, byWeight.size());
+        assertEquals(view.getWeight() * 8, byWeight.getCurrentWeight());
+
+        StudyViewCache tooSmall = new StudyViewCache(100, view.getWeight()); // 1/8 보다 무거우면 넣지 않음
+        tooSmall.put("a", view);
+        assertEquals(0, tooSmall.size());
+    }
+
+    @DisplayName("구성원은 nickname 순으로 한 페이지씩, 페이지마다 읽는 row 는 페이지 크기 + 1")
+    @Test
+    void member_pages() {
+        StudyView view = studyViewService.getStudyView("test-study");
+        List<String> nicknames = new ArrayList<>();
+        String after = null;
+        do {
+            QueryStats start = QueryCounter.current();
+            MemberPage page = studyViewService.getMembers(view, after);
+            assertTrue(QueryCounter.current().minus(start).getRows() <= StudyViewService.MEMBER_PAGE_SIZE + 1);
+            assertEquals(100, page.getTotal());
+            page.getMembers().forEach(member -> nicknames.add(member.getNickname()));
+            after = page.getNext();
+        } while (after != null);
+
+        assertEquals(100, nicknames.size());
+        assertEquals(nicknames.stream().sorted().collect(Collectors.toList()), nicknames);
+    }
+
+    @DisplayName("가입 여부는 캐시하지 않고 로그인한 사용자 한명만 쿼리 한번으로 확인한다")
+    @Test
+    void is_member() {
+        StudyView view = studyViewService.getStudyView("test-study");
+        Account member = accountRepository.findByNickname("member0");
+
+        QueryStats start = QueryCounter.current();
+        assertTrue(studyViewService.isMember(view, member));
+        QueryStats checked = QueryCounter.current().minus(start);
+        assertEquals(1, checked.getStatements());
+        assertEquals(1, checked.getRows());
+
+        assertFalse(studyViewService.isMember(view, manager));
+        assertFalse(studyViewService.isMember(view, null));
+    }
+
+    @DisplayName("스터디 화면과 구성원 화면을 읽기 모델로 그린다")
+    @Test
+    void render() throws Exception {
+        mockMvc.perform(get("/study/test-study").with(user(new UserAccount(manager))))
+                .andExpect(status().isOk())
+                .andExpect(view().name("study/view"))
+                .andExpect(model().attribute("isMember", false))
+                .andExpect(model().attribute("isJoinable", false));
+        mockMvc.perform(get("/study/test-study").with(user(new UserAccount(accountRepository.findByNickname("member0")))))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("isMember", true));
+        mockMvc.perform(get("/study/test-study/members").with(user(new UserAccount(manager))))
+                .andExpect(status().isOk())
+                .andExpect(view().name("study/members"))
+                .andExpect(model().attribute("memberPage", hasProperty("next", equalTo("member26")))); // member0, member1, member10 ...
+        mockMvc.perform(get("/study/test-study/members").param("after", "member26").with(user(new UserAccount(manager))))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("memberPage", hasProperty("next", equalTo("member44"))));
+    }
+
+    @DisplayName("구성원 목록 JSON - 화면과 같은 nickname 키셋으로 한 페이지씩")
+    @Test
+    void members_page_json() throws Exception {
+        mockMvc.perform(get("/study/test-study/members/page").with(user(new UserAccount(manager))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.members[0].nickname").value("member0"))
+                .andExpect(jsonPath("$.next").value("member26"))
+                .andExpect(jsonPath("$.total").value(100));
+        mockMvc.perform(get("/study/test-study/members/page").param("after", "member26").with(user(new UserAccount(manager))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.members[0].nickname").value("member27"))
+                .andExpect(jsonPath("$.next").value("member44"));
+    }
+
+    @DisplayName("배너와 매니저 프로필 이미지는 화면 크기에 맞게 줄인 이미지 주소로 그린다")
+    @Test
+    void render_image_urls() throws Exception {
+        String hash = "a".repeat(64);
+        jdbcTemplate.update("UPDATE study SET image = ?, use_banner = TRUE WHERE path = ?", hash, "test-study");
+        jdbcTemplate.update("UPDATE account SET profile_image = ? WHERE id = ?", hash, manager.getId());
+        studyViewService.evict("test-study");
+
+        mockMvc.perform(get("/study/test-study/members").with(user(new UserAccount(manager))))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("/images/" + hash + "/1200")))
+                .andExpect(content().string(containsString("/images/" + hash + "/150")));
+    }
+}
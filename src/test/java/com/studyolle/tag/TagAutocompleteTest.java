@@ -0,0 +1,83 @@
+package com.studyolle.tag;
+
+import com.studyolle.account.AccountRepository;
+import com.studyolle.account.AccountService;
+import com.studyolle.account.form.SignUpForm;
+import com.studyolle.domain.Account;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class TagAutocompleteTest {
+
+    @Autowired TagAutocomplete tagAutocomplete;
+    @Autowired TagService tagService;
+    @Autowired TagRepository tagRepository;
+    @Autowired AccountService accountService;
+    @Autowired AccountRepository accountRepository;
+
+    @AfterEach
+    void afterEach() {
+        accountRepository.deleteAll();
+        tagRepository.deleteAll();
+        tagAutocomplete.rebuild();
+    }
+
+    @DisplayName("많이 쓰인 태그가 먼저 나온다 - 태그 추가, 삭제 반영")
+    @Test
+    void complete() {
+        Account tak = newAccount("tak");
+        Account kim = newAccount("kim");
+        Tag spring = tagService.findOrCreateNew("Spring");
+        Tag springBoot = tagService.findOrCreateNew("SpringBoot");
+        tagService.findOrCreateNew("Spark");
+        accountService.addTag(tak, springBoot);
+        accountService.addTag(kim, springBoot);
+        accountService.addTag(kim, spring);
+
+        assertEquals(List.of("SpringBoot", "Spring", "Spark"), tagAutocomplete.complete("sp", 10));
+        assertEquals(List.of("SpringBoot", "Spring"), tagAutocomplete.complete("SPR", 10));
+        assertEquals(List.of("SpringBoot"), tagAutocomplete.complete("sp", 1));
+        assertEquals(List.of(), tagAutocomplete.complete("jpa", 10));
+
+        accountService.removeTag(tak, springBoot);
+        accountService.removeTag(kim, springBoot);
+        assertEquals(List.of("Spring", "Spark", "SpringBoot"), tagAutocomplete.complete("sp", 10));
+
+        // 처음부터 다시 만들어도 (account_tags, study_tags 집계) 결과가 같다
+        tagAutocomplete.rebuild();
+        assertEquals(List.of("Spring", "Spark", "SpringBoot"), tagAutocomplete.complete("sp", 10));
+    }
+
+    @DisplayName("대소문자만 다른 태그는 따로 센다")
+    @Test
+    void complete_case_sensitive_titles() {
+        Account kim = newAccount("kim");
+        Tag upper = tagService.findOrCreateNew("Spring");
+        Tag lower = tagService.findOrCreateNew("spring");
+        accountService.addTag(kim, lower);
+
+        assertEquals(List.of("spring", "Spring"), tagAutocomplete.complete("spr", 10));
+
+        accountService.removeTag(kim, upper); // 갖고 있지 않은 태그, "spring" 사용 횟수는 그대로
+        assertEquals(List.of("spring", "Spring"), tagAutocomplete.complete("spr", 10));
+
+        accountService.removeTag(kim, lower);
+        assertEquals(List.of("Spring", "spring"), tagAutocomplete.complete("SPR", 10));
+    }
+
+    private Account newAccount(String nickname) {
+        SignUpForm signUpForm = new SignUpForm();
+        signUpForm.setNickname(nickname);
+        signUpForm.setEmail(nickname + "@email.com");
+        signUpForm.setPassword("12341234");
+        return accountService.processNewAccount(signUpForm);
+    }
+}
@@ -0,0 +1,46 @@
+package com.studyolle.whitelist;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+class WhitelistControllerTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired WhitelistService whitelistService;
+
+    @DisplayName("지역 whitelist - ETag 가 같으면 304, 다시 만들어도 내용이 같으면 ETag 도 같다")
+    @Test
+    void zones() throws Exception {
+        String etag = mockMvc.perform(get("/whitelist/zones"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$[0]").exists())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/whitelist/zones").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        whitelistService.invalidateZones();
+        mockMvc.perform(get("/whitelist/zones").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @DisplayName("태그는 whitelist 대신 자동완성(/tags/autocomplete)을 쓴다")
+    @Test
+    void no_tag_whitelist() throws Exception {
+        mockMvc.perform(get("/whitelist/tags"))
+                .andExpect(status().isNotFound());
+    }
+}
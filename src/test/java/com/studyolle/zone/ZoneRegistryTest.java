@@ -0,0 +1,37 @@
+package com.studyolle.zone;
+
+import com.studyolle.domain.Zone;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ZoneRegistryTest {
+
+    @Autowired ZoneRegistry zoneRegistry;
+    @Autowired ZoneRepository zoneRepository;
+
+    @DisplayName("zones_kr.csv 로 넣은 지역을 메모리에서 찾는다")
+    @Test
+    void find() {
+        assertEquals(zoneRepository.count(), zoneRegistry.getZones().size());
+
+        Zone andong = zoneRegistry.find("Andong", "North Gyeongsang").orElseThrow();
+        assertEquals("Andong(안동시)/North Gyeongsang", andong.toString());
+        assertEquals(andong, zoneRegistry.findById(andong.getId()).orElseThrow());
+        assertEquals(andong, zoneRegistry.parse("Andong(안동시)/North Gyeongsang").orElseThrow());
+        assertTrue(zoneRegistry.getZoneNames().contains("Andong(안동시)/North Gyeongsang"));
+    }
+
+    @DisplayName("없는 지역이나 형식이 틀린 값")
+    @Test
+    void parse_wrong_value() {
+        assertTrue(zoneRegistry.parse("Andong(안동)/North Gyeongsang").isEmpty());
+        assertTrue(zoneRegistry.parse("Seoul").isEmpty());
+        assertTrue(zoneRegistry.parse("").isEmpty());
+        assertTrue(zoneRegistry.parse(null).isEmpty());
+    }
+}